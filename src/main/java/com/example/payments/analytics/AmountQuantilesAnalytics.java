@@ -0,0 +1,244 @@
+package com.example.payments.analytics;
+
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.sketch.DDSketch;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Amount percentiles per group (e.g. p50/p95/p99 ticket size per paymentType) from one
+ * DDSketch per group, so memory does not grow with the number of transactions.
+ *
+ * - group_by: grouping field (default paymentType); null groups count as UNKNOWN
+ * - percentiles: list or comma-separated (default 50, 95, 99)
+ * - relative_accuracy: every percentile is within this relative error of the exact
+ *   value at its rank (default 0.01)
+ * - max_buckets: bucket cap per group and sign (default 2048); a group that hits it
+ *   reports collapsed: true and its lowest amounts lose the guarantee
+ * - value_scale: decimals in the output (default 2)
+ *
+ * Sketches merge exactly, so partial accumulators combine to a sequential scan's result.
+ */
+public class AmountQuantilesAnalytics implements Analytics {
+
+    private static final double[] POW10 = new double[FixedPoint.MAX_SCALE + 1];
+
+    static {
+        for (int i = 0; i < POW10.length; i++) POW10[i] = Math.pow(10, i);
+    }
+
+    private DictColumn groupBy = DictColumn.PAYMENT_TYPE;
+    private double[] percentiles = {50, 95, 99};
+    private double relativeAccuracy = 0.01;
+    private int maxBuckets = 2048;
+    private int valueScale = 2;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        try {
+            if (parameters == null) return;
+
+            if (parameters.containsKey("group_by")) {
+                DictColumn c = DictColumn.fromField(parameters.get("group_by").toString());
+                if (c != null) groupBy = c;
+                else ErrorHandler.log("AmountQuantilesAnalytics-Init-group_by", "Unsupported field: " + parameters.get("group_by"));
+            }
+
+            if (parameters.containsKey("percentiles")) {
+                try {
+                    Object v = parameters.get("percentiles");
+                    List<String> items = new ArrayList<>();
+                    if (v instanceof List<?> list) {
+                        for (Object o : list) items.add(o.toString());
+                    } else {
+                        items.addAll(Arrays.asList(v.toString().split(",")));
+                    }
+                    double[] ps = new double[items.size()];
+                    for (int i = 0; i < ps.length; i++) {
+                        ps[i] = Double.parseDouble(items.get(i).trim());
+                        if (ps[i] < 0 || ps[i] > 100) throw new IllegalArgumentException("Percentile out of range: " + ps[i]);
+                    }
+                    percentiles = ps;
+                } catch (Exception e) {
+                    ErrorHandler.log("AmountQuantilesAnalytics-Init-percentiles", e);
+                }
+            }
+
+            if (parameters.containsKey("relative_accuracy")) {
+                try {
+                    double a = Double.parseDouble(parameters.get("relative_accuracy").toString());
+                    if (a > 0 && a < 1) relativeAccuracy = a;
+                    else ErrorHandler.log("AmountQuantilesAnalytics-Init-relative_accuracy", "Out of range: " + a);
+                } catch (Exception e) {
+                    ErrorHandler.log("AmountQuantilesAnalytics-Init-relative_accuracy", e);
+                }
+            }
+
+            if (parameters.containsKey("max_buckets")) {
+                try {
+                    maxBuckets = Math.max(2, Integer.parseInt(parameters.get("max_buckets").toString()));
+                } catch (Exception e) {
+                    ErrorHandler.log("AmountQuantilesAnalytics-Init-max_buckets", e);
+                }
+            }
+
+            if (parameters.containsKey("value_scale")) {
+                try {
+                    valueScale = Math.max(0, Math.min(FixedPoint.MAX_SCALE, Integer.parseInt(parameters.get("value_scale").toString())));
+                } catch (Exception e) {
+                    ErrorHandler.log("AmountQuantilesAnalytics-Init-value_scale", e);
+                }
+            }
+
+        } catch (Exception e) {
+            ErrorHandler.log("AmountQuantilesAnalytics-Init", e);
+        }
+    }
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new QuantileAccumulator();
+    }
+
+    private class QuantileAccumulator implements Accumulator {
+        private final Map<String, DDSketch> groups = new HashMap<>();
+        private long seen;
+
+        // columnar rows: one sketch per group dictionary code (null code -> slot 0)
+        private ColumnarTransactionStore store;
+        private DDSketch[] slots = new DDSketch[0];
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null) return;
+
+            double amount;
+            if (t.hasCompactAmount()) amount = t.amountUnscaled() / POW10[t.amountScale()];
+            else if (t.getAmount() != null) amount = t.getAmount().doubleValue();
+            else return;
+
+            groups.computeIfAbsent(nullToUnknown(groupBy.valueOf(t)), k -> newSketch()).add(amount);
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            this.store = store;
+
+            double amount;
+            if (store.isCompactAmount(row)) amount = store.amountUnscaled(row) / POW10[store.amountScale(row)];
+            else if (store.hasAmount(row)) amount = store.amount(row).doubleValue();
+            else return;
+
+            int slot = store.code(groupBy, row) + 1;
+            if (slot >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(slot + 1, store.dictionary(groupBy).size() + 1));
+            }
+            DDSketch sketch = slots[slot];
+            if (sketch == null) sketch = slots[slot] = newSketch();
+            sketch.add(amount);
+        }
+
+        @Override
+        public boolean isCombinable() {
+            return true;
+        }
+
+        @Override
+        public void combine(Accumulator later) {
+            QuantileAccumulator o = (QuantileAccumulator) later;
+            seen += o.seen;
+
+            for (var e : o.groups.entrySet()) {
+                DDSketch sketch = groups.get(e.getKey());
+                if (sketch == null) groups.put(e.getKey(), e.getValue());
+                else sketch.merge(e.getValue());
+            }
+
+            if (o.store == null) return;
+            store = o.store;
+            if (o.slots.length > slots.length) slots = Arrays.copyOf(slots, o.slots.length);
+            for (int slot = 0; slot < o.slots.length; slot++) {
+                DDSketch sketch = o.slots[slot];
+                if (sketch == null) continue;
+                if (slots[slot] == null) slots[slot] = sketch;
+                else slots[slot].merge(sketch);
+            }
+        }
+
+        private void foldCodes() {
+            if (store == null) return;
+            for (int slot = 0; slot < slots.length; slot++) {
+                if (slots[slot] == null) continue;
+                String group = nullToUnknown(store.dictionary(groupBy).decode(slot - 1));
+                DDSketch sketch = groups.get(group);
+                if (sketch == null) groups.put(group, slots[slot]);
+                else sketch.merge(slots[slot]);
+            }
+            store = null;
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+            Map<String, Object> result = new HashMap<>();
+            foldCodes();
+
+            if (seen == 0) {
+                System.err.println("AmountQuantilesAnalytics: No transactions to analyze.");
+            }
+
+            Map<String, Object> out = new HashMap<>();
+            for (var e : groups.entrySet()) {
+                DDSketch sketch = e.getValue();
+                Map<String, Object> g = new LinkedHashMap<>();
+                g.put("count", sketch.count());
+                g.put("min", decimal(sketch.min()));
+                g.put("max", decimal(sketch.max()));
+                for (double p : percentiles) g.put(label(p), decimal(sketch.quantile(p / 100)));
+                if (sketch.isCollapsed()) g.put("collapsed", true);
+                out.put(e.getKey(), g);
+            }
+
+            result.put("group_by", groupBy.field());
+            result.put("relative_accuracy", relativeAccuracy);
+            result.put("quantiles", out);
+            return result;
+        }
+    }
+
+    private DDSketch newSketch() {
+        return new DDSketch(relativeAccuracy, maxBuckets);
+    }
+
+    private BigDecimal decimal(double v) {
+        return BigDecimal.valueOf(v).setScale(valueScale, RoundingMode.HALF_EVEN);
+    }
+
+    /** 95 -> "p95", 99.9 -> "p99.9" */
+    private static String label(double p) {
+        return "p" + BigDecimal.valueOf(p).stripTrailingZeros().toPlainString();
+    }
+
+    private String nullToUnknown(String v) {
+        return v == null ? "UNKNOWN" : v;
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.AMOUNT, groupBy.transactionField());
+    }
+
+    @Override
+    public String name() {
+        return "AmountQuantiles";
+    }
+}
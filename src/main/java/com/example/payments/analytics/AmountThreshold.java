@@ -0,0 +1,36 @@
+package com.example.payments.analytics;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.utils.DecimalBound;
+
+import java.math.BigDecimal;
+
+/**
+ * The amount anomaly check shared by the fraud detectors (amount_threshold): an amount
+ * strictly over the threshold. Fixed-point amounts are compared without a BigDecimal.
+ */
+final class AmountThreshold {
+
+    static final AmountThreshold DEFAULT = new AmountThreshold(BigDecimal.valueOf(10000));
+
+    private final DecimalBound bound;
+
+    AmountThreshold(BigDecimal threshold) {
+        this.bound = new DecimalBound(threshold);
+    }
+
+    static AmountThreshold parse(Object v) {
+        return new AmountThreshold(new BigDecimal(v.toString()));
+    }
+
+    boolean exceededBy(Transaction t) {
+        if (t.hasCompactAmount()) return bound.compareTo(t.amountUnscaled(), t.amountScale()) > 0;
+        return t.getAmount() != null && bound.compareTo(t.getAmount()) > 0;
+    }
+
+    boolean exceededBy(ColumnarTransactionStore store, int row) {
+        if (store.isCompactAmount(row)) return bound.compareTo(store.amountUnscaled(row), store.amountScale(row)) > 0;
+        return store.hasAmount(row) && bound.compareTo(store.amount(row)) > 0;
+    }
+}
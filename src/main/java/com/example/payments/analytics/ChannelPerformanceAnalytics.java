@@ -2,11 +2,15 @@ package com.example.payments.analytics;
 
 import com.example.payments.engine.interfaces.Analytics;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
 import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.FixedPointSum;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Aggregates performance by payment type (paymentType).
@@ -18,57 +22,124 @@ public class ChannelPerformanceAnalytics implements Analytics {
     public void init(Map<String, Object> parameters) throws Exception { /* none for now */ }
 
     @Override
-    public Map<String, Object> analyze(List<Transaction> transactions) {
+    public Accumulator newAccumulator() {
+        return new ChannelAccumulator();
+    }
+
+    /**
+     * Counts and values per channel, built one row at a time.
+     * Values run in fixed-point minor units (FixedPointSum) and match BigDecimal.add exactly.
+     */
+    private class ChannelAccumulator implements Accumulator {
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Map<String, FixedPointSum> values = new HashMap<>();
+        private long seen;
+
+        // columnar rows aggregate per paymentType dictionary code (null code -> slot 0)
+        private ColumnarTransactionStore store;
+        private long[] codeCounts = new long[0];
+        private FixedPointSum[] codeValues = new FixedPointSum[0];
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null) return;
+
+            String ch = nullToUnknown(t.getPaymentType());
+            counts.merge(ch, 1L, Long::sum);
+
+            try {
+                FixedPointSum sum = values.computeIfAbsent(ch, k -> new FixedPointSum(FixedPoint.scaleOf(t.getCurrency())));
+                if (t.hasCompactAmount()) sum.add(t.amountUnscaled(), t.amountScale());
+                else sum.add(t.getAmount() == null ? BigDecimal.ZERO : t.getAmount());
+            } catch (Exception inner) {
+                ErrorHandler.log("ChannelPerformanceAnalytics-MergeValue", inner);
+            }
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            this.store = store;
+            int slot = store.code(DictColumn.PAYMENT_TYPE, row) + 1;
+            if (slot >= codeCounts.length) {
+                int n = Math.max(slot + 1, store.dictionary(DictColumn.PAYMENT_TYPE).size() + 1);
+                codeCounts = Arrays.copyOf(codeCounts, n);
+                codeValues = Arrays.copyOf(codeValues, n);
+            }
+
+            codeCounts[slot]++;
+            FixedPointSum sum = codeValues[slot];
+            if (sum == null) {
+                sum = codeValues[slot] = new FixedPointSum(FixedPoint.scaleOf(store.string(DictColumn.CURRENCY, row)));
+            }
+            if (store.isCompactAmount(row)) sum.add(store.amountUnscaled(row), store.amountScale(row));
+            else sum.add(store.hasAmount(row) ? store.amount(row) : BigDecimal.ZERO);
+        }
+
+        @Override
+        public boolean isCombinable() {
+            return true;
+        }
+
+        @Override
+        public void combine(Accumulator later) {
+            ChannelAccumulator o = (ChannelAccumulator) later;
+            seen += o.seen;
+
+            // new keys arrive in the later partition's order, as a sequential scan would insert them
+            for (var e : o.counts.entrySet()) counts.merge(e.getKey(), e.getValue(), Long::sum);
+            for (var e : o.values.entrySet()) {
+                FixedPointSum sum = values.get(e.getKey());
+                if (sum == null) values.put(e.getKey(), e.getValue());
+                else sum.add(e.getValue());
+            }
 
-        Map<String, Object> result = new HashMap<>();
+            if (o.store == null) return;
+            store = o.store;
+            if (o.codeCounts.length > codeCounts.length) {
+                codeCounts = Arrays.copyOf(codeCounts, o.codeCounts.length);
+                codeValues = Arrays.copyOf(codeValues, o.codeCounts.length);
+            }
+            for (int slot = 0; slot < o.codeCounts.length; slot++) {
+                codeCounts[slot] += o.codeCounts[slot];
+                FixedPointSum sum = o.codeValues[slot];
+                if (sum == null) continue;
+                if (codeValues[slot] == null) codeValues[slot] = sum;
+                else codeValues[slot].add(sum);
+            }
+        }
 
-        try {
+        private void foldCodes() {
+            if (store == null) return;
+            for (int slot = 0; slot < codeCounts.length; slot++) {
+                if (codeCounts[slot] == 0) continue;
+                String ch = nullToUnknown(store.dictionary(DictColumn.PAYMENT_TYPE).decode(slot - 1));
+                counts.merge(ch, codeCounts[slot], Long::sum);
+                FixedPointSum sum = values.get(ch);
+                if (sum == null) values.put(ch, codeValues[slot]);
+                else sum.add(codeValues[slot]);
+            }
+            store = null;
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+            Map<String, Object> result = new HashMap<>();
+            foldCodes();
 
-            if (transactions == null || transactions.isEmpty()) {
+            if (seen == 0) {
                 System.err.println("ChannelPerformanceAnalytics: No transactions to analyze.");
                 result.put("counts", Collections.emptyMap());
                 result.put("values", Collections.emptyMap());
                 return result;
             }
 
-            // 1. Counts per channel (safe)
-            Map<String, Long> counts = new HashMap<>();
-            try {
-                counts = transactions.stream()
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.groupingBy(
-                                t -> nullToUnknown(t.getPaymentType()),
-                                Collectors.counting()
-                        ));
-            } catch (Exception e) {
-                ErrorHandler.log("ChannelPerformanceAnalytics-Counts", e);
-            }
-
-            // 2. Values per channel (safe)
-            Map<String, BigDecimal> values = new HashMap<>();
-            try {
-                for (Transaction t : transactions) {
-                    if (t == null) continue;
-
-                    String ch = nullToUnknown(t.getPaymentType());
-                    BigDecimal amt = t.getAmount() == null ? BigDecimal.ZERO : t.getAmount();
-
-                    try {
-                        values.merge(ch, amt, BigDecimal::add);
-                    } catch (Exception inner) {
-                        ErrorHandler.log("ChannelPerformanceAnalytics-MergeValue", inner);
-                    }
-                }
-            } catch (Exception e) {
-                ErrorHandler.log("ChannelPerformanceAnalytics-Values", e);
-            }
+            Map<String, BigDecimal> totals = new HashMap<>();
+            for (var e : values.entrySet()) totals.put(e.getKey(), e.getValue().toBigDecimal());
 
             result.put("counts", counts);
-            result.put("values", values);
-            return result;
-
-        } catch (Exception e) {
-            ErrorHandler.log("ChannelPerformanceAnalytics", e);
+            result.put("values", totals);
             return result;
         }
     }
@@ -77,6 +148,11 @@ public class ChannelPerformanceAnalytics implements Analytics {
         return v == null ? "UNKNOWN" : v;
     }
 
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.PAYMENT_TYPE, TransactionField.AMOUNT, TransactionField.CURRENCY);
+    }
+
     @Override
     public String name() {
         return "ChannelPerformance";
@@ -2,24 +2,35 @@ package com.example.payments.analytics;
 
 import com.example.payments.engine.interfaces.Analytics;
 import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.utils.Durations;
 import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.IsoTimestampParser;
+import com.example.payments.utils.PairedSort;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Basic fraud detector with:
- * - velocity check: transactions per customer in window (default 1h)
+ * - velocity check: transactions per customer in window (default 1h); every burst of
+ *   overlapping windows at or over velocity_threshold is reported, customers optionally
+ *   checked in parallel (velocity_parallelism)
  * - amount anomaly: transactions over configured threshold
  */
 public class FraudDetectorAnalytics implements Analytics {
 
     private Duration velocityWindow = Duration.ofHours(1);
     private int velocityThreshold = 10;
-    private BigDecimal amountThreshold = BigDecimal.valueOf(10000);
+    private int velocityParallelism = 1;
+    private AmountThreshold amountThreshold = AmountThreshold.DEFAULT;
 
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
@@ -27,11 +38,8 @@ public class FraudDetectorAnalytics implements Analytics {
             if (parameters == null) return;
 
             if (parameters.containsKey("velocity_window")) {
-                String v = parameters.get("velocity_window").toString();
                 try {
-                    if (v.startsWith("PT")) velocityWindow = Duration.parse(v);
-                    else if (v.endsWith("h"))
-                        velocityWindow = Duration.ofHours(Long.parseLong(v.replace("h", "")));
+                    velocityWindow = Durations.parse(parameters.get("velocity_window").toString());
                 } catch (Exception e) {
                     ErrorHandler.log("FraudDetectorAnalytics-Init-velocity_window", e);
                 }
@@ -45,9 +53,20 @@ public class FraudDetectorAnalytics implements Analytics {
                 }
             }
 
+            if (parameters.containsKey("velocity_parallelism")) {
+                try {
+                    String v = parameters.get("velocity_parallelism").toString();
+                    velocityParallelism = "auto".equalsIgnoreCase(v)
+                            ? Runtime.getRuntime().availableProcessors()
+                            : Integer.parseInt(v);
+                } catch (Exception e) {
+                    ErrorHandler.log("FraudDetectorAnalytics-Init-velocity_parallelism", e);
+                }
+            }
+
             if (parameters.containsKey("amount_threshold")) {
                 try {
-                    amountThreshold = new BigDecimal(parameters.get("amount_threshold").toString());
+                    amountThreshold = AmountThreshold.parse(parameters.get("amount_threshold"));
                 } catch (Exception e) {
                     ErrorHandler.log("FraudDetectorAnalytics-Init-amount_threshold", e);
                 }
@@ -59,13 +78,113 @@ public class FraudDetectorAnalytics implements Analytics {
     }
 
     @Override
-    public Map<String, Object> analyze(List<Transaction> transactions) {
+    public Accumulator newAccumulator() {
+        return new FraudAccumulator();
+    }
 
-        Map<String, Object> out = new HashMap<>();
+    /**
+     * Single pass over the rows: amount anomalies are collected as they arrive and
+     * timestamps are grouped per customer for the velocity check in finish(). Alerts are
+     * reported in the order customers were first seen, however the rows were partitioned.
+     * Columnar rows keep only row numbers; a Transaction is built only for anomalies.
+     */
+    private class FraudAccumulator implements Accumulator {
+        private final List<Transaction> large = new ArrayList<>();
+        private final Map<String, List<OffsetDateTime>> byCustomer = new LinkedHashMap<>();
+        private long seen;
 
-        try {
+        // columnar rows: row numbers per customer dictionary code, codes in first-seen order
+        private ColumnarTransactionStore store;
+        private int[][] rowsByCode = new int[0][];
+        private int[] rowCounts = new int[0];
+        private final List<Integer> codeOrder = new ArrayList<>();
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null) return;
+
+            try {
+                if (amountThreshold.exceededBy(t)) large.add(t);
+            } catch (Exception e) {
+                ErrorHandler.log("FraudDetectorAnalytics-AmountAnomalies", e);
+            }
+
+            if (t.getCustomerId() != null && t.getTimestamp() != null) {
+                byCustomer.computeIfAbsent(t.getCustomerId(), k -> new ArrayList<>()).add(t.getTimestamp());
+            }
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            this.store = store;
+
+            if (amountThreshold.exceededBy(store, row)) large.add(store.get(row));
+
+            int code = store.code(DictColumn.CUSTOMER_ID, row);
+            if (code < 0 || store.epochNanos(row) == ColumnarTransactionStore.NO_TIMESTAMP) return;
+
+            if (code >= rowsByCode.length) {
+                int n = Math.max(code + 1, store.dictionary(DictColumn.CUSTOMER_ID).size());
+                rowsByCode = Arrays.copyOf(rowsByCode, n);
+                rowCounts = Arrays.copyOf(rowCounts, n);
+            }
+            int[] rows = rowsByCode[code];
+            if (rows == null) {
+                rows = rowsByCode[code] = new int[4];
+                codeOrder.add(code);
+            } else if (rowCounts[code] == rows.length) {
+                rows = rowsByCode[code] = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[rowCounts[code]++] = row;
+        }
+
+        @Override
+        public boolean isCombinable() {
+            return true;
+        }
+
+        @Override
+        public void combine(Accumulator later) {
+            FraudAccumulator o = (FraudAccumulator) later;
+            seen += o.seen;
+            large.addAll(o.large);
+
+            // new customers follow in the later partition's first-seen order, as a sequential scan would insert them
+            for (var e : o.byCustomer.entrySet()) {
+                byCustomer.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).addAll(e.getValue());
+            }
+
+            if (o.store == null) return;
+            store = o.store;
+            if (o.rowsByCode.length > rowsByCode.length) {
+                rowsByCode = Arrays.copyOf(rowsByCode, o.rowsByCode.length);
+                rowCounts = Arrays.copyOf(rowCounts, o.rowsByCode.length);
+            }
+            for (int code : o.codeOrder) {
+                int n = o.rowCounts[code];
+                int[] rows = rowsByCode[code];
+                if (rows == null) {
+                    rowsByCode[code] = o.rowsByCode[code];
+                    rowCounts[code] = n;
+                    codeOrder.add(code);
+                    continue;
+                }
+                if (rowCounts[code] + n > rows.length) {
+                    rows = rowsByCode[code] = Arrays.copyOf(rows, rowCounts[code] + n);
+                }
+                System.arraycopy(o.rowsByCode[code], 0, rows, rowCounts[code], n);
+                rowCounts[code] += n;
+            }
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+
+            Map<String, Object> out = new HashMap<>();
 
-            if (transactions == null || transactions.isEmpty()) {
+            if (seen == 0) {
                 System.err.println("FraudDetectorAnalytics: No transactions to analyze.");
                 out.put("amount_anomalies", Collections.emptyList());
                 out.put("velocity_alerts", Collections.emptyList());
@@ -75,16 +194,6 @@ public class FraudDetectorAnalytics implements Analytics {
             // ============================
             // 1. AMOUNT ANOMALIES
             // ============================
-            List<Transaction> large = new ArrayList<>();
-            try {
-                large = transactions.stream()
-                        .filter(Objects::nonNull)
-                        .filter(t -> t.getAmount() != null)
-                        .filter(t -> t.getAmount().compareTo(amountThreshold) > 0)
-                        .collect(Collectors.toList());
-            } catch (Exception e) {
-                ErrorHandler.log("FraudDetectorAnalytics-AmountAnomalies", e);
-            }
             out.put("amount_anomalies", large);
 
             // ============================
@@ -93,56 +202,206 @@ public class FraudDetectorAnalytics implements Analytics {
             List<Map<String, Object>> velocityAlerts = new ArrayList<>();
 
             try {
-
-                Map<String, List<Transaction>> byCustomer =
-                        transactions.stream()
-                                .filter(Objects::nonNull)
-                                .filter(t -> t.getCustomerId() != null && t.getTimestamp() != null)
-                                .collect(Collectors.groupingBy(Transaction::getCustomerId));
-
+                List<CustomerCheck> checks = new ArrayList<>();
                 for (var e : byCustomer.entrySet()) {
-
-                    try {
-                        List<OffsetDateTime> times = e.getValue().stream()
-                                .map(Transaction::getTimestamp)
-                                .filter(Objects::nonNull)
-                                .sorted()
-                                .collect(Collectors.toList());
-
-                        for (int i = 0; i < times.size(); i++) {
-                            OffsetDateTime start = times.get(i);
-                            int count = 0;
-
-                            for (int j = i; j < times.size(); j++) {
-                                if (!times.get(j).isAfter(start.plus(velocityWindow))) count++;
-                                else break;
-                            }
-
-                            if (count >= velocityThreshold) {
-                                Map<String, Object> alert = new HashMap<>();
-                                alert.put("customerId", e.getKey());
-                                alert.put("start", start);
-                                alert.put("count", count);
-                                velocityAlerts.add(alert);
-                                break;
-                            }
-                        }
-                    } catch (Exception inner) {
-                        ErrorHandler.log("FraudDetectorAnalytics-Velocity-Customer-" + e.getKey(), inner);
+                    checks.add(new CustomerCheck(e.getKey(), () -> velocity(e.getKey(), e.getValue())));
+                }
+                if (store != null) {
+                    for (int code : codeOrder) {
+                        String customerId = store.dictionary(DictColumn.CUSTOMER_ID).decode(code);
+                        checks.add(new CustomerCheck(customerId, () -> columnarVelocity(customerId, code)));
                     }
                 }
 
+                for (Map<String, Object> alert : runChecks(checks)) {
+                    if (alert != null) velocityAlerts.add(alert);
+                }
+
             } catch (Exception e) {
                 ErrorHandler.log("FraudDetectorAnalytics-Velocity", e);
             }
 
             out.put("velocity_alerts", velocityAlerts);
+            return out;
+        }
 
-        } catch (Exception e) {
-            ErrorHandler.log("FraudDetectorAnalytics-Analyze", e);
+        private Map<String, Object> velocity(String customerId, List<OffsetDateTime> times) {
+            int n = times.size();
+            if (n < velocityThreshold) return null;
+
+            long[] nanos = new long[n];
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                nanos[i] = IsoTimestampParser.epochNanos(times.get(i));
+                if (IsoTimestampParser.isSaturated(nanos[i])) {
+                    times.sort(null); // saturated nanos do not order exactly
+                    return alert(customerId, windowEnds(times), times::get);
+                }
+                order[i] = i;
+            }
+            sortByTime(nanos, order, i -> times.get(i).getOffset().getTotalSeconds());
+            return alert(customerId, windowEnds(nanos, n, velocityWindow.toNanos()), i -> times.get(order[i]));
+        }
+
+        /**
+         * Velocity check over epoch-nanos of columnar rows, sorted as primitives; only a
+         * customer with a timestamp outside the epoch-nanos range sorts OffsetDateTimes.
+         */
+        private Map<String, Object> columnarVelocity(String customerId, int code) {
+            int n = rowCounts[code];
+            if (n < velocityThreshold) return null;
+
+            int[] rows = Arrays.copyOf(rowsByCode[code], n);
+            long[] nanos = new long[n];
+            for (int i = 0; i < n; i++) {
+                if (store.isWideTimestamp(rows[i])) {
+                    List<OffsetDateTime> times = new ArrayList<>(n);
+                    for (int row : rows) times.add(store.timestamp(row));
+                    times.sort(null); // saturated nanos do not order exactly
+                    return alert(customerId, windowEnds(times), times::get);
+                }
+                nanos[i] = store.epochNanos(rows[i]);
+            }
+            sortByTime(nanos, rows, store::offsetSeconds);
+            return alert(customerId, windowEnds(nanos, n, velocityWindow.toNanos()), i -> store.timestamp(rows[i]));
+        }
+    }
+
+    /**
+     * Sort positions by epoch nanos, then equal instants by offset, which is the order
+     * OffsetDateTime.compareTo gives, so the reported times match the list path.
+     */
+    private static void sortByTime(long[] nanos, int[] ids, IntUnaryOperator offsetOf) {
+        int n = nanos.length;
+        PairedSort.sort(nanos, ids, n);
+        for (int i = 1; i < n; i++) {
+            if (nanos[i] != nanos[i - 1]) continue;
+            // equal instants are rare: insertion sort the tie by offset
+            int id = ids[i];
+            int offset = offsetOf.applyAsInt(id);
+            int j = i - 1;
+            while (j >= 0 && nanos[j] == nanos[i] && offsetOf.applyAsInt(ids[j]) > offset) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    /**
+     * One customer's velocity check; returns its alert or null.
+     */
+    private record CustomerCheck(String customerId, Callable<Map<String, Object>> check) {
+        Map<String, Object> run() {
+            try {
+                return check.call();
+            } catch (Exception e) {
+                ErrorHandler.log("FraudDetectorAnalytics-Velocity-Customer-" + customerId, e);
+                return null;
+            }
         }
+    }
+
+    /**
+     * Results in check order; customers are spread over a pool when velocity_parallelism > 1.
+     */
+    private List<Map<String, Object>> runChecks(List<CustomerCheck> checks) throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(checks.size(), null));
+        if (velocityParallelism <= 1 || checks.size() < 2) {
+            for (int i = 0; i < results.size(); i++) results.set(i, checks.get(i).run());
+            return results;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(velocityParallelism);
+        try {
+            // set() on distinct indices of a fixed-size list; get() publishes the writes
+            pool.submit(() -> IntStream.range(0, results.size()).parallel()
+                    .forEach(i -> results.set(i, checks.get(i).run()))).get();
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Two-pointer sweep over sorted epoch nanos: ends[i] is one past the last event in
+     * [nanos[i], nanos[i] + window], so window i holds ends[i] - i events. O(n) per customer.
+     */
+    static int[] windowEnds(long[] nanos, int n, long windowNanos) {
+        int[] ends = new int[n];
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            long end = nanos[i] > Long.MAX_VALUE - windowNanos ? Long.MAX_VALUE : nanos[i] + windowNanos;
+            while (j < n && nanos[j] <= end) j++;
+            ends[i] = j;
+        }
+        return ends;
+    }
+
+    /**
+     * Same sweep on OffsetDateTime, for timestamps outside the epoch-nanos range.
+     */
+    private int[] windowEnds(List<OffsetDateTime> times) {
+        int n = times.size();
+        int[] ends = new int[n];
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            OffsetDateTime end = times.get(i).plus(velocityWindow);
+            while (j < n && !times.get(j).isAfter(end)) j++;
+            ends[i] = j;
+        }
+        return ends;
+    }
+
+    /**
+     * Alert for one customer, or null when no window reaches the threshold.
+     *
+     * start/count describe the first breaching window, max_count the busiest one.
+     * Overlapping breaching windows are merged into one burst in windows, each with its
+     * first and last event and the largest window count inside it.
+     */
+    private Map<String, Object> alert(String customerId, int[] ends, IntFunction<OffsetDateTime> timeAt) {
+        Map<String, Object> alert = null;
+        List<Map<String, Object>> windows = new ArrayList<>();
+        int maxCount = 0;
+        int burstStart = -1, burstEnd = -1, burstMax = 0;
+
+        for (int i = 0; i < ends.length; i++) {
+            int count = ends[i] - i;
+            if (count < velocityThreshold) continue;
+
+            if (alert == null) {
+                alert = new HashMap<>();
+                alert.put("customerId", customerId);
+                alert.put("start", timeAt.apply(i));
+                alert.put("count", count);
+            }
+            maxCount = Math.max(maxCount, count);
+
+            if (burstStart >= 0 && i < burstEnd) {
+                burstEnd = ends[i];
+                burstMax = Math.max(burstMax, count);
+                continue;
+            }
+            if (burstStart >= 0) windows.add(burst(timeAt, burstStart, burstEnd, burstMax));
+            burstStart = i;
+            burstEnd = ends[i];
+            burstMax = count;
+        }
+
+        if (alert == null) return null;
+        windows.add(burst(timeAt, burstStart, burstEnd, burstMax));
+        alert.put("max_count", maxCount);
+        alert.put("windows", windows);
+        return alert;
+    }
 
-        return out;
+    private static Map<String, Object> burst(IntFunction<OffsetDateTime> timeAt, int from, int to, int maxCount) {
+        Map<String, Object> w = new HashMap<>();
+        w.put("start", timeAt.apply(from));
+        w.put("end", timeAt.apply(to - 1));
+        w.put("count", maxCount);
+        return w;
     }
 
     @Override
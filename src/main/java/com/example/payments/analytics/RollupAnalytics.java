@@ -0,0 +1,194 @@
+package com.example.payments.analytics;
+
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.store.RollupCube;
+import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.FixedPoint;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Time-bucketed rollup cube: count / sum / min / max of amounts per UTC time bucket and
+ * combination of dimension values (see RollupCube).
+ *
+ * - granularity: minute, hour (default) or day
+ * - dimensions: up to 4 of the string fields, list or comma-separated (default paymentType)
+ * - derive: coarser granularities to add to the output, rolled up from the cube's cells
+ * - cube_path: write the cube to this file so later runs can derive from it
+ * - from_cube: a cube written by an earlier run (same granularity, dimensions and
+ *   value_scale) whose cells are merged with this run's rows before output, derive and
+ *   cube_path; with no input rows the output is the saved cube and its roll-ups
+ * - value_scale: decimals kept for amounts (default 2)
+ *
+ * Cells whose amounts overflow a long report "overflow": true and no sum; overflow_cells
+ * counts them.
+ */
+public class RollupAnalytics implements Analytics {
+
+    private RollupCube.Granularity granularity = RollupCube.Granularity.HOUR;
+    private DictColumn[] dimensions = {DictColumn.PAYMENT_TYPE};
+    private final List<RollupCube.Granularity> derive = new ArrayList<>();
+    private String cubePath;
+    private String fromCube;
+    private int valueScale = 2;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        try {
+            if (parameters == null) return;
+
+            if (parameters.containsKey("granularity")) {
+                try {
+                    granularity = RollupCube.Granularity.parse(parameters.get("granularity").toString());
+                } catch (Exception e) {
+                    ErrorHandler.log("RollupAnalytics-Init-granularity", e);
+                }
+            }
+
+            if (parameters.containsKey("dimensions")) {
+                List<DictColumn> dims = new ArrayList<>();
+                for (String field : items(parameters.get("dimensions"))) {
+                    DictColumn c = DictColumn.fromField(field);
+                    if (c != null) dims.add(c);
+                    else ErrorHandler.log("RollupAnalytics-Init-dimensions", "Unsupported field: " + field);
+                }
+                if (dims.size() > 4) {
+                    ErrorHandler.log("RollupAnalytics-Init-dimensions", "At most 4 dimensions, using the first 4");
+                    dims = dims.subList(0, 4);
+                }
+                dimensions = dims.toArray(new DictColumn[0]);
+            }
+
+            if (parameters.containsKey("derive")) {
+                for (String g : items(parameters.get("derive"))) {
+                    try {
+                        RollupCube.Granularity coarser = RollupCube.Granularity.parse(g);
+                        if (coarser.seconds > granularity.seconds && coarser.seconds % granularity.seconds == 0) derive.add(coarser);
+                        else ErrorHandler.log("RollupAnalytics-Init-derive", g + " is not coarser than " + granularity);
+                    } catch (Exception e) {
+                        ErrorHandler.log("RollupAnalytics-Init-derive", e);
+                    }
+                }
+            }
+
+            if (parameters.containsKey("cube_path")) cubePath = parameters.get("cube_path").toString();
+            if (parameters.containsKey("from_cube")) fromCube = parameters.get("from_cube").toString();
+
+            if (parameters.containsKey("value_scale")) {
+                try {
+                    valueScale = Math.max(0, Math.min(FixedPoint.MAX_SCALE, Integer.parseInt(parameters.get("value_scale").toString())));
+                } catch (Exception e) {
+                    ErrorHandler.log("RollupAnalytics-Init-value_scale", e);
+                }
+            }
+
+        } catch (Exception e) {
+            ErrorHandler.log("RollupAnalytics-Init", e);
+        }
+    }
+
+    private static List<String> items(Object v) {
+        List<String> out = new ArrayList<>();
+        if (v instanceof List<?> list) {
+            for (Object o : list) out.add(o.toString().trim());
+        } else {
+            for (String s : v.toString().split(",")) if (!s.isBlank()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new RollupAccumulator();
+    }
+
+    private class RollupAccumulator implements Accumulator {
+        private final RollupCube cube = new RollupCube(granularity, dimensions, valueScale);
+        private long seen;
+        private long skipped;
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null || !cube.add(t)) skipped++;
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            if (!cube.add(store, row)) skipped++;
+        }
+
+        @Override
+        public boolean isCombinable() {
+            return true;
+        }
+
+        @Override
+        public void combine(Accumulator later) {
+            RollupAccumulator o = (RollupAccumulator) later;
+            seen += o.seen;
+            skipped += o.skipped;
+            cube.merge(o.cube);
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+            Map<String, Object> result = new HashMap<>();
+
+            if (seen == 0) {
+                System.err.println("RollupAnalytics: No transactions to analyze.");
+            }
+
+            if (fromCube != null) {
+                try {
+                    RollupCube saved = RollupCube.read(Path.of(fromCube));
+                    cube.merge(saved);
+                    System.out.println("Merged rollup cube (" + saved.size() + " cells) from " + fromCube);
+                } catch (Exception e) {
+                    ErrorHandler.log("RollupAnalytics-ReadCube", e);
+                }
+            }
+
+            if (cubePath != null) {
+                try {
+                    cube.write(Path.of(cubePath));
+                    System.out.println("Wrote rollup cube (" + cube.size() + " cells) to " + cubePath);
+                } catch (Exception e) {
+                    ErrorHandler.log("RollupAnalytics-WriteCube", e);
+                }
+            }
+
+            List<String> dims = new ArrayList<>();
+            for (DictColumn c : dimensions) dims.add(c.field());
+
+            result.put("granularity", granularity.name().toLowerCase());
+            result.put("dimensions", dims);
+            result.put("cells", cube.rows());
+            result.put("skipped_rows", skipped);
+            result.put("overflow_cells", cube.overflowCells());
+
+            Map<String, Object> rollups = new LinkedHashMap<>();
+            for (RollupCube.Granularity g : derive) rollups.put(g.name().toLowerCase(), cube.rollUp(g).rows());
+            if (!rollups.isEmpty()) result.put("rollups", rollups);
+            return result;
+        }
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        Set<TransactionField> fields = EnumSet.of(TransactionField.TIMESTAMP, TransactionField.AMOUNT);
+        for (DictColumn c : dimensions) fields.add(c.transactionField());
+        return fields;
+    }
+
+    @Override
+    public String name() {
+        return "Rollup";
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.payments.analytics;
+
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.utils.Durations;
+import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.IsoTimestampParser;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Incremental fraud detector: alerts are raised while rows arrive instead of after the scan.
+ *
+ * - velocity check: per customer, the event times inside the current window are kept
+ *   sorted; when a window [t, t + velocity_window] reaches velocity_threshold an alert is
+ *   emitted at once. Later breaching windows that overlap it only raise its max_count.
+ * - event time: the watermark trails the latest timestamp seen by allowed_lateness
+ *   (default PT5M). Rows older than the watermark are dropped and counted as late.
+ * - eviction: a customer's state is dropped once the watermark has moved a full window
+ *   past its last event, so memory follows the active customers, not all customers.
+ *   max_customers (optional) is a hard cap that evicts the least recently active ones.
+ * - amount anomaly: transactions over amount_threshold, as in FraudDetectorAnalytics
+ *
+ * Alerts are printed when raised (print_alerts: false to silence) and returned by finish().
+ * With alerts_to_output: true, CoreEngine also writes each alert to the output as it is raised.
+ * Results depend on arrival order, so partial accumulators cannot be combined.
+ */
+public class StreamingFraudDetectorAnalytics implements Analytics {
+
+    private Duration velocityWindow = Duration.ofHours(1);
+    private int velocityThreshold = 10;
+    private Duration allowedLateness = Duration.ofMinutes(5);
+    private int maxCustomers = 0; // 0 = no cap
+    private boolean printAlerts = true;
+    private boolean alertsToOutput = false;
+    private AmountThreshold amountThreshold = AmountThreshold.DEFAULT;
+    private Consumer<Map<String, Object>> alertListener;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        try {
+            if (parameters == null) return;
+
+            if (parameters.containsKey("velocity_window")) {
+                try {
+                    velocityWindow = Durations.parse(parameters.get("velocity_window").toString());
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-Init-velocity_window", e);
+                }
+            }
+
+            if (parameters.containsKey("velocity_threshold")) {
+                try {
+                    velocityThreshold = Integer.parseInt(parameters.get("velocity_threshold").toString());
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-Init-velocity_threshold", e);
+                }
+            }
+
+            if (parameters.containsKey("allowed_lateness")) {
+                try {
+                    allowedLateness = Durations.parse(parameters.get("allowed_lateness").toString());
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-Init-allowed_lateness", e);
+                }
+            }
+
+            if (parameters.containsKey("max_customers")) {
+                try {
+                    maxCustomers = Integer.parseInt(parameters.get("max_customers").toString());
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-Init-max_customers", e);
+                }
+            }
+
+            if (parameters.containsKey("print_alerts")) {
+                printAlerts = Boolean.parseBoolean(parameters.get("print_alerts").toString());
+            }
+
+            if (parameters.containsKey("alerts_to_output")) {
+                alertsToOutput = Boolean.parseBoolean(parameters.get("alerts_to_output").toString());
+            }
+
+            if (parameters.containsKey("amount_threshold")) {
+                try {
+                    amountThreshold = AmountThreshold.parse(parameters.get("amount_threshold"));
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-Init-amount_threshold", e);
+                }
+            }
+
+        } catch (Exception e) {
+            ErrorHandler.log("StreamingFraudDetectorAnalytics-Init", e);
+        }
+    }
+
+    /**
+     * Also called with every velocity alert as it is raised, e.g. to forward it elsewhere.
+     */
+    public void setAlertListener(Consumer<Map<String, Object>> alertListener) {
+        this.alertListener = alertListener;
+    }
+
+    /** Whether alerts_to_output asks for alerts to be written as they are raised. */
+    public boolean alertsToOutput() {
+        return alertsToOutput;
+    }
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new StreamingAccumulator();
+    }
+
+    private class StreamingAccumulator implements Accumulator {
+        private final long windowNanos = velocityWindow.toNanos();
+        private final long latenessNanos = allowedLateness.toNanos();
+
+        // access order: the head is the customer that has gone longest without an event
+        private final LinkedHashMap<String, CustomerWindow> customers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CustomerWindow> eldest) {
+                if (maxCustomers <= 0 || size() <= maxCustomers) return false;
+                forcedEvictions++;
+                return true;
+            }
+        };
+
+        private final List<Transaction> large = new ArrayList<>();
+        private final List<Map<String, Object>> alerts = new ArrayList<>();
+        private long maxEventTime = IsoTimestampParser.NO_TIMESTAMP;
+        private long seen;
+        private long late;
+        private long skipped;
+        private long evicted;
+        private long forcedEvictions;
+        private int peakCustomers;
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null) return;
+
+            try {
+                if (amountThreshold.exceededBy(t)) large.add(t);
+            } catch (Exception e) {
+                ErrorHandler.log("StreamingFraudDetectorAnalytics-AmountAnomalies", e);
+            }
+
+            if (t.getCustomerId() == null || t.getTimestamp() == null) return;
+            event(t.getCustomerId(), IsoTimestampParser.epochNanos(t.getTimestamp()));
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+
+            if (amountThreshold.exceededBy(store, row)) large.add(store.get(row));
+
+            int code = store.code(DictColumn.CUSTOMER_ID, row);
+            if (code < 0 || store.epochNanos(row) == ColumnarTransactionStore.NO_TIMESTAMP) return;
+            event(store.dictionary(DictColumn.CUSTOMER_ID).decode(code), store.epochNanos(row));
+        }
+
+        private void event(String customerId, long ts) {
+            if (IsoTimestampParser.isSaturated(ts)) {
+                skipped++; // outside the epoch-nanos range the window arithmetic would not be exact
+                return;
+            }
+            if (ts > maxEventTime) maxEventTime = ts;
+            long watermark = minus(maxEventTime, latenessNanos);
+            if (ts < watermark) {
+                late++;
+                return;
+            }
+
+            // events before the horizon can no longer share a window with an on-time event
+            long horizon = minus(watermark, windowNanos);
+            CustomerWindow w = customers.get(customerId);
+            if (w == null) {
+                w = new CustomerWindow();
+                customers.put(customerId, w);
+                peakCustomers = Math.max(peakCustomers, customers.size());
+            }
+            w.prune(horizon);
+            int p = w.insert(ts);
+            check(customerId, w, p);
+            evictIdle(horizon);
+        }
+
+        /**
+         * Windows that now hold the new event start within [ts - window, ts]; when the
+         * event is the latest one they all end after it, so the earliest start is the largest.
+         */
+        private void check(String customerId, CustomerWindow w, int p) {
+            long ts = w.times[p];
+            int lo = w.firstAtOrAfter(minus(ts, windowNanos));
+
+            int bestStart = lo;
+            int bestCount;
+            if (p == w.to - 1) {
+                bestCount = w.to - lo;
+            } else {
+                // out-of-order insert: sweep the affected starts with two pointers
+                bestCount = 0;
+                int j = lo;
+                for (int i = lo; i <= p; i++) {
+                    long end = plus(w.times[i], windowNanos);
+                    while (j < w.to && w.times[j] <= end) j++;
+                    if (j - i > bestCount) {
+                        bestCount = j - i;
+                        bestStart = i;
+                    }
+                }
+            }
+            if (bestCount < velocityThreshold) return;
+
+            long start = w.times[bestStart];
+            if (w.alert != null && start <= w.alertedUntil) {
+                // same burst as the open alert
+                w.alertedUntil = Math.max(w.alertedUntil, plus(start, windowNanos));
+                if (bestCount > (Integer) w.alert.get("max_count")) w.alert.put("max_count", bestCount);
+                return;
+            }
+
+            Map<String, Object> alert = new HashMap<>();
+            alert.put("customerId", customerId);
+            alert.put("start", toOffsetDateTime(start));
+            alert.put("count", bestCount);
+            alert.put("max_count", bestCount);
+            alert.put("detected_at", toOffsetDateTime(ts));
+            w.alert = alert;
+            w.alertedUntil = plus(start, windowNanos);
+            alerts.add(alert);
+            emit(alert);
+        }
+
+        private void emit(Map<String, Object> alert) {
+            if (printAlerts) {
+                System.out.println("Velocity alert: customer=" + alert.get("customerId") + " start=" + alert.get("start")
+                        + " count=" + alert.get("count"));
+            }
+            if (alertListener != null) {
+                try {
+                    alertListener.accept(alert);
+                } catch (Exception e) {
+                    ErrorHandler.log("StreamingFraudDetectorAnalytics-AlertListener", e);
+                }
+            }
+        }
+
+        /**
+         * Drop customers from the least recently active end while nothing they hold can
+         * matter again: all events and the open alert's window lie before the horizon.
+         */
+        private void evictIdle(long horizon) {
+            Iterator<CustomerWindow> it = customers.values().iterator();
+            while (it.hasNext()) {
+                CustomerWindow w = it.next();
+                if (w.lastEvent() >= horizon || (w.alert != null && w.alertedUntil >= horizon)) return;
+                it.remove();
+                evicted++;
+            }
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+            Map<String, Object> out = new HashMap<>();
+
+            if (seen == 0) {
+                System.err.println("StreamingFraudDetectorAnalytics: No transactions to analyze.");
+            }
+
+            Map<String, Object> state = new HashMap<>();
+            state.put("events", seen);
+            state.put("late_events", late);
+            state.put("skipped_events", skipped);
+            state.put("watermark", maxEventTime == IsoTimestampParser.NO_TIMESTAMP
+                    ? null : toOffsetDateTime(minus(maxEventTime, latenessNanos)));
+            state.put("active_customers", customers.size());
+            state.put("peak_customers", peakCustomers);
+            state.put("evicted_customers", evicted);
+            state.put("forced_evictions", forcedEvictions);
+
+            out.put("amount_anomalies", large);
+            out.put("velocity_alerts", alerts);
+            out.put("state", state);
+            return out;
+        }
+    }
+
+    /**
+     * Sorted event times of one customer in times[from, to); old events are dropped from
+     * the front and the live range is compacted or grown only when the array is full.
+     */
+    private static class CustomerWindow {
+        private long[] times = new long[4];
+        private int from;
+        private int to;
+        private Map<String, Object> alert; // last alert raised for this customer
+        private long alertedUntil;         // end of the latest window merged into it
+
+        long lastEvent() {
+            return times[to - 1];
+        }
+
+        void prune(long horizon) {
+            while (from < to && times[from] < horizon) from++;
+        }
+
+        /** Inserts in order and returns the new event's index (after any equal times). */
+        int insert(long ts) {
+            if (to == times.length) {
+                int live = to - from;
+                if (live * 2 > times.length) times = Arrays.copyOfRange(times, from, from + times.length * 2);
+                else System.arraycopy(times, from, times, 0, live);
+                from = 0;
+                to = live;
+            }
+            int p = to;
+            while (p > from && times[p - 1] > ts) p--;
+            System.arraycopy(times, p, times, p + 1, to - p);
+            times[p] = ts;
+            to++;
+            return p;
+        }
+
+        int firstAtOrAfter(long ts) {
+            int lo = from, hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < ts) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static long plus(long nanos, long d) {
+        return nanos > Long.MAX_VALUE - d ? Long.MAX_VALUE : nanos + d;
+    }
+
+    private static long minus(long nanos, long d) {
+        return nanos < Long.MIN_VALUE + d ? Long.MIN_VALUE : nanos - d;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(long epochNanos) {
+        return OffsetDateTime.ofInstant(
+                Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L)),
+                ZoneOffset.UTC);
+    }
+
+    @Override
+    public String name() {
+        return "StreamingFraudDetector";
+    }
+}
@@ -2,20 +2,33 @@ package com.example.payments.analytics;
 
 import com.example.payments.engine.interfaces.Analytics;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.sketch.SpaceSaving;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
 import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.FixedPointSum;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Computes top merchants by value or volume.
  * Parameters: top_n (int), by: "value"|"volume"
+ *
+ * Optional approximate mode for very high merchant cardinality:
+ * approximate: true, capacity (counters kept, default 10000), value_scale (decimals
+ * kept for value sums, default 2). Memory stays O(capacity) and each reported merchant
+ * comes with an error bound (see SpaceSaving).
  */
 public class TopMerchantsAnalytics implements Analytics {
 
     private int topN = 5;
     private String by = "value";
+    private boolean approximate = false;
+    private int capacity = 10000;
+    private int valueScale = 2;
 
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
@@ -34,6 +47,17 @@ public class TopMerchantsAnalytics implements Analytics {
                 } catch (Exception e) {
                     ErrorHandler.log("TopMerchantsAnalytics-Init-by", e);
                 }
+
+                try {
+                    if (parameters.containsKey("approximate"))
+                        approximate = Boolean.parseBoolean(parameters.get("approximate").toString());
+                    if (parameters.containsKey("capacity"))
+                        capacity = Math.max(1, Integer.parseInt(parameters.get("capacity").toString()));
+                    if (parameters.containsKey("value_scale"))
+                        valueScale = Math.max(0, Math.min(FixedPoint.MAX_SCALE, Integer.parseInt(parameters.get("value_scale").toString())));
+                } catch (Exception e) {
+                    ErrorHandler.log("TopMerchantsAnalytics-Init-approximate", e);
+                }
             }
         } catch (Exception e) {
             ErrorHandler.log("TopMerchantsAnalytics-Init", e);
@@ -41,12 +65,124 @@ public class TopMerchantsAnalytics implements Analytics {
     }
 
     @Override
-    public Map<String, Object> analyze(List<Transaction> transactions) {
+    public Accumulator newAccumulator() {
+        return approximate ? new HeavyHitterAccumulator() : new TopMerchantsAccumulator();
+    }
 
-        Map<String, Object> out = new HashMap<>();
+    /**
+     * Per-merchant counts or sums, built one row at a time.
+     * Sums run in fixed-point minor units (FixedPointSum) and match BigDecimal.add exactly.
+     */
+    private class TopMerchantsAccumulator implements Accumulator {
+        private final boolean byVolume = "volume".equalsIgnoreCase(by);
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Map<String, FixedPointSum> sums = new HashMap<>();
+        private long seen;
 
-        try {
-            if (transactions == null || transactions.isEmpty()) {
+        // columnar rows aggregate per merchant dictionary code
+        private ColumnarTransactionStore store;
+        private long[] codeCounts = new long[0];
+        private FixedPointSum[] codeSums = new FixedPointSum[0];
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null || t.getMerchantId() == null) return;
+
+            if (byVolume) {
+                counts.merge(t.getMerchantId(), 1L, Long::sum);
+                return;
+            }
+
+            try {
+                FixedPointSum sum = sums.computeIfAbsent(t.getMerchantId(), k -> new FixedPointSum(FixedPoint.scaleOf(t.getCurrency())));
+                if (t.hasCompactAmount()) sum.add(t.amountUnscaled(), t.amountScale());
+                else sum.add(t.getAmount() == null ? BigDecimal.ZERO : t.getAmount());
+            } catch (Exception mergeErr) {
+                ErrorHandler.log("TopMerchantsAnalytics-MergeValue-" + t.getMerchantId(), mergeErr);
+            }
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            int code = store.code(DictColumn.MERCHANT_ID, row);
+            if (code < 0) return;
+
+            this.store = store;
+            if (code >= codeCounts.length) {
+                int n = Math.max(code + 1, store.dictionary(DictColumn.MERCHANT_ID).size());
+                codeCounts = Arrays.copyOf(codeCounts, n);
+                codeSums = Arrays.copyOf(codeSums, n);
+            }
+
+            codeCounts[code]++;
+            if (byVolume) return;
+
+            FixedPointSum sum = codeSums[code];
+            if (sum == null) {
+                sum = codeSums[code] = new FixedPointSum(FixedPoint.scaleOf(store.string(DictColumn.CURRENCY, row)));
+            }
+            if (store.isCompactAmount(row)) sum.add(store.amountUnscaled(row), store.amountScale(row));
+            else sum.add(store.hasAmount(row) ? store.amount(row) : BigDecimal.ZERO);
+        }
+
+        @Override
+        public boolean isCombinable() {
+            return true;
+        }
+
+        @Override
+        public void combine(Accumulator later) {
+            TopMerchantsAccumulator o = (TopMerchantsAccumulator) later;
+            seen += o.seen;
+
+            // new keys arrive in the later partition's order, as a sequential scan would insert them
+            for (var e : o.counts.entrySet()) counts.merge(e.getKey(), e.getValue(), Long::sum);
+            for (var e : o.sums.entrySet()) {
+                FixedPointSum sum = sums.get(e.getKey());
+                if (sum == null) sums.put(e.getKey(), e.getValue());
+                else sum.add(e.getValue());
+            }
+
+            if (o.store == null) return;
+            store = o.store;
+            if (o.codeCounts.length > codeCounts.length) {
+                codeCounts = Arrays.copyOf(codeCounts, o.codeCounts.length);
+                codeSums = Arrays.copyOf(codeSums, o.codeCounts.length);
+            }
+            for (int code = 0; code < o.codeCounts.length; code++) {
+                codeCounts[code] += o.codeCounts[code];
+                FixedPointSum sum = o.codeSums[code];
+                if (sum == null) continue;
+                if (codeSums[code] == null) codeSums[code] = sum;
+                else codeSums[code].add(sum);
+            }
+        }
+
+        private void foldCodes() {
+            if (store == null) return;
+            for (int code = 0; code < codeCounts.length; code++) {
+                if (codeCounts[code] == 0) continue;
+                String merchant = store.dictionary(DictColumn.MERCHANT_ID).decode(code);
+                if (byVolume) {
+                    counts.merge(merchant, codeCounts[code], Long::sum);
+                } else {
+                    FixedPointSum sum = sums.get(merchant);
+                    if (sum == null) sums.put(merchant, codeSums[code]);
+                    else sum.add(codeSums[code]);
+                }
+            }
+            store = null;
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+
+            Map<String, Object> out = new HashMap<>();
+            foldCodes();
+
+            if (seen == 0) {
                 System.err.println("TopMerchantsAnalytics: No transactions available.");
                 return out;
             }
@@ -54,22 +190,9 @@ public class TopMerchantsAnalytics implements Analytics {
             // ============================
             // CASE 1 — Top Merchants by Volume
             // ============================
-            if ("volume".equalsIgnoreCase(by)) {
+            if (byVolume) {
                 try {
-                    Map<String, Long> counts = transactions.stream()
-                            .filter(Objects::nonNull)
-                            .filter(t -> t.getMerchantId() != null)
-                            .collect(Collectors.groupingBy(
-                                    Transaction::getMerchantId,
-                                    Collectors.counting()
-                            ));
-
-                    List<Map.Entry<String, Long>> top = counts.entrySet().stream()
-                            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                            .limit(topN)
-                            .collect(Collectors.toList());
-
-                    out.put("top_by_volume", top);
+                    out.put("top_by_volume", top(counts.entrySet(), Long::compare, topN));
 
                 } catch (Exception e) {
                     ErrorHandler.log("TopMerchantsAnalytics-Analyze-Volume", e);
@@ -82,38 +205,139 @@ public class TopMerchantsAnalytics implements Analytics {
             // CASE 2 — Top Merchants by Value
             // ============================
             try {
-                Map<String, BigDecimal> sums = new HashMap<>();
+                List<Map.Entry<String, BigDecimal>> top = new ArrayList<>();
+                for (var e : top(sums.entrySet(), FixedPointSum::compareTo, topN)) {
+                    top.add(new AbstractMap.SimpleEntry<>(e.getKey(), e.getValue().toBigDecimal()));
+                }
 
-                for (Transaction t : transactions) {
-                    if (t == null || t.getMerchantId() == null) continue;
+                out.put("top_by_value", top);
+
+            } catch (Exception e) {
+                ErrorHandler.log("TopMerchantsAnalytics-Analyze-Value", e);
+            }
+
+            return out;
+        }
+    }
+
+    /**
+     * Approximate top-N with a fixed number of Space-Saving counters.
+     * Value weights are amounts rounded (HALF_EVEN) to value_scale decimals.
+     * Not combinable: merged sketches would not match a single sequential sketch.
+     */
+    private class HeavyHitterAccumulator implements Accumulator {
+        private final boolean byVolume = "volume".equalsIgnoreCase(by);
+        private final SpaceSaving<String> sketch = new SpaceSaving<>(capacity);
+        private long seen;
+
+        @Override
+        public void accept(Transaction t) {
+            seen++;
+            if (t == null || t.getMerchantId() == null) return;
 
-                    BigDecimal amt = (t.getAmount() == null ? BigDecimal.ZERO : t.getAmount());
+            if (byVolume) sketch.offer(t.getMerchantId(), 1);
+            else if (t.hasCompactAmount()) sketch.offer(t.getMerchantId(), weight(t.amountUnscaled(), t.amountScale()));
+            else sketch.offer(t.getMerchantId(), weight(t.getAmount()));
+        }
+
+        @Override
+        public void accept(ColumnarTransactionStore store, int row) {
+            seen++;
+            int code = store.code(DictColumn.MERCHANT_ID, row);
+            if (code < 0) return;
+
+            String merchant = store.dictionary(DictColumn.MERCHANT_ID).decode(code);
+            if (byVolume) sketch.offer(merchant, 1);
+            else if (store.isCompactAmount(row)) sketch.offer(merchant, weight(store.amountUnscaled(row), store.amountScale(row)));
+            else sketch.offer(merchant, weight(store.amount(row)));
+        }
+
+        @Override
+        public Map<String, Object> finish() {
+            Map<String, Object> out = new HashMap<>();
+
+            if (seen == 0) {
+                System.err.println("TopMerchantsAnalytics: No transactions available.");
+                return out;
+            }
 
-                    try {
-                        sums.merge(t.getMerchantId(), amt, BigDecimal::add);
-                    } catch (Exception mergeErr) {
-                        ErrorHandler.log("TopMerchantsAnalytics-MergeValue-" + t.getMerchantId(), mergeErr);
-                    }
+            try {
+                List<Map.Entry<String, Object>> top = new ArrayList<>();
+                Map<String, Object> errors = new LinkedHashMap<>();
+                for (SpaceSaving.Counter<String> c : sketch.top(topN)) {
+                    top.add(new AbstractMap.SimpleEntry<>(c.key, amount(c.estimate)));
+                    errors.put(c.key, amount(c.error));
                 }
 
-                List<Map.Entry<String, BigDecimal>> top = sums.entrySet().stream()
-                        .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                        .limit(topN)
-                        .collect(Collectors.toList());
+                Map<String, Object> info = new LinkedHashMap<>();
+                info.put("algorithm", "space_saving");
+                info.put("capacity", sketch.capacity());
+                info.put("tracked", sketch.size());
+                info.put("total", amount(sketch.total()));
+                info.put("max_untracked", amount(sketch.untrackedBound())); // bound for any merchant not listed
 
-                out.put("top_by_value", top);
+                out.put(byVolume ? "top_by_volume" : "top_by_value", top);
+                out.put("error_bounds", errors); // estimate - error <= true total <= estimate
+                out.put("sketch", info);
 
             } catch (Exception e) {
-                ErrorHandler.log("TopMerchantsAnalytics-Analyze-Value", e);
+                ErrorHandler.log("TopMerchantsAnalytics-Analyze-Approximate", e);
             }
+            return out;
+        }
 
-        } catch (Exception e) {
-            ErrorHandler.log("TopMerchantsAnalytics-Analyze", e);
+        private Object amount(long v) {
+            return byVolume ? (Object) v : BigDecimal.valueOf(v, valueScale);
         }
 
+        private long weight(long unscaled, int scale) {
+            return FixedPoint.rescale(unscaled, scale, valueScale);
+        }
+
+        private long weight(BigDecimal amount) {
+            return FixedPoint.rescale(amount, valueScale);
+        }
+    }
+
+    /**
+     * The n largest entries by value, in descending order; ties keep iteration order
+     * (same result as a stable sort + limit). Holds at most n entries in a heap.
+     */
+    static <V> List<Map.Entry<String, V>> top(Iterable<Map.Entry<String, V>> entries, Comparator<V> cmp, int n) {
+        if (n <= 0) return new ArrayList<>();
+
+        // heap head is the current worst: smallest value, latest position among equals
+        Comparator<Ranked<V>> worstFirst = (a, b) -> {
+            int c = cmp.compare(a.entry.getValue(), b.entry.getValue());
+            return c != 0 ? c : Long.compare(b.position, a.position);
+        };
+        PriorityQueue<Ranked<V>> heap = new PriorityQueue<>(Math.min(n, 1024) + 1, worstFirst);
+
+        long position = 0;
+        for (Map.Entry<String, V> e : entries) {
+            if (heap.size() < n) {
+                heap.add(new Ranked<>(e, position));
+            } else if (cmp.compare(e.getValue(), heap.peek().entry.getValue()) > 0) {
+                heap.poll();
+                heap.add(new Ranked<>(e, position));
+            }
+            position++;
+        }
+
+        List<Ranked<V>> ranked = new ArrayList<>(heap);
+        ranked.sort(worstFirst.reversed());
+        List<Map.Entry<String, V>> out = new ArrayList<>(ranked.size());
+        for (Ranked<V> r : ranked) out.add(r.entry);
         return out;
     }
 
+    private record Ranked<V>(Map.Entry<String, V> entry, long position) { }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.MERCHANT_ID, TransactionField.AMOUNT, TransactionField.CURRENCY);
+    }
+
     @Override
     public String name() {
         return "TopMerchants";
@@ -8,6 +8,7 @@ public class RunConfig {
     public List<FilterConfig> filters;
     public List<AnalyticsConfig> analytics;
     public OutputConfig output;
+    public EngineConfig engine;
 
     public static class DataSourceConfig {
         public String type;
@@ -28,4 +29,12 @@ public class RunConfig {
         public String type;
         public Map<String,Object> parameters;
     }
+
+    /**
+     * Optional engine settings. mode: "batch" (default), "streaming" or "columnar".
+     */
+    public static class EngineConfig {
+        public String mode;
+        public Map<String,Object> parameters;
+    }
 }
\ No newline at end of file
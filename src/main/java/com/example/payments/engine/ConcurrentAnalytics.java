@@ -0,0 +1,181 @@
+package com.example.payments.engine;
+
+import com.example.payments.config.RunConfig;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.utils.Durations;
+import com.example.payments.utils.ErrorHandler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs one task per analytics module on an executor, for engine.parameters
+ * analytics_execution: "concurrent".
+ *
+ * - analytics_threads: pool size, or "virtual" (default) for one virtual thread per module
+ * - analytics_timeout: per-module limit ("PT30S", "30s" or seconds); each module's deadline
+ *   is its own start time plus the limit, so queueing behind a small pool does not eat into
+ *   it. Modules still queued after timeout * ceil(modules / analytics_threads) are cancelled.
+ *
+ * A module that fails or times out is logged and left out; the other results come back
+ * in config order regardless of completion order.
+ */
+public class ConcurrentAnalytics {
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final long MAX_WAIT_NANOS = Long.MAX_VALUE / 4; // keeps nanoTime deadline arithmetic from overflowing
+
+    private final int threads;       // 0 = virtual thread per task
+    private final Duration timeout;  // null = no limit
+
+    public ConcurrentAnalytics(int threads, Duration timeout) {
+        this.threads = Math.max(0, threads);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Settings from engine.parameters, or null when analytics should run sequentially.
+     */
+    public static ConcurrentAnalytics fromConfig(RunConfig config) {
+        if (config.engine == null || config.engine.parameters == null) return null;
+        Map<String, Object> p = config.engine.parameters;
+        if (!"concurrent".equalsIgnoreCase(String.valueOf(p.get("analytics_execution")))) return null;
+
+        int threads = 0;
+        try {
+            if (p.containsKey("analytics_threads")) {
+                String v = p.get("analytics_threads").toString();
+                if (!"virtual".equalsIgnoreCase(v)) threads = Integer.parseInt(v);
+            }
+        } catch (Exception e) {
+            ErrorHandler.log("ConcurrentAnalytics-Init-analytics_threads", e);
+        }
+
+        Duration timeout = null;
+        try {
+            if (p.containsKey("analytics_timeout")) {
+                timeout = Durations.parse(p.get("analytics_timeout").toString());
+            }
+        } catch (Exception e) {
+            ErrorHandler.log("ConcurrentAnalytics-Init-analytics_timeout", e);
+        }
+
+        return new ConcurrentAnalytics(threads, timeout);
+    }
+
+    /**
+     * Run tasks.get(i) for modules.get(i); returns results in the same order,
+     * with null for modules that failed or timed out.
+     */
+    public List<Map<String, Object>> run(List<Analytics> modules, List<Callable<Map<String, Object>>> tasks) {
+        int n = tasks.size();
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(n, null));
+        ExecutorService pool = threads == 0
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads, r -> {
+                    Thread t = new Thread(r, "analytics");
+                    t.setDaemon(true); // a module that ignores cancellation must not keep the JVM alive
+                    return t;
+                });
+
+        try {
+            AtomicLongArray startedAt = new AtomicLongArray(n);
+            BlockingQueue<Integer> events = new LinkedBlockingQueue<>(); // task i started or finished
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int task = i;
+                startedAt.set(task, NOT_STARTED);
+                futures.add(pool.submit(() -> {
+                    startedAt.set(task, System.nanoTime());
+                    events.add(task);
+                    try {
+                        return tasks.get(task).call();
+                    } finally {
+                        events.add(task);
+                    }
+                }));
+            }
+
+            if (timeout == null) {
+                for (int i = 0; i < n; i++) results.set(i, await(modules.get(i).name(), futures.get(i)));
+            } else {
+                awaitWithDeadlines(modules, futures, startedAt, events, results);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Each module gets timeout from its own start. A module still queued when every wave of
+     * the pool could have run (timeout * ceil(modules / threads) after submission) is
+     * cancelled too, so a module that ignores cancellation cannot hang the run.
+     */
+    private void awaitWithDeadlines(List<Analytics> modules, List<Future<Map<String, Object>>> futures,
+                                    AtomicLongArray startedAt, BlockingQueue<Integer> events,
+                                    List<Map<String, Object>> results) {
+        int n = futures.size();
+        long limit = timeout.toNanos();
+        long waves = threads == 0 ? 1 : (n + threads - 1) / threads;
+        long startDeadline = System.nanoTime() + (limit > MAX_WAIT_NANOS / waves ? MAX_WAIT_NANOS : limit * waves);
+
+        boolean[] resolved = new boolean[n];
+        int open = n;
+        while (open > 0) {
+            long now = System.nanoTime();
+            long next = startDeadline;
+            for (int i = 0; i < n; i++) {
+                if (resolved[i]) continue;
+                String name = modules.get(i).name();
+                Future<Map<String, Object>> f = futures.get(i);
+                long started = startedAt.get(i);
+
+                if (f.isDone()) {
+                    results.set(i, await(name, f));
+                } else if (started != NOT_STARTED && now - started >= limit) {
+                    f.cancel(true);
+                    ErrorHandler.log("CoreEngine-Analytics-" + name, "timed out after " + timeout);
+                } else if (started == NOT_STARTED && now - startDeadline >= 0) {
+                    f.cancel(true);
+                    ErrorHandler.log("CoreEngine-Analytics-" + name, "did not start within "
+                            + timeout.multipliedBy(waves) + " (pool of " + threads + " busy)");
+                } else {
+                    if (started != NOT_STARTED && started + limit - next < 0) next = started + limit;
+                    continue;
+                }
+                resolved[i] = true;
+                open--;
+            }
+            if (open == 0) break;
+
+            try {
+                events.poll(Math.max(0, next - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ErrorHandler.log("CoreEngine-Analytics", e);
+                for (Future<Map<String, Object>> f : futures) f.cancel(true);
+                return;
+            }
+        }
+    }
+
+    private static Map<String, Object> await(String name, Future<Map<String, Object>> f) {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            ErrorHandler.log("CoreEngine-Analytics-" + name, e.getCause() instanceof Exception ex ? ex : e);
+        } catch (CancellationException e) {
+            ErrorHandler.log("CoreEngine-Analytics-" + name, "cancelled");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ErrorHandler.log("CoreEngine-Analytics-" + name, e);
+        }
+        return null;
+    }
+}
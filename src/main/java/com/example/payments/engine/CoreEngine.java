@@ -1,25 +1,49 @@
 package com.example.payments.engine;
 
+import com.example.payments.analytics.StreamingFraudDetectorAnalytics;
 import com.example.payments.config.RunConfig;
 import com.example.payments.engine.interfaces.Analytics;
 import com.example.payments.engine.interfaces.DataReader;
 import com.example.payments.engine.interfaces.Filter;
 import com.example.payments.engine.interfaces.OutputWriter;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.store.StoreIndex;
 import com.example.payments.utils.ErrorHandler;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * CoreEngine orchestrates the pipeline:
- * 1. instantiate reader
+ * 1. instantiate reader (and hand it the filters, see DataReader.pushDown, and the
+ *    fields the filters, analytics and writer declare, see DataReader.project)
  * 2. read transactions
- * 3. apply filters
- * 4. run analytics
+ * 3. apply filters (fused into one per-row predicate, see FilterChain)
+ * 4. run analytics (every module's accumulator is fed from one shared scan)
  * 5. write outputs
+ *
+ * The default "batch" mode reads the full list first and then scans it once.
+ * With engine.parameters analytics_parallelism > 1, batch and columnar scans are split
+ * across a fork-join pool and partial accumulators are combined (see ParallelAggregation).
+ * Otherwise, with analytics_execution: "concurrent", modules run on their own threads
+ * over the filtered data (see ConcurrentAnalytics).
+ * With engine.mode "streaming", steps 2-4 run row by row: each transaction is pushed
+ * through the filters and into the analytics accumulators as it is read.
+ * With engine.mode "columnar", the reader loads a ColumnarTransactionStore and steps 3-4
+ * scan its primitive columns. With engine.parameters index: true, a StoreIndex is built
+ * over the loaded store and filters resolve to bitmap intersections instead of a scan.
+ * Streaming fraud alerts (alerts_to_output: true) are written while step 4 runs, ahead
+ * of the analytics payloads.
  */
 public class CoreEngine {
     private final PluginRegistry pluginRegistry = new PluginRegistry();
@@ -32,8 +56,6 @@ public class CoreEngine {
             return;
         }
 
-        List<Transaction> transactions = new ArrayList<>();
-        List<Transaction> filtered = new ArrayList<>();
         List<Map<String,Object>> analyticsOutputs = new ArrayList<>();
 
         try {
@@ -45,55 +67,48 @@ public class CoreEngine {
                 ErrorHandler.log("CoreEngine-CreateReader", e);
             }
 
-            if (reader != null) {
+            List<Filter> filters = createFilters(config);
+            List<Analytics> modules = createAnalytics(config);
+            OutputWriter writer = null;
+            if (config.output != null) {
                 try {
-                    transactions = reader.readAll();
+                    writer = factory.createWriter(config.output.type, config.output.parameters);
                 } catch (Exception e) {
-                    ErrorHandler.log("CoreEngine-ReadAll", e);
-                    transactions = new ArrayList<>();
+                    ErrorHandler.log("CoreEngine-CreateWriter", e);
                 }
             }
+            if (writer != null) wireAlerts(modules, writer);
 
-            // 2. filters
-            filtered = transactions;
-            if (config.filters != null) {
-                for (var fc : config.filters) {
-                    try {
-                        Filter f = factory.createFilter(fc.type, fc.parameters);
-                        filtered = f.apply(filtered);
-
-                        System.out.println("Applied filter: " + f.name() + " -> remaining=" + filtered.size());
-
-                    } catch (Exception e) {
-                        ErrorHandler.log("CoreEngine-ApplyFilter-" + fc.type, e);
+            if (reader != null) {
+                try {
+                    reader.pushDown(filters);
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-PushDown", e);
+                }
+                try {
+                    Set<TransactionField> fields = requiredFields(filters, modules, writer);
+                    if (!fields.containsAll(TransactionField.all())) {
+                        System.out.println("Projection: reading " + fields.size() + " of "
+                                + TransactionField.values().length + " fields " + fields);
+                        reader.project(fields);
                     }
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-Project", e);
                 }
             }
 
-            // 3. analytics
-            if (config.analytics != null) {
-                for (var ac : config.analytics) {
-                    try {
-                        Analytics a = factory.createAnalytics(ac.type, ac.parameters);
-                        Map<String,Object> result = a.analyze(filtered);
-
-                        Map<String,Object> payload = new HashMap<>();
-                        payload.put("module", a.name());
-                        payload.put("result", result);
-
-                        analyticsOutputs.add(payload);
-
-                    } catch (Exception e) {
-                        ErrorHandler.log("CoreEngine-Analytics-" + ac.type, e);
-                    }
-                }
+            // 2-4. read, filter and analyze
+            if ("streaming".equals(mode(config))) {
+                analyticsOutputs = runStreaming(config, reader, modules);
+            } else if ("columnar".equals(mode(config))) {
+                analyticsOutputs = runColumnar(config, reader, modules);
+            } else {
+                analyticsOutputs = runBatch(config, reader, modules);
             }
 
             // 4. writers
-            if (config.output != null) {
+            if (writer != null) {
                 try {
-                    OutputWriter writer = factory.createWriter(config.output.type, config.output.parameters);
-
                     for (Map<String,Object> payload : analyticsOutputs) {
                         try {
                             writer.write(payload);
@@ -106,7 +121,12 @@ public class CoreEngine {
                             " analytics payloads via " + writer.name());
 
                 } catch (Exception e) {
-                    ErrorHandler.log("CoreEngine-CreateWriter", e);
+                    ErrorHandler.log("CoreEngine-Writer", e);
+                }
+                try {
+                    writer.close();
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-WriterClose", e);
                 }
             }
 
@@ -114,4 +134,347 @@ public class CoreEngine {
             ErrorHandler.log("CoreEngine-RunUnexpected", e);
         }
     }
+
+    /**
+     * Union of the fields every filter, analytics module and the writer declares.
+     */
+    private Set<TransactionField> requiredFields(List<Filter> filters, List<Analytics> modules, OutputWriter writer) {
+        Set<TransactionField> fields = EnumSet.noneOf(TransactionField.class);
+        for (Filter f : filters) fields.addAll(f.requiredFields());
+        for (Analytics a : modules) fields.addAll(a.requiredFields());
+        if (writer != null) fields.addAll(writer.requiredFields());
+        return fields;
+    }
+
+    private String mode(RunConfig config) {
+        return config.engine == null || config.engine.mode == null ? "batch" : config.engine.mode.toLowerCase();
+    }
+
+    /**
+     * Batch path: the reader materializes the full list, then one scan pushes every row
+     * through the filter chain into all analytics accumulators.
+     */
+    private List<Map<String,Object>> runBatch(RunConfig config, DataReader reader, List<Analytics> modules) {
+        List<Transaction> transactions = new ArrayList<>();
+        if (reader != null) {
+            try {
+                transactions = reader.readAll();
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-ReadAll", e);
+            }
+        }
+
+        ParallelAggregation parallel = ParallelAggregation.fromConfig(config);
+        if (parallel != null && transactions != null && ParallelAggregation.supports(modules)) {
+            List<Transaction> rows = transactions;
+            ParallelAggregation.Partial result = parallel.run(rows.size(), () -> new FilterChain(createFilters(config)), modules,
+                    (from, to, chain, accumulators) -> {
+                        Consumer<Transaction> sink = rowSink(chain, modules, accumulators);
+                        for (int i = from; i < to; i++) sink.accept(rows.get(i));
+                    });
+            result.chain.printCounts();
+            return finish(modules, result.accumulators);
+        }
+
+        FilterChain chain = new FilterChain(createFilters(config));
+        ConcurrentAnalytics concurrent = ConcurrentAnalytics.fromConfig(config);
+        if (concurrent != null) {
+            // one filtered list, then every module scans it on its own thread
+            List<Transaction> filtered = chain.apply(transactions);
+            chain.printCounts();
+
+            // accumulate directly rather than via analyze(), which turns a failure into an empty
+            // result; an exception here reaches ConcurrentAnalytics and the module is left out
+            List<Callable<Map<String,Object>>> tasks = new ArrayList<>();
+            for (Analytics a : modules) {
+                tasks.add(() -> {
+                    Analytics.Accumulator acc = a.newAccumulator();
+                    if (filtered != null) {
+                        for (Transaction t : filtered) acc.accept(t);
+                    }
+                    return acc.finish();
+                });
+            }
+            return payloads(modules, concurrent.run(modules, tasks));
+        }
+
+        List<Analytics.Accumulator> accumulators = newAccumulators(modules);
+        Consumer<Transaction> sink = rowSink(chain, modules, accumulators);
+        if (transactions != null) {
+            for (Transaction t : transactions) sink.accept(t);
+        }
+
+        chain.printCounts();
+        return finish(modules, accumulators);
+    }
+
+    /**
+     * Streaming path: rows flow reader -> filters -> analytics accumulators one at a time,
+     * so peak heap depends on analytics state rather than on the input size.
+     */
+    private List<Map<String,Object>> runStreaming(RunConfig config, DataReader reader, List<Analytics> modules) {
+        FilterChain chain = new FilterChain(createFilters(config));
+        List<Analytics.Accumulator> accumulators = newAccumulators(modules);
+        long[] read = new long[1];
+
+        Consumer<Transaction> sink = rowSink(chain, modules, accumulators);
+
+        if (reader != null) {
+            try {
+                reader.read(t -> {
+                    read[0]++;
+                    sink.accept(t);
+                });
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-Read", e);
+            }
+        }
+
+        System.out.println("Streamed " + read[0] + " transactions");
+        chain.printCounts();
+
+        // rows were already shared in one pass; only the finish step can run concurrently
+        ConcurrentAnalytics concurrent = ConcurrentAnalytics.fromConfig(config);
+        if (concurrent != null) {
+            List<Callable<Map<String,Object>>> tasks = new ArrayList<>();
+            for (Analytics.Accumulator acc : accumulators) tasks.add(acc::finish);
+            return payloads(modules, concurrent.run(modules, tasks));
+        }
+        return finish(modules, accumulators);
+    }
+
+    /**
+     * Columnar path: the reader fills a dictionary-encoded column store, then filters and
+     * analytics scan its primitive columns row by row. Transactions are only built where a
+     * module asks for one (e.g. fraud amount anomalies).
+     */
+    private List<Map<String,Object>> runColumnar(RunConfig config, DataReader reader, List<Analytics> modules) {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        if (reader != null) {
+            try {
+                reader.readInto(store);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-ReadInto", e);
+            }
+        }
+        System.out.println("Loaded " + store.size() + " transactions into columnar store");
+
+        FilterChain chain = new FilterChain(createFilters(config));
+        int[] selected = null; // rows that passed the chain, when resolved up front from the index
+        StoreIndex index = createIndex(config, store);
+        if (index != null) {
+            try {
+                selected = chain.select(index, store);
+                chain.printCounts();
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-Index", e);
+                chain = new FilterChain(createFilters(config));
+            }
+        }
+
+        ParallelAggregation parallel = ParallelAggregation.fromConfig(config);
+        if (parallel != null && ParallelAggregation.supports(modules)) {
+            if (selected != null) {
+                int[] rows = selected;
+                ParallelAggregation.Partial result = parallel.run(rows.length, () -> new FilterChain(List.of()), modules,
+                        (from, to, unused, accumulators) -> {
+                            for (int i = from; i < to; i++) accept(modules, accumulators, store, rows[i]);
+                        });
+                return finish(modules, result.accumulators);
+            }
+            ParallelAggregation.Partial result = parallel.run(store.size(), () -> new FilterChain(createFilters(config)), modules,
+                    (from, to, leafChain, accumulators) -> {
+                        for (int row = from; row < to; row++) {
+                            if (leafChain.test(store, row)) accept(modules, accumulators, store, row);
+                        }
+                    });
+            result.chain.printCounts();
+            return finish(modules, result.accumulators);
+        }
+
+        ConcurrentAnalytics concurrent = ConcurrentAnalytics.fromConfig(config);
+        if (concurrent != null) {
+            // filter once into a row selection, then every module scans it on its own thread
+            if (selected == null) {
+                int[] rows = new int[store.size()];
+                int n = 0;
+                for (int row = 0; row < store.size(); row++) {
+                    if (chain.test(store, row)) rows[n++] = row;
+                }
+                chain.printCounts();
+                selected = Arrays.copyOf(rows, n);
+            }
+
+            int[] rows = selected;
+            List<Callable<Map<String,Object>>> tasks = new ArrayList<>();
+            for (Analytics a : modules) {
+                tasks.add(() -> {
+                    Analytics.Accumulator acc = a.newAccumulator();
+                    for (int row : rows) acc.accept(store, row);
+                    return acc.finish();
+                });
+            }
+            return payloads(modules, concurrent.run(modules, tasks));
+        }
+
+        List<Analytics.Accumulator> accumulators = newAccumulators(modules);
+        if (selected != null) {
+            for (int row : selected) accept(modules, accumulators, store, row);
+            return finish(modules, accumulators);
+        }
+        for (int row = 0; row < store.size(); row++) {
+            if (chain.test(store, row)) accept(modules, accumulators, store, row);
+        }
+
+        chain.printCounts();
+        return finish(modules, accumulators);
+    }
+
+    /**
+     * StoreIndex over the loaded store when engine.parameters index is true, on the
+     * index_columns (default status, paymentType, merchantCategory); null otherwise.
+     */
+    private StoreIndex createIndex(RunConfig config, ColumnarTransactionStore store) {
+        if (config.engine == null || config.engine.parameters == null) return null;
+        Map<String, Object> p = config.engine.parameters;
+        if (!p.containsKey("index") || !Boolean.parseBoolean(p.get("index").toString())) return null;
+
+        try {
+            List<DictColumn> columns = new ArrayList<>();
+            Object v = p.getOrDefault("index_columns", List.of("status", "paymentType", "merchantCategory"));
+            List<?> names = v instanceof List ? (List<?>) v : Arrays.asList(v.toString().split(","));
+            for (Object name : names) {
+                DictColumn c = DictColumn.fromField(name.toString().trim());
+                if (c != null) columns.add(c);
+                else ErrorHandler.log("CoreEngine-Index-index_columns", "Unsupported field: " + name);
+            }
+
+            long start = System.nanoTime();
+            StoreIndex index = StoreIndex.build(store, columns.toArray(new DictColumn[0]));
+            System.out.printf("Built store index over %d rows (timestamps + %s) in %d ms, ~%d KB%n",
+                    index.rows(), columns, (System.nanoTime() - start) / 1_000_000, index.sizeInBytes() / 1024);
+            return index;
+        } catch (Exception e) {
+            ErrorHandler.log("CoreEngine-Index", e);
+            return null;
+        }
+    }
+
+    /**
+     * Shared scan: each row that passes the chain is handed to every accumulator once.
+     */
+    private Consumer<Transaction> rowSink(FilterChain chain, List<Analytics> modules,
+                                          List<Analytics.Accumulator> accumulators) {
+        return t -> {
+            if (!chain.test(t)) return;
+
+            for (int i = 0; i < accumulators.size(); i++) {
+                try {
+                    accumulators.get(i).accept(t);
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-Analytics-" + modules.get(i).name(), e);
+                }
+            }
+        };
+    }
+
+    private void accept(List<Analytics> modules, List<Analytics.Accumulator> accumulators,
+                        ColumnarTransactionStore store, int row) {
+        for (int i = 0; i < accumulators.size(); i++) {
+            try {
+                accumulators.get(i).accept(store, row);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-Analytics-" + modules.get(i).name(), e);
+            }
+        }
+    }
+
+    private List<Filter> createFilters(RunConfig config) {
+        List<Filter> filters = new ArrayList<>();
+        if (config.filters == null) return filters;
+
+        for (var fc : config.filters) {
+            try {
+                Filter f = factory.createFilter(fc.type, fc.parameters);
+                if (f != null) filters.add(f);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-CreateFilter-" + fc.type, e);
+            }
+        }
+        return filters;
+    }
+
+    private List<Analytics> createAnalytics(RunConfig config) {
+        List<Analytics> modules = new ArrayList<>();
+        if (config.analytics == null) return modules;
+
+        for (var ac : config.analytics) {
+            try {
+                Analytics a = factory.createAnalytics(ac.type, ac.parameters);
+                if (a != null) modules.add(a);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-Analytics-" + ac.type, e);
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Streaming fraud modules with alerts_to_output write each alert as it is raised, so
+     * it reaches the output before the scan ends.
+     */
+    private void wireAlerts(List<Analytics> modules, OutputWriter writer) {
+        for (Analytics a : modules) {
+            if (!(a instanceof StreamingFraudDetectorAnalytics fraud) || !fraud.alertsToOutput()) continue;
+            fraud.setAlertListener(alert -> {
+                Map<String,Object> payload = new HashMap<>();
+                payload.put("module", a.name());
+                payload.put("alert", alert);
+                try {
+                    // concurrent execution may raise alerts from several module threads
+                    synchronized (writer) {
+                        writer.write(payload);
+                    }
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-AlertWrite", e);
+                }
+            });
+        }
+    }
+
+    private List<Analytics.Accumulator> newAccumulators(List<Analytics> modules) {
+        List<Analytics.Accumulator> accumulators = new ArrayList<>();
+        for (Analytics a : modules) accumulators.add(a.newAccumulator());
+        return accumulators;
+    }
+
+    private List<Map<String,Object>> finish(List<Analytics> modules, List<Analytics.Accumulator> accumulators) {
+        List<Map<String,Object>> outputs = new ArrayList<>();
+        for (int i = 0; i < accumulators.size(); i++) {
+            try {
+                outputs.add(payload(modules.get(i), accumulators.get(i).finish()));
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-Analytics-" + modules.get(i).name(), e);
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Payloads in module order, skipping modules whose result is null (failed or timed out).
+     */
+    private List<Map<String,Object>> payloads(List<Analytics> modules, List<Map<String,Object>> results) {
+        List<Map<String,Object>> outputs = new ArrayList<>();
+        for (int i = 0; i < modules.size(); i++) {
+            if (results.get(i) != null) outputs.add(payload(modules.get(i), results.get(i)));
+        }
+        return outputs;
+    }
+
+    private Map<String,Object> payload(Analytics a, Map<String,Object> result) {
+        Map<String,Object> payload = new HashMap<>();
+        payload.put("module", a.name());
+        payload.put("result", result);
+        return payload;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.example.payments.engine;
+
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.RoaringBitmap;
+import com.example.payments.store.StoreIndex;
+import com.example.payments.utils.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * The configured filters fused into one per-row predicate.
+ *
+ * A row is tested against each filter in config order and stops at the first
+ * rejection, so the whole chain runs in a single pass with no intermediate lists.
+ * remaining(i) counts the rows that passed filters 0..i, i.e. the same numbers the
+ * filter-by-filter list pipeline used to report, out of the rows the chain saw. With
+ * filter pushdown (DataReader.pushDown) or skipped partitions / row groups, rows the reader
+ * dropped at source never reach the chain: the reader reports those counts itself, and
+ * printCounts() states how many rows the chain started from.
+ */
+public class FilterChain {
+
+    private final Filter[] filters;
+    private final long[] remaining;
+    private long tested; // rows handed to the chain
+    private int indexed; // filters resolved from a StoreIndex by select()
+
+    public FilterChain(List<Filter> filters) {
+        this.filters = filters.toArray(new Filter[0]);
+        this.remaining = new long[this.filters.length];
+    }
+
+    public boolean test(Transaction t) {
+        tested++;
+        for (int i = 0; i < filters.length; i++) {
+            boolean keep;
+            try {
+                keep = filters[i].test(t);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-ApplyFilter-" + filters[i].name(), e);
+                keep = false;
+            }
+            if (!keep) return false;
+            remaining[i]++;
+        }
+        return true;
+    }
+
+    public boolean test(ColumnarTransactionStore store, int row) {
+        tested++;
+        for (int i = 0; i < filters.length; i++) {
+            boolean keep;
+            try {
+                keep = filters[i].test(store, row);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-ApplyFilter-" + filters[i].name(), e);
+                keep = false;
+            }
+            if (!keep) return false;
+            remaining[i]++;
+        }
+        return true;
+    }
+
+    /**
+     * Indexed path over a whole store: filters that resolve through the index (see
+     * Filter.select) are intersected as bitmaps, the others are tested only on the rows
+     * still selected. Filters run in config order, so remaining(i) matches a row-by-row
+     * scan. Returns the passing rows in ascending order.
+     */
+    public int[] select(StoreIndex index, ColumnarTransactionStore store) {
+        if (index.rows() != store.size()) {
+            throw new IllegalArgumentException("Store index covers " + index.rows() + " rows, store has " + store.size());
+        }
+        RoaringBitmap selected = null; // null: every row
+        tested += store.size();
+        for (int i = 0; i < filters.length; i++) {
+            RoaringBitmap rows = null;
+            try {
+                rows = filters[i].select(index, store);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-IndexFilter-" + filters[i].name(), e);
+            }
+
+            if (rows != null) {
+                indexed++;
+                selected = selected == null ? rows : selected.and(rows);
+            } else {
+                selected = scan(filters[i], selected, store);
+            }
+            remaining[i] += selected.cardinality();
+        }
+
+        if (selected != null) return selected.toArray();
+        int[] all = new int[store.size()];
+        for (int row = 0; row < all.length; row++) all[row] = row;
+        return all;
+    }
+
+    private RoaringBitmap scan(Filter filter, RoaringBitmap selected, ColumnarTransactionStore store) {
+        RoaringBitmap.Builder out = new RoaringBitmap.Builder();
+        IntConsumer test = row -> {
+            boolean keep;
+            try {
+                keep = filter.test(store, row);
+            } catch (Exception e) {
+                ErrorHandler.log("CoreEngine-ApplyFilter-" + filter.name(), e);
+                keep = false;
+            }
+            if (keep) out.add(row);
+        };
+        if (selected != null) selected.forEach(test);
+        else for (int row = 0; row < store.size(); row++) test.accept(row);
+        return out.build();
+    }
+
+    /**
+     * Single pass over a list; returns the input itself when there are no filters.
+     */
+    public List<Transaction> apply(List<Transaction> input) {
+        if (filters.length == 0 || input == null) return input;
+
+        List<Transaction> out = new ArrayList<>();
+        for (Transaction t : input) {
+            if (test(t)) out.add(t);
+        }
+        return out;
+    }
+
+    public long remaining(int i) { return remaining[i]; }
+
+    /**
+     * Add the counts of a chain built from the same config that tested another partition.
+     */
+    public void combine(FilterChain other) {
+        tested += other.tested;
+        for (int i = 0; i < Math.min(remaining.length, other.remaining.length); i++) remaining[i] += other.remaining[i];
+    }
+
+    public void printCounts() {
+        if (filters.length > 0) System.out.println("Filter chain: " + tested + " rows in (after any reader-side pushdown)");
+        for (int i = 0; i < filters.length; i++) {
+            System.out.println("Applied filter: " + filters[i].name() + " -> remaining=" + remaining[i]);
+        }
+        if (indexed > 0) System.out.println("Resolved " + indexed + " of " + filters.length + " filters from the store index");
+    }
+}
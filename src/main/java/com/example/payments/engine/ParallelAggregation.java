@@ -0,0 +1,141 @@
+package com.example.payments.engine;
+
+import com.example.payments.config.RunConfig;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.utils.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Fork-join aggregation over an indexed input (a list or a column store), for
+ * engine.parameters analytics_parallelism > 1 (or "auto").
+ *
+ * The row range is split recursively; each leaf gets its own FilterChain and a fresh
+ * accumulator per module, scans its rows, and partial results are combined left to
+ * right, so the combined state is the one a single sequential scan would build.
+ * Only used when every module's accumulator reports isCombinable().
+ */
+public class ParallelAggregation {
+
+    private static final int MIN_LEAF = 4096;
+
+    private final int parallelism;
+
+    public ParallelAggregation(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Scans rows [from, to) of the input into the given chain and accumulators.
+     */
+    public interface RangeScan {
+        void scan(int from, int to, FilterChain chain, List<Analytics.Accumulator> accumulators);
+    }
+
+    /**
+     * Combined state of all partitions.
+     */
+    public static class Partial {
+        public final FilterChain chain;
+        public final List<Analytics.Accumulator> accumulators;
+
+        Partial(FilterChain chain, List<Analytics.Accumulator> accumulators) {
+            this.chain = chain;
+            this.accumulators = accumulators;
+        }
+    }
+
+    /**
+     * Settings from engine.parameters, or null when aggregation should stay sequential.
+     */
+    public static ParallelAggregation fromConfig(RunConfig config) {
+        if (config.engine == null || config.engine.parameters == null) return null;
+        Object v = config.engine.parameters.get("analytics_parallelism");
+        if (v == null) return null;
+
+        try {
+            String s = v.toString();
+            int n = "auto".equalsIgnoreCase(s) || "0".equals(s)
+                    ? Runtime.getRuntime().availableProcessors()
+                    : Integer.parseInt(s);
+            return n > 1 ? new ParallelAggregation(n) : null;
+        } catch (Exception e) {
+            ErrorHandler.log("ParallelAggregation-Init-analytics_parallelism", e);
+            return null;
+        }
+    }
+
+    /**
+     * True when every module can merge partial accumulators.
+     */
+    public static boolean supports(List<Analytics> modules) {
+        for (Analytics a : modules) {
+            if (!a.newAccumulator().isCombinable()) {
+                System.out.println("Parallel aggregation disabled: " + a.name() + " cannot combine partial results");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Partial run(int size, Supplier<FilterChain> chains, List<Analytics> modules, RangeScan scan) {
+        int leaf = Math.max(MIN_LEAF, size / (parallelism * 8) + 1);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new Task(0, size, leaf, chains, modules, scan));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @SuppressWarnings("serial") // never serialized; fields hold lambdas and accumulators
+    private static class Task extends RecursiveTask<Partial> {
+        private final int from;
+        private final int to;
+        private final int leaf;
+        private final Supplier<FilterChain> chains;
+        private final List<Analytics> modules;
+        private final RangeScan scan;
+
+        Task(int from, int to, int leaf, Supplier<FilterChain> chains, List<Analytics> modules, RangeScan scan) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.chains = chains;
+            this.modules = modules;
+            this.scan = scan;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= leaf) {
+                FilterChain chain = chains.get();
+                List<Analytics.Accumulator> accumulators = new ArrayList<>();
+                for (Analytics a : modules) accumulators.add(a.newAccumulator());
+                scan.scan(from, to, chain, accumulators);
+                return new Partial(chain, accumulators);
+            }
+
+            int mid = (from + to) >>> 1;
+            Task left = new Task(from, mid, leaf, chains, modules, scan);
+            Task right = new Task(mid, to, leaf, chains, modules, scan);
+            right.fork();
+            Partial l = left.compute();
+            Partial r = right.join();
+
+            l.chain.combine(r.chain);
+            for (int i = 0; i < l.accumulators.size(); i++) {
+                try {
+                    l.accumulators.get(i).combine(r.accumulators.get(i));
+                } catch (Exception e) {
+                    ErrorHandler.log("CoreEngine-Analytics-" + modules.get(i).name(), e);
+                }
+            }
+            return l;
+        }
+    }
+}
@@ -22,16 +22,22 @@ public class PluginRegistry {
             register("csv", "com.example.payments.readers.CsvReader");
             register("json", "com.example.payments.readers.JsonReader");
             register("parquet", "com.example.payments.readers.ParquetReader");
+            register("columnar_file", "com.example.payments.readers.ColumnarFileReader");
 
             // filters
             register("status_filter", "com.example.payments.filters.StatusFilter");
             register("date_range_filter", "com.example.payments.filters.DateRangeFilter");
             register("amount_filter", "com.example.payments.filters.AmountFilter");
+            register("field_filter", "com.example.payments.filters.FieldFilter");
 
             // analytics
             register("top_merchants", "com.example.payments.analytics.TopMerchantsAnalytics");
             register("channel_performance", "com.example.payments.analytics.ChannelPerformanceAnalytics");
             register("fraud_detection", "com.example.payments.analytics.FraudDetectorAnalytics");
+            register("streaming_fraud_detection", "com.example.payments.analytics.StreamingFraudDetectorAnalytics");
+            register("distinct_count", "com.example.payments.analytics.DistinctCountAnalytics");
+            register("amount_quantiles", "com.example.payments.analytics.AmountQuantilesAnalytics");
+            register("rollup", "com.example.payments.analytics.RollupAnalytics");
 
             // writers
             register("console", "com.example.payments.writers.ConsoleWriter");
@@ -1,18 +1,100 @@
 package com.example.payments.engine.interfaces;
 
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.utils.ErrorHandler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Analytics module processes transactions and returns a result payload.
+ *
+ * The engine drives modules through newAccumulator() so that all configured modules
+ * share one scan of the data (create = newAccumulator, accumulate = accept,
+ * combine, finish). A module implements either newAccumulator() (preferred)
+ * or analyze(); each default is written in terms of the other.
  */
 public interface Analytics {
     void init(Map<String, Object> parameters) throws Exception;
+    String name();
+
+    /**
+     * Transaction fields the module reads (including any rows it puts in its result);
+     * the reader may leave the others undecoded. Default is every field.
+     */
+    default Set<TransactionField> requiredFields() {
+        return TransactionField.all();
+    }
+
     /**
      * returns a map containing result data which is writer-serializable.
+     * Default runs the list through a fresh accumulator.
      */
-    Map<String, Object> analyze(List<Transaction> transactions);
-    String name();
-}
\ No newline at end of file
+    default Map<String, Object> analyze(List<Transaction> transactions) {
+        try {
+            Accumulator acc = newAccumulator();
+            if (transactions != null) {
+                for (Transaction t : transactions) acc.accept(t);
+            }
+            return acc.finish();
+        } catch (Exception e) {
+            ErrorHandler.log(getClass().getSimpleName() + "-Analyze", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Incremental state for one run: rows are pushed with accept() and the
+     * result payload is produced once by finish().
+     */
+    interface Accumulator {
+        void accept(Transaction t);
+        Map<String, Object> finish();
+
+        /**
+         * Accept a row of a columnar store. Default materializes the row;
+         * accumulators override it to aggregate on the primitive columns.
+         */
+        default void accept(ColumnarTransactionStore store, int row) {
+            accept(store.get(row));
+        }
+
+        /**
+         * True when partial accumulators of this module can be merged with combine(),
+         * which lets the engine aggregate input partitions in parallel.
+         */
+        default boolean isCombinable() {
+            return false;
+        }
+
+        /**
+         * Fold in a partial accumulator from the same module that was fed the rows
+         * immediately following this one's. After finish() the result must be identical
+         * to a single accumulator fed both partitions in order.
+         */
+        default void combine(Accumulator later) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be combined");
+        }
+    }
+
+    /**
+     * Create an accumulator for one run.
+     * Default buffers the rows and delegates to analyze() on finish, for
+     * modules that only implement analyze().
+     */
+    default Accumulator newAccumulator() {
+        List<Transaction> buffer = new ArrayList<>();
+        return new Accumulator() {
+            @Override
+            public void accept(Transaction t) { buffer.add(t); }
+
+            @Override
+            public Map<String, Object> finish() { return analyze(buffer); }
+        };
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.payments.engine.interfaces;
 
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * DataReader reads transactions from a configured source.
@@ -19,4 +23,38 @@ public interface DataReader {
      * Read all transactions (batch mode).
      */
     List<Transaction> readAll() throws Exception;
-}
\ No newline at end of file
+
+    /**
+     * Read transactions one at a time (streaming mode), handing each row to the sink.
+     * Readers that only implement readAll() are adapted by this default, so they
+     * still hold the full list; streaming-capable readers override it.
+     */
+    default void read(Consumer<Transaction> sink) throws Exception {
+        List<Transaction> all = readAll();
+        if (all == null) return;
+        for (Transaction t : all) sink.accept(t);
+    }
+
+    /**
+     * Load every row into a columnar store. Default appends the streamed rows.
+     */
+    default void readInto(ColumnarTransactionStore store) throws Exception {
+        read(store::add);
+    }
+
+    /**
+     * Called before reading with the run's filters. Readers may use them to skip input
+     * that cannot pass; the engine still applies every filter to the rows it gets.
+     * Default ignores them.
+     */
+    default void pushDown(List<Filter> filters) {
+    }
+
+    /**
+     * Called before reading with the fields the pipeline uses (never all of them).
+     * Readers may skip decoding the other columns and leave those fields unset.
+     * Default decodes everything.
+     */
+    default void project(Set<TransactionField> fields) {
+    }
+}
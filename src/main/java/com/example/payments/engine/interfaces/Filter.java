@@ -1,9 +1,15 @@
 package com.example.payments.engine.interfaces;
 
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.RoaringBitmap;
+import com.example.payments.store.StoreIndex;
+import com.example.payments.store.ZoneMap;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Filter applies filtering to a list of transactions.
@@ -12,4 +18,63 @@ public interface Filter {
     void init(Map<String, Object> parameters) throws Exception;
     List<Transaction> apply(List<Transaction> input);
     String name();
+
+    /**
+     * Transaction fields test() reads; the reader may leave the others undecoded.
+     * Default is every field.
+     */
+    default Set<TransactionField> requiredFields() {
+        return TransactionField.all();
+    }
+
+    /**
+     * Per-row predicate; the engine fuses these into one FilterChain pass.
+     * Built-in filters implement it directly; the default adapts apply() on a single-row list.
+     */
+    default boolean test(Transaction t) {
+        if (t == null) return false;
+        List<Transaction> kept = apply(List.of(t));
+        return kept != null && !kept.isEmpty();
+    }
+
+    /**
+     * Per-row test against a columnar store.
+     * Default materializes the row; filters override it to read the primitive columns.
+     */
+    default boolean test(ColumnarTransactionStore store, int row) {
+        return test(store.get(row));
+    }
+
+    /**
+     * False only when no row described by the zone map can pass, so a reader may skip
+     * the whole row group. Default keeps every group.
+     */
+    default boolean mayMatch(ZoneMap zone) {
+        return true;
+    }
+
+    /**
+     * False only when no row whose timestamp lies in [minEpochNanos, maxEpochNanos] can
+     * pass, so a reader may skip e.g. a dt=/hh= partition of files. Default keeps everything.
+     */
+    default boolean mayMatchTimestamps(long minEpochNanos, long maxEpochNanos) {
+        return true;
+    }
+
+    /**
+     * False only when the row cannot pass, so a reader may drop it before building a
+     * Transaction. Must be thread-safe (parallel readers share filters). Default keeps every row.
+     */
+    default boolean mayMatch(RawRow row) {
+        return true;
+    }
+
+    /**
+     * Exactly the rows of the indexed store that pass test(store, row), resolved from the
+     * index; null when the filter cannot use it, and the engine tests rows one by one.
+     * Default is null.
+     */
+    default RoaringBitmap select(StoreIndex index, ColumnarTransactionStore store) {
+        return null;
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.payments.engine.interfaces;
 
+import com.example.payments.model.TransactionField;
+
 import java.util.Map;
+import java.util.Set;
 
 /**
  * OutputWriter writes analytics results to destinations.
@@ -9,4 +12,19 @@ public interface OutputWriter {
     void init(Map<String, Object> parameters) throws Exception;
     void write(Map<String, Object> payload) throws Exception;
     String name();
+
+    /**
+     * Transaction fields the writer reads. Writers receive analytics payloads rather
+     * than rows, so the default is none.
+     */
+    default Set<TransactionField> requiredFields() {
+        return TransactionField.none();
+    }
+
+    /**
+     * Called once after the run's last write, to flush and release what the writer keeps
+     * open. The default does nothing.
+     */
+    default void close() throws Exception {
+    }
 }
\ No newline at end of file
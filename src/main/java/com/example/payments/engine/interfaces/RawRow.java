@@ -0,0 +1,41 @@
+package com.example.payments.engine.interfaces;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * One input row as a reader sees it before building a Transaction, so pushed-down
+ * filters can reject it early (see Filter.mayMatch(RawRow)). Fields are parsed on
+ * demand from the reader's buffer with the same rules the reader uses for the
+ * Transaction. One instance per reading thread, reused across rows.
+ */
+public interface RawRow {
+
+    /** True when the row has a status equal to one of the values. */
+    boolean statusIn(Collection<String> values);
+
+    /** True when the row has no timestamp (field absent or blank). */
+    boolean timestampMissing();
+
+    /**
+     * Parse the timestamp with the fast ISO parser; false when missing or in a form
+     * only the slow path reads. On true, epochNanos() and timestamp() return it.
+     */
+    boolean parseTimestamp();
+
+    /** Epoch nanos of the last parsed timestamp; saturates like IsoTimestampParser. */
+    long epochNanos();
+
+    /** The last parsed timestamp as an object (for saturated epoch nanos). */
+    OffsetDateTime timestamp();
+
+    /**
+     * Parse the amount as fixed point (a missing amount reads as zero); false when it is
+     * not a plain decimal. On true, amountUnscaled() and amountScale() return it.
+     */
+    boolean parseAmount();
+
+    long amountUnscaled();
+
+    int amountScale();
+}
@@ -1,12 +1,19 @@
 package com.example.payments.filters;
 
 import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.engine.interfaces.RawRow;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.ZoneMap;
+import com.example.payments.utils.DecimalBound;
 import com.example.payments.utils.ErrorHandler;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +24,10 @@ public class AmountFilter implements Filter {
     private BigDecimal min;
     private BigDecimal max;
 
+    // same bounds, compared against fixed-point amounts without BigDecimal
+    private DecimalBound minBound;
+    private DecimalBound maxBound;
+
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
         try {
@@ -25,6 +36,7 @@ public class AmountFilter implements Filter {
             try {
                 if (parameters.containsKey("min_amount")) {
                     min = new BigDecimal(parameters.get("min_amount").toString());
+                    minBound = new DecimalBound(min);
                 }
             } catch (Exception e) {
                 ErrorHandler.log("AmountFilter-Init-min_amount", e);
@@ -33,6 +45,7 @@ public class AmountFilter implements Filter {
             try {
                 if (parameters.containsKey("max_amount")) {
                     max = new BigDecimal(parameters.get("max_amount").toString());
+                    maxBound = new DecimalBound(max);
                 }
             } catch (Exception e) {
                 ErrorHandler.log("AmountFilter-Init-max_amount", e);
@@ -52,13 +65,7 @@ public class AmountFilter implements Filter {
             return input.stream()
                     .filter(t -> {
                         try {
-                            if (t == null || t.getAmount() == null) return false;
-
-                            if (min != null && t.getAmount().compareTo(min) < 0) return false;
-                            if (max != null && t.getAmount().compareTo(max) > 0) return false;
-
-                            return true;
-
+                            return test(t);
                         } catch (Exception e) {
                             ErrorHandler.log("AmountFilter-Apply-Transaction", e);
                             return false; // fail-safe: skip faulty transaction
@@ -72,6 +79,60 @@ public class AmountFilter implements Filter {
         }
     }
 
+    @Override
+    public boolean test(Transaction t) {
+        if (t == null) return false;
+
+        if (t.hasCompactAmount()) {
+            long v = t.amountUnscaled();
+            int scale = t.amountScale();
+            if (minBound != null && minBound.compareTo(v, scale) < 0) return false;
+            if (maxBound != null && maxBound.compareTo(v, scale) > 0) return false;
+            return true;
+        }
+
+        if (t.getAmount() == null) return false;
+        if (min != null && t.getAmount().compareTo(min) < 0) return false;
+        if (max != null && t.getAmount().compareTo(max) > 0) return false;
+        return true;
+    }
+
+    @Override
+    public boolean test(ColumnarTransactionStore store, int row) {
+        if (!store.hasAmount(row)) return false;
+        if (!store.isCompactAmount(row)) return test(store.get(row));
+
+        long v = store.amountUnscaled(row);
+        int scale = store.amountScale(row);
+        if (minBound != null && minBound.compareTo(v, scale) < 0) return false;
+        if (maxBound != null && maxBound.compareTo(v, scale) > 0) return false;
+        return true;
+    }
+
+    @Override
+    public boolean mayMatch(RawRow row) {
+        if (!row.parseAmount()) return true; // left to test()
+
+        long v = row.amountUnscaled();
+        int scale = row.amountScale();
+        if (minBound != null && minBound.compareTo(v, scale) < 0) return false;
+        if (maxBound != null && maxBound.compareTo(v, scale) > 0) return false;
+        return true;
+    }
+
+    @Override
+    public boolean mayMatch(ZoneMap zone) {
+        if (zone.minAmount() == null) return false; // no row has an amount
+        if (min != null && zone.maxAmount().compareTo(min) < 0) return false;
+        if (max != null && zone.minAmount().compareTo(max) > 0) return false;
+        return true;
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.AMOUNT);
+    }
+
     @Override
     public String name() {
         return "AmountFilter";
@@ -1,12 +1,21 @@
 package com.example.payments.filters;
 
 import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.engine.interfaces.RawRow;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.RoaringBitmap;
+import com.example.payments.store.StoreIndex;
+import com.example.payments.store.ZoneMap;
 import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.IsoTimestampParser;
 
 import java.time.OffsetDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +26,9 @@ public class DateRangeFilter implements Filter {
 
     private OffsetDateTime from;
     private OffsetDateTime to;
+    // same bounds as epoch nanos; NO_TIMESTAMP when unset
+    private long fromNanos = IsoTimestampParser.NO_TIMESTAMP;
+    private long toNanos = IsoTimestampParser.NO_TIMESTAMP;
 
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
@@ -26,6 +38,7 @@ public class DateRangeFilter implements Filter {
             try {
                 if (parameters.containsKey("from")) {
                     from = OffsetDateTime.parse(parameters.get("from").toString());
+                    fromNanos = IsoTimestampParser.epochNanos(from);
                 }
             } catch (Exception e) {
                 ErrorHandler.log("DateRangeFilter-Init-from", e);
@@ -34,6 +47,7 @@ public class DateRangeFilter implements Filter {
             try {
                 if (parameters.containsKey("to")) {
                     to = OffsetDateTime.parse(parameters.get("to").toString());
+                    toNanos = IsoTimestampParser.epochNanos(to);
                 }
             } catch (Exception e) {
                 ErrorHandler.log("DateRangeFilter-Init-to", e);
@@ -52,12 +66,7 @@ public class DateRangeFilter implements Filter {
             return input.stream()
                     .filter(t -> {
                         try {
-                            if (t == null || t.getTimestamp() == null) return false;
-
-                            if (from != null && t.getTimestamp().isBefore(from)) return false;
-                            if (to != null && t.getTimestamp().isAfter(to)) return false;
-
-                            return true;
+                            return test(t);
                         } catch (Exception e) {
                             ErrorHandler.log("DateRangeFilter-Apply-Transaction", e);
                             return false; // skip faulty transaction
@@ -71,6 +80,80 @@ public class DateRangeFilter implements Filter {
         }
     }
 
+    @Override
+    public boolean test(Transaction t) {
+        return t != null && inRange(IsoTimestampParser.epochNanos(t.getTimestamp()), t.getTimestamp());
+    }
+
+    @Override
+    public boolean test(ColumnarTransactionStore store, int row) {
+        long ts = store.epochNanos(row);
+        if (store.isWideTimestamp(row)) return inRange(ts, store.timestamp(row));
+        return inRange(ts, null);
+    }
+
+    /**
+     * Compare on epoch nanos; the OffsetDateTime is only consulted for saturated values.
+     */
+    private boolean inRange(long ts, OffsetDateTime exact) {
+        if (ts == IsoTimestampParser.NO_TIMESTAMP) return false;
+        if (IsoTimestampParser.isSaturated(ts)) {
+            if (from != null && exact.isBefore(from)) return false;
+            if (to != null && exact.isAfter(to)) return false;
+            return true;
+        }
+
+        // saturated bounds stay correctly ordered against any in-range row value
+        if (from != null && ts < fromNanos) return false;
+        if (to != null && ts > toNanos) return false;
+        return true;
+    }
+
+    @Override
+    public boolean mayMatch(RawRow row) {
+        if (row.timestampMissing()) return false;
+        if (!row.parseTimestamp()) return true; // slow-path forms are left to test()
+
+        long ts = row.epochNanos();
+        return inRange(ts, IsoTimestampParser.isSaturated(ts) ? row.timestamp() : null);
+    }
+
+    /**
+     * Saturated zone bounds only widen the range, so comparing epoch nanos stays conservative.
+     */
+    @Override
+    public boolean mayMatch(ZoneMap zone) {
+        return zone.hasTimestamps() && mayMatchTimestamps(zone.minEpochNanos(), zone.maxEpochNanos());
+    }
+
+    @Override
+    public boolean mayMatchTimestamps(long minEpochNanos, long maxEpochNanos) {
+        if (from != null && maxEpochNanos < fromNanos) return false;
+        if (to != null && minEpochNanos > toNanos) return false;
+        return true;
+    }
+
+    /**
+     * Binary search on the sorted timestamps; saturated rows are tested one by one.
+     */
+    @Override
+    public RoaringBitmap select(StoreIndex index, ColumnarTransactionStore store) {
+        RoaringBitmap rows = index.timestampRange(from != null ? fromNanos : Long.MIN_VALUE,
+                to != null ? toNanos : Long.MAX_VALUE);
+        if (index.saturatedRows().length == 0) return rows;
+
+        RoaringBitmap.Builder saturated = new RoaringBitmap.Builder();
+        for (int row : index.saturatedRows()) {
+            if (test(store, row)) saturated.add(row);
+        }
+        return rows.or(saturated.build());
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.TIMESTAMP);
+    }
+
     @Override
     public String name() {
         return "DateRangeFilter";
@@ -0,0 +1,145 @@
+package com.example.payments.filters;
+
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.store.RoaringBitmap;
+import com.example.payments.store.StoreIndex;
+import com.example.payments.store.StringDictionary;
+import com.example.payments.store.ZoneMap;
+import com.example.payments.utils.ErrorHandler;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps only transactions whose value of one string field is in a list, e.g.
+ * field: "paymentType", values: ["UPI", "CARD"]. The field must be dictionary-encoded
+ * (see DictColumn); rows where it is null are dropped.
+ */
+public class FieldFilter implements Filter {
+
+    private DictColumn field;
+    private Set<String> values;
+
+    // values resolved to dictionary codes of the store being scanned
+    private StringDictionary resolvedFor;
+    private boolean[] allowedCodes = new boolean[0];
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        try {
+            if (parameters == null) return;
+
+            try {
+                if (parameters.containsKey("field")) {
+                    field = DictColumn.fromField(parameters.get("field").toString());
+                    if (field == null) ErrorHandler.log("FieldFilter-Init-field", "Unsupported field: " + parameters.get("field"));
+                }
+            } catch (Exception e) {
+                ErrorHandler.log("FieldFilter-Init-field", e);
+            }
+
+            try {
+                Object v = parameters.get("values"); // e.g. ["UPI", "CARD"]
+                if (v instanceof List) {
+                    values = ((List<?>) v)
+                            .stream()
+                            .map(Object::toString)
+                            .collect(Collectors.toSet());
+                } else if (v != null) {
+                    values = Arrays.stream(v.toString().split(","))
+                            .map(String::trim)
+                            .filter(s -> !s.isEmpty())
+                            .collect(Collectors.toSet());
+                }
+            } catch (Exception e) {
+                ErrorHandler.log("FieldFilter-Init-values", e);
+            }
+
+        } catch (Exception e) {
+            ErrorHandler.log("FieldFilter-Init", e);
+        }
+    }
+
+    /** Without a field or values the filter keeps everything. */
+    private boolean disabled() {
+        return field == null || values == null || values.isEmpty();
+    }
+
+    @Override
+    public List<Transaction> apply(List<Transaction> input) {
+        try {
+
+            if (disabled() || input == null) return input;
+
+            return input.stream()
+                    .filter(t -> {
+                        try {
+                            return test(t);
+                        } catch (Exception e) {
+                            ErrorHandler.log("FieldFilter-Apply-Transaction", e);
+                            return false;
+                        }
+                    })
+                    .collect(Collectors.toList());
+
+        } catch (Exception e) {
+            ErrorHandler.log("FieldFilter-Apply", e);
+            return input; // fail-safe fallback
+        }
+    }
+
+    @Override
+    public boolean test(Transaction t) {
+        if (disabled()) return true;
+        if (t == null) return false;
+        String value = field.valueOf(t);
+        return value != null && values.contains(value);
+    }
+
+    @Override
+    public boolean test(ColumnarTransactionStore store, int row) {
+        if (disabled()) return true;
+
+        int code = store.code(field, row);
+        if (code < 0) return false;
+
+        StringDictionary dict = store.dictionary(field);
+        if (dict != resolvedFor || code >= allowedCodes.length) {
+            allowedCodes = new boolean[dict.size()];
+            for (int c = 0; c < allowedCodes.length; c++) allowedCodes[c] = values.contains(dict.decode(c));
+            resolvedFor = dict;
+        }
+        return allowedCodes[code];
+    }
+
+    @Override
+    public boolean mayMatch(ZoneMap zone) {
+        if (disabled()) return true;
+        for (String value : zone.values(field)) {
+            if (values.contains(value)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public RoaringBitmap select(StoreIndex index, ColumnarTransactionStore store) {
+        if (disabled() || !index.indexed(field)) return null;
+
+        StringDictionary dict = store.dictionary(field);
+        return index.rowsWithCodes(field, values.stream().mapToInt(dict::lookup).toArray());
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return field == null ? EnumSet.noneOf(TransactionField.class) : EnumSet.of(field.transactionField());
+    }
+
+    @Override
+    public String name() {
+        return "FieldFilter";
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.payments.filters;
 
 import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.engine.interfaces.RawRow;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.DictColumn;
+import com.example.payments.store.RoaringBitmap;
+import com.example.payments.store.StoreIndex;
+import com.example.payments.store.StringDictionary;
+import com.example.payments.store.ZoneMap;
 import com.example.payments.utils.ErrorHandler;
 
 import java.util.*;
@@ -14,6 +22,10 @@ public class StatusFilter implements Filter {
 
     private Set<String> allowed;
 
+    // allowed statuses resolved to dictionary codes of the store being scanned
+    private StringDictionary resolvedFor;
+    private boolean[] allowedCodes = new boolean[0];
+
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
         try {
@@ -65,9 +77,7 @@ public class StatusFilter implements Filter {
             return input.stream()
                     .filter(t -> {
                         try {
-                            return t != null &&
-                                    t.getStatus() != null &&
-                                    allowed.contains(t.getStatus());
+                            return test(t);
                         } catch (Exception e) {
                             ErrorHandler.log("StatusFilter-Apply-Transaction", e);
                             return false;
@@ -81,6 +91,56 @@ public class StatusFilter implements Filter {
         }
     }
 
+    @Override
+    public boolean test(Transaction t) {
+        if (allowed == null || allowed.isEmpty()) return true;
+        return t != null && t.getStatus() != null && allowed.contains(t.getStatus());
+    }
+
+    @Override
+    public boolean test(ColumnarTransactionStore store, int row) {
+        if (allowed == null || allowed.isEmpty()) return true;
+
+        int code = store.code(DictColumn.STATUS, row);
+        if (code < 0) return false;
+
+        StringDictionary dict = store.dictionary(DictColumn.STATUS);
+        if (dict != resolvedFor || code >= allowedCodes.length) {
+            allowedCodes = new boolean[dict.size()];
+            for (int c = 0; c < allowedCodes.length; c++) allowedCodes[c] = allowed.contains(dict.decode(c));
+            resolvedFor = dict;
+        }
+        return allowedCodes[code];
+    }
+
+    @Override
+    public boolean mayMatch(RawRow row) {
+        if (allowed == null || allowed.isEmpty()) return true;
+        return row.statusIn(allowed);
+    }
+
+    @Override
+    public boolean mayMatch(ZoneMap zone) {
+        if (allowed == null || allowed.isEmpty()) return true;
+        for (String status : zone.values(DictColumn.STATUS)) {
+            if (allowed.contains(status)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public RoaringBitmap select(StoreIndex index, ColumnarTransactionStore store) {
+        if (allowed == null || allowed.isEmpty() || !index.indexed(DictColumn.STATUS)) return null;
+
+        StringDictionary dict = store.dictionary(DictColumn.STATUS);
+        return index.rowsWithCodes(DictColumn.STATUS, allowed.stream().mapToInt(dict::lookup).toArray());
+    }
+
+    @Override
+    public Set<TransactionField> requiredFields() {
+        return EnumSet.of(TransactionField.STATUS);
+    }
+
     @Override
     public String name() {
         return "StatusFilter";
@@ -15,6 +15,9 @@ public class Transaction {
     private String merchantName;
     private String merchantCategory; // new field
     private BigDecimal amount;
+    // fixed-point form of amount (value = amountUnscaled * 10^-amountScale); amountScale < 0 when unused
+    private long amountUnscaled;
+    private int amountScale = -1;
     private String currency;
     private String status;
     private OffsetDateTime timestamp;
@@ -37,8 +40,30 @@ public class Transaction {
     public String getMerchantCategory() { return merchantCategory; }
     public void setMerchantCategory(String merchantCategory) { this.merchantCategory = merchantCategory; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public BigDecimal getAmount() {
+        if (amount == null && amountScale >= 0) amount = BigDecimal.valueOf(amountUnscaled, amountScale);
+        return amount;
+    }
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+        this.amountScale = -1;
+    }
+
+    /**
+     * Set the amount in fixed-point form; the BigDecimal is only built if getAmount() is called.
+     */
+    public void setAmount(long unscaled, int scale) {
+        this.amount = null;
+        this.amountUnscaled = unscaled;
+        this.amountScale = scale;
+    }
+
+    /**
+     * True when the amount is held as fixed-point (amountUnscaled()/amountScale()).
+     */
+    public boolean hasCompactAmount() { return amountScale >= 0; }
+    public long amountUnscaled() { return amountUnscaled; }
+    public int amountScale() { return amountScale; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -65,7 +90,7 @@ public class Transaction {
                 ", merchantId='" + merchantId + '\'' +
                 ", merchantName='" + merchantName + '\'' +
                 ", merchantCategory='" + merchantCategory + '\'' +
-                ", amount=" + amount +
+                ", amount=" + getAmount() +
                 ", currency='" + currency + '\'' +
                 ", status='" + status + '\'' +
                 ", timestamp=" + timestamp +
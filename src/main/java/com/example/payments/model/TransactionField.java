@@ -0,0 +1,38 @@
+package com.example.payments.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Transaction fields as input columns, for declaring which ones a pipeline component
+ * reads (see DataReader.project). Names are the CSV header / JSON field names.
+ */
+public enum TransactionField {
+    ID("transactionId"),
+    TIMESTAMP("timestamp"),
+    AMOUNT("amount"),
+    CURRENCY("currency"),
+    STATUS("status"),
+    PAYMENT_TYPE("paymentType"),
+    MERCHANT_ID("merchantId"),
+    MERCHANT_NAME("merchantName"),
+    MERCHANT_CATEGORY("merchantCategory"),
+    CUSTOMER_ID("customerId"),
+    LOCATION("location");
+
+    private final String column;
+
+    TransactionField(String column) {
+        this.column = column;
+    }
+
+    public String column() { return column; }
+
+    public static Set<TransactionField> all() {
+        return EnumSet.allOf(TransactionField.class);
+    }
+
+    public static Set<TransactionField> none() {
+        return EnumSet.noneOf(TransactionField.class);
+    }
+}
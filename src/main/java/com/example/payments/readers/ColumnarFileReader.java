@@ -0,0 +1,108 @@
+package com.example.payments.readers;
+
+import com.example.payments.engine.interfaces.DataReader;
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarFile;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.ZoneMap;
+import com.example.payments.utils.ErrorHandler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads a ColumnarFile (see ColumnarFileConverter to create one from CSV or JSON).
+ * Row groups whose zone map rules out one of the pushed-down filters are skipped
+ * without decoding, and in the others only the chunks of projected fields are decoded;
+ * columnar mode appends decoded groups straight into the store.
+ *
+ * Note: this class may appear "unused" in the IDE because it's instantiated by reflection
+ * from ComponentFactory / PluginRegistry. That's expected.
+ */
+@SuppressWarnings("unused")
+public class ColumnarFileReader implements DataReader {
+
+    private String path;
+    private List<Filter> filters = List.of();
+    private Set<TransactionField> fields = TransactionField.all();
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        this.path = (String) parameters.getOrDefault("path", "src/main/resources/transactions.pcf");
+    }
+
+    @Override
+    public void pushDown(List<Filter> filters) {
+        this.filters = filters == null ? List.of() : filters;
+    }
+
+    @Override
+    public void project(Set<TransactionField> fields) {
+        this.fields = fields == null ? TransactionField.all() : fields;
+    }
+
+    @Override
+    public List<Transaction> readAll() throws Exception {
+        List<Transaction> out = new ArrayList<>();
+        read(out::add);
+        return out;
+    }
+
+    @Override
+    public void read(Consumer<Transaction> sink) throws Exception {
+        scan(group -> {
+            for (int i = 0; i < group.rows(); i++) sink.accept(group.transaction(i));
+        });
+    }
+
+    @Override
+    public void readInto(ColumnarTransactionStore store) throws Exception {
+        scan(group -> group.appendTo(store));
+    }
+
+    private void scan(Consumer<ColumnarFile.RowGroup> handler) throws Exception {
+        File file = new File(path);
+        if (!file.exists()) {
+            throw new IllegalArgumentException("Columnar file not found: " + path);
+        }
+
+        Projection projection = new Projection(fields);
+        int groups = 0, skippedGroups = 0;
+        long skippedRows = 0;
+        try (ColumnarFile.Reader in = new ColumnarFile.Reader(file.toPath())) {
+            ZoneMap zone;
+            while ((zone = in.next()) != null) {
+                groups++;
+                if (!mayMatch(zone)) {
+                    in.skip();
+                    skippedGroups++;
+                    skippedRows += zone.rows();
+                    continue;
+                }
+                handler.accept(in.read(fields));
+                projection.rows(zone.rows());
+            }
+        }
+
+        System.out.println("ColumnarFileReader: skipped " + skippedGroups + " of " + groups
+                + " row groups (" + skippedRows + " rows) by zone maps");
+        projection.printSavings("ColumnarFileReader");
+    }
+
+    private boolean mayMatch(ZoneMap zone) {
+        for (Filter f : filters) {
+            try {
+                if (!f.mayMatch(zone)) return false;
+            } catch (Exception e) {
+                ErrorHandler.log("ColumnarFileReader-ZoneMap-" + f.name(), e);
+            }
+        }
+        return true;
+    }
+}
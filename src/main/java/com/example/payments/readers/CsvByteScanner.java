@@ -0,0 +1,118 @@
+package com.example.payments.readers;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Byte-level RFC 4180 record scanner (comma delimiter, double-quote quoting,
+ * LF or CRLF line endings, quoted fields may contain newlines).
+ *
+ * Works on any ByteBuffer (heap or memory-mapped) and reports each record as a
+ * reused {@link CsvRecord}, so scanning itself allocates nothing per row.
+ */
+public class CsvByteScanner {
+
+    /**
+     * Scan complete records in [from, limit) and hand each non-blank one to the handler.
+     *
+     * @param endOfInput true when limit is the end of the data; otherwise a trailing
+     *                   partial record is left for the next call
+     * @return position just after the last complete record
+     */
+    public int scan(ByteBuffer buf, int from, int limit, boolean endOfInput,
+                    CsvRecord rec, Consumer<CsvRecord> handler) {
+        int pos = from;
+        while (pos < limit) {
+            int next = scanRecord(buf, pos, limit, endOfInput, rec);
+            if (next < 0) break; // incomplete record, wait for more input
+            if (!rec.isBlank()) handler.accept(rec);
+            pos = next;
+        }
+        return pos;
+    }
+
+    /**
+     * Parse one record starting at pos into rec.
+     *
+     * @return position after the record terminator, or -1 if the record is incomplete
+     */
+    int scanRecord(ByteBuffer buf, int pos, int limit, boolean endOfInput, CsvRecord rec) {
+        rec.reset(buf);
+        int i = pos;
+
+        while (true) {
+            int start;
+            int end;
+            boolean hasEscapes = false;
+
+            if (i < limit && buf.get(i) == '"') {
+                // quoted field: runs to the closing quote that is not doubled
+                i++;
+                start = i;
+                while (true) {
+                    if (i >= limit) return incomplete(endOfInput, rec, start, limit);
+                    if (buf.get(i) == '"') {
+                        if (i + 1 < limit && buf.get(i + 1) == '"') {
+                            hasEscapes = true;
+                            i += 2;
+                            continue;
+                        }
+                        if (i + 1 >= limit && !endOfInput) return -1;
+                        end = i;
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                // tolerate stray bytes between the closing quote and the delimiter
+                while (i < limit) {
+                    byte c = buf.get(i);
+                    if (c == ',' || c == '\n' || c == '\r') break;
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit) {
+                    byte c = buf.get(i);
+                    if (c == ',' || c == '\n' || c == '\r') break;
+                    i++;
+                }
+                end = i;
+            }
+
+            if (i >= limit) {
+                if (!endOfInput) return -1;
+                rec.addField(start, end, hasEscapes);
+                return limit;
+            }
+
+            rec.addField(start, end, hasEscapes);
+
+            byte c = buf.get(i);
+            if (c == ',') {
+                i++;
+                if (i >= limit) {
+                    if (!endOfInput) return -1;
+                    rec.addField(i, i, false); // trailing empty field
+                    return limit;
+                }
+                continue;
+            }
+
+            // line terminator: LF or CRLF (a lone CR also ends the record)
+            i++;
+            if (c == '\r') {
+                if (i >= limit && !endOfInput) return -1;
+                if (i < limit && buf.get(i) == '\n') i++;
+            }
+            return i;
+        }
+    }
+
+    private int incomplete(boolean endOfInput, CsvRecord rec, int start, int limit) {
+        if (!endOfInput) return -1;
+        // unterminated quote at end of input: keep what we have
+        rec.addField(start, limit, false);
+        return limit;
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.payments.readers;
 
 import com.example.payments.engine.interfaces.DataReader;
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.engine.interfaces.RawRow;
 import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.IsoTimestampParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
@@ -10,15 +17,48 @@ import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
- * CSV reader using jackson-dataformat-csv.
- * Expects header row mapping to the CSV fields:
+ * CSV reader using jackson-dataformat-csv, or a hand-written byte scanner over a
+ * memory-mapped file when parameter parser is "mapped". With parallelism > 1 the
+ * file is split into record-aligned byte ranges parsed concurrently (see ParallelCsvParser);
+ * ordered=false lets rows arrive in chunk-completion order.
+ * With cache: true the parsed rows are kept as a binary snapshot (see SnapshotCache) in
+ * cache_dir (default .payments-cache next to the input) and later runs load that instead
+ * of reparsing, until the file changes; cache_max_mb bounds the directory (default 4096).
+ * Filters pushed down by the engine reject rows on the raw status/timestamp/amount fields
+ * before a Transaction is built, and columns outside the engine's projection are not decoded
+ * (neither with the cache on, whose snapshot must hold every row and field).
+ * path may also be a directory (every *.csv below it) or a glob such as
+ * data/dt=2025-11-0[1-7]/**.csv; its files are parsed on a pool of file_parallelism
+ * threads (default min(8, cores)) and handed on in path order, with per-file statistics.
+ * Files behind the one being handed on only run ahead by a few bounded batches of rows,
+ * so memory does not grow with partition size.
+ * Partition directories dt=YYYY-MM-DD[/hh=HH] (in partition_zone, default UTC) that a
+ * pushed-down DateRangeFilter rules out are skipped without being listed (see InputFiles).
+ * Files ending in .gz (also found as *.csv.gz under a directory) are inflated while being
+ * parsed (see GzipInput); for them parallelism inflates gzip members concurrently
+ * instead of splitting the file into byte ranges.
+ * Every file must start with the header row mapping to the CSV fields:
  * transactionId,timestamp,amount,paymentType,merchantId,merchantName,merchantCategory,customerId,location,status
  *
  * Note: this class may appear "unused" in the IDE because it's instantiated by reflection
@@ -28,89 +68,493 @@ import java.util.*;
 public class CsvReader implements DataReader {
     private String path;
     private String dateFormat; // optional: "ISO_OFFSET_DATE_TIME" (default) or "ISO_LOCAL_DATE_TIME" etc.
+    private boolean preferOffset;
+
+    private String parser;     // "jackson" (default) or "mapped" (hand-written scanner over a memory-mapped file)
+    private int parallelism = 1; // >1 (or "auto") parses byte ranges of the file concurrently
+    private boolean ordered = true;
+    private boolean cache;
+    private String cacheDir;
+    private long cacheMaxBytes = 4096L * 1024 * 1024;
+    private List<Filter> pushedDown = List.of();
+    private Projection projection = Projection.ALL;
+    private int fileParallelism = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private ZoneId partitionZone = ZoneOffset.UTC;
+
+    // mapped parser walks the file in windows of this size; a single record must fit in one window
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    // compressed input is scanned through a heap buffer of this size instead
+    private static final int STREAM_BUFFER = 4 * 1024 * 1024;
 
     @Override
     public void init(Map<String, Object> parameters) throws Exception {
         this.path = (String) parameters.getOrDefault("path", "src/main/resources/sample/transactions.csv");
         this.dateFormat = (String) parameters.getOrDefault("date_format", "ISO_OFFSET_DATE_TIME");
+        // Allow dateFormat parameter to change parsing behaviour if desired
+        this.preferOffset = "ISO_OFFSET_DATE_TIME".equalsIgnoreCase(this.dateFormat);
+        this.parser = String.valueOf(parameters.getOrDefault("parser", "jackson"));
+
+        Object p = parameters.get("parallelism");
+        if (p != null) {
+            String v = p.toString();
+            this.parallelism = "auto".equalsIgnoreCase(v) || "0".equals(v)
+                    ? Runtime.getRuntime().availableProcessors()
+                    : Integer.parseInt(v);
+        }
+        if (parameters.containsKey("ordered")) {
+            this.ordered = Boolean.parseBoolean(parameters.get("ordered").toString());
+        }
+        if (parameters.containsKey("cache")) {
+            this.cache = Boolean.parseBoolean(parameters.get("cache").toString());
+        }
+        if (parameters.containsKey("cache_dir")) {
+            this.cacheDir = parameters.get("cache_dir").toString();
+        }
+        if (parameters.containsKey("cache_max_mb")) {
+            try {
+                this.cacheMaxBytes = Long.parseLong(parameters.get("cache_max_mb").toString()) * 1024 * 1024;
+            } catch (Exception e) {
+                ErrorHandler.log("CsvReader-Init-cache_max_mb", e);
+            }
+        }
+        if (parameters.containsKey("file_parallelism")) {
+            try {
+                String v = parameters.get("file_parallelism").toString();
+                this.fileParallelism = "auto".equalsIgnoreCase(v) || "0".equals(v)
+                        ? Runtime.getRuntime().availableProcessors()
+                        : Math.max(1, Integer.parseInt(v));
+            } catch (Exception e) {
+                ErrorHandler.log("CsvReader-Init-file_parallelism", e);
+            }
+        }
+        if (parameters.containsKey("partition_zone")) {
+            try {
+                this.partitionZone = ZoneId.of(parameters.get("partition_zone").toString());
+            } catch (Exception e) {
+                ErrorHandler.log("CsvReader-Init-partition_zone", e);
+            }
+        }
+    }
+
+    @Override
+    public void pushDown(List<Filter> filters) {
+        this.pushedDown = filters == null ? List.of() : filters;
+    }
+
+    @Override
+    public void project(Set<TransactionField> fields) {
+        this.projection = new Projection(fields);
     }
 
     @Override
     public List<Transaction> readAll() throws Exception {
-        File csv = new File(path);
-        if (!csv.exists()) {
+        List<Transaction> out = new ArrayList<>();
+        read(out::add);
+        return out;
+    }
+
+    /**
+     * Streams rows straight from Jackson's MappingIterator, so only the current row
+     * is held in memory. With the cache on, rows come from (or are also written to)
+     * a columnar snapshot instead. Several input files are read concurrently and
+     * handed over in path order, a bounded batch of rows at a time.
+     */
+    @Override
+    public void read(Consumer<Transaction> sink) throws Exception {
+        PushDownFilters filters = cache ? PushDownFilters.NONE : new PushDownFilters(pushedDown);
+        Projection projection = cache ? Projection.ALL : this.projection;
+
+        List<Path> files = inputFiles();
+        if (files.size() == 1) readFile(files.get(0).toFile(), sink, filters, projection, true);
+        else readFiles(files, sink, filters, projection);
+
+        filters.printCounts("CsvReader");
+        projection.printSavings("CsvReader");
+    }
+
+    /**
+     * Columnar mode: a cache hit loads the snapshot straight into the store.
+     */
+    @Override
+    public void readInto(ColumnarTransactionStore store) throws Exception {
+        List<Path> files = cache && store.size() == 0 ? inputFiles() : null;
+        if (files == null || files.size() != 1) {
+            DataReader.super.readInto(store);
+            return;
+        }
+
+        File csv = files.get(0).toFile();
+        SnapshotCache.Fingerprint fp = fingerprint(csv);
+        if (fp != null && snapshotCache(csv).load(fp, store)) return;
+        parse(csv, store::add, PushDownFilters.NONE, Projection.ALL, true);
+        if (fp != null) snapshotCache(csv).save(fp, store);
+    }
+
+    /**
+     * The file, directory or glob in path, minus partitions the pushed-down filters rule out.
+     * Pruning applies with the cache on too: it drops whole files and snapshots are per file.
+     */
+    private List<Path> inputFiles() throws IOException {
+        InputFiles input = InputFiles.resolve(path, List.of(".csv", ".csv.gz"), pushedDown, partitionZone);
+        if (input.files().isEmpty() && input.prunedPartitions() == 0) {
             throw new IllegalArgumentException("CSV not found: " + path);
         }
+        if (!new File(path).isFile()) {
+            System.out.println("CsvReader: " + input.files().size() + " files under " + path
+                    + ", pruned " + input.prunedPartitions() + " partitions by date range");
+        }
+        return input.files();
+    }
+
+    /**
+     * One file; with the cache on, through its snapshot. splitFile allows the parallel
+     * byte-range parser (off when files are already read concurrently).
+     */
+    private void readFile(File csv, Consumer<Transaction> sink, PushDownFilters filters, Projection projection,
+                          boolean splitFile) throws Exception {
+        if (!cache) {
+            parse(csv, sink, filters, projection, splitFile);
+            return;
+        }
+
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        SnapshotCache.Fingerprint fp = fingerprint(csv);
+        if (fp != null && snapshotCache(csv).load(fp, store)) {
+            for (int row = 0; row < store.size(); row++) sink.accept(store.get(row));
+            return;
+        }
+        parse(csv, t -> {
+            store.add(t);
+            sink.accept(t);
+        }, PushDownFilters.NONE, Projection.ALL, splitFile);
+        if (fp != null) snapshotCache(csv).save(fp, store);
+    }
+
+    /**
+     * Rows of one file, handed from the pool thread parsing it to the reading thread in
+     * batches through a bounded queue, so a file runs at most QUEUED batches ahead.
+     */
+    private static final class FileRead {
+        static final int BATCH = 1024;
+        static final int QUEUED = 4;
+        static final List<Transaction> END = new ArrayList<>(0);
+
+        final Path file;
+        final BlockingQueue<List<Transaction>> batches = new ArrayBlockingQueue<>(QUEUED);
+        private List<Transaction> batch = new ArrayList<>(BATCH);
+        volatile Exception failure;
+        volatile long nanos;
+
+        FileRead(Path file) {
+            this.file = file;
+        }
+
+        void add(Transaction t) {
+            batch.add(t);
+            if (batch.size() == BATCH) {
+                put(batch);
+                batch = new ArrayList<>(BATCH);
+            }
+        }
+
+        /** Hand on the last partial batch, then END; after a failure only END. */
+        void finish() {
+            if (failure == null && !batch.isEmpty()) put(batch);
+            put(END);
+        }
+
+        private void put(List<Transaction> rows) {
+            try {
+                batches.put(rows);
+            } catch (InterruptedException e) {
+                // the reading thread gave up (pool shut down); stop parsing this file
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Read of " + file + " cancelled");
+            }
+        }
+    }
+
+    /**
+     * Parse files on a pool of file_parallelism threads, at most twice that many files in
+     * flight; each file's rows go to the sink on the calling thread, in path order. A file
+     * that fails is logged; rows it handed on before failing have already reached the sink.
+     */
+    private void readFiles(List<Path> files, Consumer<Transaction> sink, PushDownFilters filters, Projection projection)
+            throws InterruptedException {
+        int threads = Math.max(1, Math.min(fileParallelism, files.size()));
+        // FIFO, so the file being handed on is always one that has started
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "csv-file-reader");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        long rows = 0, bytes = 0;
+        int failed = 0;
+        try {
+            Deque<FileRead> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < files.size() || !inFlight.isEmpty()) {
+                while (next < files.size() && inFlight.size() < threads * 2) {
+                    FileRead read = new FileRead(files.get(next++));
+                    inFlight.add(read);
+                    pool.execute(() -> {
+                        long t0 = System.nanoTime();
+                        try {
+                            readFile(read.file.toFile(), read::add, filters, projection, false);
+                        } catch (CancellationException e) {
+                            return;
+                        } catch (Exception e) {
+                            read.failure = e;
+                        } catch (Error e) {
+                            read.failure = new RuntimeException(e); // still end the queue below
+                        }
+                        read.nanos = System.nanoTime() - t0;
+                        try {
+                            read.finish();
+                        } catch (CancellationException ignored) {
+                            // reader gone
+                        }
+                    });
+                }
+
+                FileRead read = inFlight.poll();
+                long fileRows = 0;
+                for (List<Transaction> batch; (batch = read.batches.take()) != FileRead.END; ) {
+                    for (Transaction t : batch) sink.accept(t);
+                    fileRows += batch.size();
+                }
+                rows += fileRows;
+                if (read.failure != null) {
+                    ErrorHandler.log("CsvReader-ReadFile-" + read.file, read.failure);
+                    failed++;
+                    continue;
+                }
+
+                long size = read.file.toFile().length();
+                bytes += size;
+                System.out.printf("CsvReader: %s: %d rows, %d bytes in %.1f ms%n",
+                        read.file, fileRows, size, read.nanos / 1e6);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.printf("CsvReader: read %d files (%d failed) with %d threads: %d rows, %d bytes in %.2fs%n",
+                files.size() - failed, failed, threads, rows, bytes, (System.nanoTime() - start) / 1e9);
+    }
+
+    private SnapshotCache snapshotCache(File csv) {
+        Path dir = cacheDir != null
+                ? Path.of(cacheDir)
+                : csv.getAbsoluteFile().toPath().getParent().resolve(".payments-cache");
+        return new SnapshotCache(dir, cacheMaxBytes);
+    }
+
+    /** Input identity plus the settings that change how rows are parsed; null disables caching. */
+    private SnapshotCache.Fingerprint fingerprint(File csv) {
+        String scanner = parallelism > 1 || "mapped".equalsIgnoreCase(parser) ? "mapped" : "jackson";
+        String options = "csv;" + scanner + ";preferOffset=" + preferOffset + ";zone=" + ZoneId.systemDefault();
+        try {
+            return SnapshotCache.fingerprint(csv.toPath(), options);
+        } catch (Exception e) {
+            ErrorHandler.log("CsvReader-Cache-Fingerprint", e);
+            return null;
+        }
+    }
+
+    private void parse(File csv, Consumer<Transaction> sink, PushDownFilters filters, Projection projection,
+                       boolean splitFile) throws Exception {
+        if (!projection.isAll()) {
+            Consumer<Transaction> downstream = sink;
+            sink = t -> {
+                projection.rows(1);
+                downstream.accept(t);
+            };
+        }
+
+        boolean gzip = GzipInput.isGzip(csv);
+        int inflateThreads = splitFile ? parallelism : 1;
+        if (parallelism > 1 && splitFile && !gzip) {
+            // parallel mode always uses the byte-level scanner
+            new ParallelCsvParser(parallelism, ordered, preferOffset, filters, projection).read(csv, sink);
+            return;
+        }
+
+        if (parallelism > 1 || "mapped".equalsIgnoreCase(parser)) {
+            readMapped(csv, sink, filters, projection, gzip ? inflateThreads : 0);
+            return;
+        }
 
         CsvMapper mapper = new CsvMapper();
         CsvSchema schema = CsvSchema.emptySchema().withHeader();
 
-        // Use a TypeReference so Jackson preserves generics (List<Map<String,String>>),
+        // Use a TypeReference so Jackson preserves generics (Map<String,String>),
         // and use try-with-resources to close the MappingIterator.
         TypeReference<Map<String, String>> typeRef = new TypeReference<>() { };
+        MapRawRow raw = new MapRawRow();
 
-        List<Map<String, String>> rows = new ArrayList<>();
-        try (MappingIterator<Map<String, String>> it = mapper
+        try (InputStream in = gzip ? GzipInput.open(csv, inflateThreads) : new FileInputStream(csv);
+             MappingIterator<Map<String, String>> it = mapper
                 .readerFor(typeRef)
                 .with(schema)
-                .readValues(csv)) {
-            // MappingIterator.readAll() will return a List<Map<String,String>>
-            rows = it.readAll();
+                .readValues(in)) {
+            while (it.hasNextValue()) {
+                Map<String, String> row = it.nextValue();
+                raw.of(row);
+                if (!filters.isEmpty() && !filters.test(raw)) continue;
+                sink.accept(raw.toTransaction(projection));
+            }
         } catch (IOException e) {
             throw new RuntimeException("Failed to read CSV: " + csv.getAbsolutePath(), e);
         }
+    }
 
-        List<Transaction> out = new ArrayList<>();
-        DateTimeFormatter isoOffset = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
-        DateTimeFormatter isoLocal  = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    /**
+     * Zero-copy path: memory-maps the file window by window and scans bytes directly,
+     * building transactions from field offsets without intermediate maps. With inflateThreads
+     * above zero (a .gz input) the inflated stream is scanned instead (see GzipInput).
+     */
+    private void readMapped(File csv, Consumer<Transaction> sink, PushDownFilters filters, Projection projection,
+                            int inflateThreads) throws IOException {
+        CsvByteScanner scanner = new CsvByteScanner();
+        CsvRecord rec = new CsvRecord();
+        CsvTransactionMapper mapper = new CsvTransactionMapper(preferOffset, projection);
+        boolean[] headerSeen = new boolean[1];
 
-        // Allow dateFormat parameter to change parsing behaviour if desired
-        boolean preferOffset = "ISO_OFFSET_DATE_TIME".equalsIgnoreCase(this.dateFormat);
+        Consumer<CsvRecord> handler = r -> {
+            if (!headerSeen[0]) {
+                mapper.bindHeader(r);
+                headerSeen[0] = true;
+                return;
+            }
+            if (!filters.isEmpty() && !filters.test(mapper.raw(r))) return;
+            sink.accept(mapper.toTransaction(r));
+        };
 
-        for (Map<String, String> r : rows) {
-            Transaction t = new Transaction();
-            // Support both new header names and previous names for backward compatibility
-            t.setId(r.getOrDefault("transactionId", r.get("id")));
-            t.setMerchantId(r.get("merchantId"));
-            t.setMerchantName(r.get("merchantName"));
-            t.setMerchantCategory(r.get("merchantCategory"));
-
-            String amt = r.get("amount");
-            t.setAmount(amt == null || amt.isBlank() ? BigDecimal.ZERO : new BigDecimal(amt));
-            t.setCurrency(r.getOrDefault("currency", "INR"));
-            t.setStatus(r.get("status"));
-
-            String ts = r.get("timestamp");
-            if (ts != null && !ts.isBlank()) {
-                // Try OffsetDateTime first (if data has offset), otherwise parse LocalDateTime and convert
-                if (preferOffset) {
-                    try {
-                        t.setTimestamp(OffsetDateTime.parse(ts, isoOffset));
-                    } catch (Exception ex) {
-                        // fallback to local parse
-                        LocalDateTime ldt = LocalDateTime.parse(ts, isoLocal);
-                        ZoneId zone = ZoneId.systemDefault();
-                        t.setTimestamp(ldt.atZone(zone).toOffsetDateTime());
-                    }
-                } else {
-                    try {
-                        LocalDateTime ldt = LocalDateTime.parse(ts, isoLocal);
-                        ZoneId zone = ZoneId.systemDefault();
-                        t.setTimestamp(ldt.atZone(zone).toOffsetDateTime());
-                    } catch (Exception ex) {
-                        // fallback to parsing with offset if present
-                        t.setTimestamp(OffsetDateTime.parse(ts, isoOffset));
-                    }
+        if (inflateThreads > 0) {
+            try (InputStream in = GzipInput.open(csv, inflateThreads)) {
+                scanStream(in, csv, scanner, rec, handler);
+            }
+            return;
+        }
+
+        try (FileChannel ch = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = 0;
+            while (pos < size) {
+                long len = Math.min(MAP_WINDOW, size - pos);
+                boolean last = pos + len == size;
+                MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+
+                int consumed = scanner.scan(window, 0, (int) len, last, rec, handler);
+                if (consumed == 0 && !last) {
+                    throw new IOException("CSV record larger than map window at offset " + pos + ": " + csv.getAbsolutePath());
                 }
+                pos += consumed;
             }
+        }
+    }
 
-            t.setPaymentType(r.get("paymentType")); // UPI/CARD/NETBANKING/WALLET
-            t.setLocation(r.get("location"));
-            t.setCustomerId(r.get("customerId"));
+    /**
+     * Scan a stream through a heap buffer that grows (up to MAP_WINDOW) to hold the longest record.
+     */
+    private static void scanStream(InputStream in, File csv, CsvByteScanner scanner, CsvRecord rec,
+                                   Consumer<CsvRecord> handler) throws IOException {
+        byte[] buf = new byte[STREAM_BUFFER];
+        int filled = 0;
+        while (true) {
+            filled += in.readNBytes(buf, filled, buf.length - filled);
+            boolean last = filled < buf.length;
+            int consumed = scanner.scan(ByteBuffer.wrap(buf), 0, filled, last, rec, handler);
+            if (last) return;
 
-            out.add(t);
+            if (consumed == 0) {
+                if (buf.length >= MAP_WINDOW) throw new IOException("CSV record larger than " + MAP_WINDOW + " bytes: " + csv.getAbsolutePath());
+                buf = Arrays.copyOf(buf, buf.length * 2);
+                continue;
+            }
+            System.arraycopy(buf, consumed, buf, 0, filled - consumed);
+            filled -= consumed;
         }
+    }
 
-        return out;
+    /**
+     * A Jackson row map as a RawRow and as a Transaction, with scratch parsers for one
+     * parse() call (files may be parsed concurrently).
+     */
+    private final class MapRawRow implements RawRow {
+        private final FixedPoint fixedPoint = new FixedPoint();
+        private final IsoTimestampParser timestamps = new IsoTimestampParser(ZoneId.systemDefault());
+        private Map<String, String> row;
+
+        MapRawRow of(Map<String, String> row) {
+            this.row = row;
+            return this;
+        }
+
+        /**
+         * Fields outside the projection are left unset (amount zero, currency INR), like
+         * CsvTransactionMapper with an unbound column.
+         */
+        Transaction toTransaction(Projection projection) {
+            Map<String, String> r = row;
+            Transaction t = new Transaction();
+            // Support both new header names and previous names for backward compatibility
+            if (projection.has(TransactionField.ID)) t.setId(r.getOrDefault("transactionId", r.get("id")));
+            if (projection.has(TransactionField.MERCHANT_ID)) t.setMerchantId(r.get("merchantId"));
+            if (projection.has(TransactionField.MERCHANT_NAME)) t.setMerchantName(r.get("merchantName"));
+            if (projection.has(TransactionField.MERCHANT_CATEGORY)) t.setMerchantCategory(r.get("merchantCategory"));
+
+            String amt = projection.has(TransactionField.AMOUNT) ? r.get("amount") : null;
+            if (amt != null && fixedPoint.parse(amt)) t.setAmount(fixedPoint.unscaled(), fixedPoint.scale());
+            else t.setAmount(amt == null || amt.isBlank() ? BigDecimal.ZERO : new BigDecimal(amt));
+            t.setCurrency(projection.has(TransactionField.CURRENCY) ? r.getOrDefault("currency", "INR") : "INR");
+            if (projection.has(TransactionField.STATUS)) t.setStatus(r.get("status"));
+
+            String ts = projection.has(TransactionField.TIMESTAMP) ? r.get("timestamp") : null;
+            if (ts != null && timestamps.parse(ts)) t.setTimestamp(timestamps.toOffsetDateTime());
+            else if (ts != null && !ts.isBlank()) t.setTimestamp(CsvTransactionMapper.parseTimestamp(ts, preferOffset));
+
+            if (projection.has(TransactionField.PAYMENT_TYPE)) t.setPaymentType(r.get("paymentType")); // UPI/CARD/NETBANKING/WALLET
+            if (projection.has(TransactionField.LOCATION)) t.setLocation(r.get("location"));
+            if (projection.has(TransactionField.CUSTOMER_ID)) t.setCustomerId(r.get("customerId"));
+            return t;
+        }
+
+        @Override
+        public boolean statusIn(Collection<String> values) {
+            String status = row.get("status");
+            return status != null && values.contains(status);
+        }
+
+        @Override
+        public boolean timestampMissing() {
+            String ts = row.get("timestamp");
+            return ts == null || ts.isBlank();
+        }
+
+        @Override
+        public boolean parseTimestamp() {
+            String ts = row.get("timestamp");
+            return ts != null && timestamps.parse(ts);
+        }
+
+        @Override
+        public long epochNanos() { return timestamps.epochNanos(); }
+
+        @Override
+        public OffsetDateTime timestamp() { return timestamps.toOffsetDateTime(); }
+
+        @Override
+        public boolean parseAmount() {
+            String amt = row.get("amount");
+            return amt == null || amt.isBlank() ? fixedPoint.parse("0") : fixedPoint.parse(amt);
+        }
+
+        @Override
+        public long amountUnscaled() { return fixedPoint.unscaled(); }
+
+        @Override
+        public int amountScale() { return fixedPoint.scale(); }
     }
-}
\ No newline at end of file
+}
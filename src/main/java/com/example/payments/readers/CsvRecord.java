@@ -0,0 +1,120 @@
+package com.example.payments.readers;
+
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.IsoTimestampParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable view over one CSV record inside a byte buffer.
+ * Holds only field offsets; text is decoded on request, so a record that is
+ * skipped never allocates a String.
+ */
+public class CsvRecord {
+
+    private ByteBuffer buf;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16]; // field contains doubled quotes ("")
+    private int count;
+    private byte[] scratch = new byte[256];
+
+    void reset(ByteBuffer buf) {
+        this.buf = buf;
+        this.count = 0;
+    }
+
+    void addField(int start, int end, boolean hasEscapes) {
+        if (count == starts.length) {
+            int n = count * 2;
+            starts = Arrays.copyOf(starts, n);
+            ends = Arrays.copyOf(ends, n);
+            escaped = Arrays.copyOf(escaped, n);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count] = hasEscapes;
+        count++;
+    }
+
+    public int fieldCount() { return count; }
+
+    /**
+     * True for a record that is a single empty field (blank line).
+     */
+    public boolean isBlank() {
+        return count == 0 || (count == 1 && ends[0] == starts[0]);
+    }
+
+    /**
+     * Decode a field as UTF-8 text. Returns null when the column is absent from this record.
+     */
+    public String text(int col) {
+        if (col < 0 || col >= count) return null;
+        int len = ends[col] - starts[col];
+        if (len == 0) return "";
+
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        buf.get(starts[col], scratch, 0, len);
+
+        if (escaped[col]) {
+            // collapse "" -> "
+            int w = 0;
+            for (int r = 0; r < len; r++) {
+                byte b = scratch[r];
+                scratch[w++] = b;
+                if (b == '"' && r + 1 < len && scratch[r + 1] == '"') r++;
+            }
+            len = w;
+        }
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * True when the column is absent from this record or holds only spaces and tabs.
+     */
+    public boolean isBlank(int col) {
+        if (col < 0 || col >= count) return true;
+        for (int i = starts[col]; i < ends[col]; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t') return false;
+        }
+        return true;
+    }
+
+    /**
+     * True when the field's text equals the given UTF-8 bytes; compared without decoding
+     * unless the field has escaped quotes. False when the column is absent.
+     */
+    public boolean textEquals(int col, byte[] utf8) {
+        if (col < 0 || col >= count) return false;
+        if (escaped[col]) return Arrays.equals(text(col).getBytes(StandardCharsets.UTF_8), utf8);
+
+        int len = ends[col] - starts[col];
+        if (len != utf8.length) return false;
+        for (int i = 0; i < len; i++) {
+            if (buf.get(starts[col] + i) != utf8[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a field as a plain decimal straight from the bytes.
+     * Returns false when the column is absent/empty or not a plain decimal.
+     */
+    public boolean decimal(int col, FixedPoint out) {
+        if (col < 0 || col >= count || escaped[col]) return false;
+        return out.parse(buf, starts[col], ends[col]);
+    }
+
+    /**
+     * Parse a field as an ISO timestamp straight from the bytes.
+     * Returns false when the column is absent/empty or not a form the parser accepts.
+     */
+    public boolean timestamp(int col, IsoTimestampParser out) {
+        if (col < 0 || col >= count || escaped[col]) return false;
+        return out.parse(buf, starts[col], ends[col]);
+    }
+}
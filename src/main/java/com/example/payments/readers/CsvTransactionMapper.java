@@ -0,0 +1,228 @@
+package com.example.payments.readers;
+
+import com.example.payments.engine.interfaces.RawRow;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.IsoTimestampParser;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+/**
+ * Binds CSV header columns to Transaction fields once per file, then builds
+ * transactions straight from {@link CsvRecord} field offsets (no per-row Map).
+ * Mirrors the column handling of the Jackson path in CsvReader. Columns outside the
+ * projection are not bound, so their fields are never decoded.
+ * Not thread-safe: use copy() for each parsing thread.
+ */
+public class CsvTransactionMapper {
+
+    private static final DateTimeFormatter ISO_OFFSET = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final DateTimeFormatter ISO_LOCAL  = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final boolean preferOffset;
+    private final Projection projection;
+    private final FixedPoint fixedPoint = new FixedPoint(); // reused per row
+    private final IsoTimestampParser timestamps = new IsoTimestampParser(ZoneId.systemDefault());
+
+    private int colId = -1;
+    private int colLegacyId = -1;
+    private int colTimestamp = -1;
+    private int colAmount = -1;
+    private int colPaymentType = -1;
+    private int colMerchantId = -1;
+    private int colMerchantName = -1;
+    private int colMerchantCategory = -1;
+    private int colCustomerId = -1;
+    private int colLocation = -1;
+    private int colStatus = -1;
+    private int colCurrency = -1;
+
+    private Raw raw;
+
+    public CsvTransactionMapper(boolean preferOffset) {
+        this(preferOffset, Projection.ALL);
+    }
+
+    public CsvTransactionMapper(boolean preferOffset, Projection projection) {
+        this.preferOffset = preferOffset;
+        this.projection = projection;
+    }
+
+    /**
+     * A mapper with the same column bindings and its own scratch state, for another parsing thread.
+     */
+    public CsvTransactionMapper copy() {
+        CsvTransactionMapper m = new CsvTransactionMapper(preferOffset, projection);
+        m.colId = colId;
+        m.colLegacyId = colLegacyId;
+        m.colTimestamp = colTimestamp;
+        m.colAmount = colAmount;
+        m.colPaymentType = colPaymentType;
+        m.colMerchantId = colMerchantId;
+        m.colMerchantName = colMerchantName;
+        m.colMerchantCategory = colMerchantCategory;
+        m.colCustomerId = colCustomerId;
+        m.colLocation = colLocation;
+        m.colStatus = colStatus;
+        m.colCurrency = colCurrency;
+        return m;
+    }
+
+    /**
+     * Resolve column positions from the header record.
+     */
+    public void bindHeader(CsvRecord header) {
+        for (int i = 0; i < header.fieldCount(); i++) {
+            String name = header.text(i);
+            if (name == null) continue;
+            // strip a UTF-8 BOM on the first column name
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') name = name.substring(1);
+
+            switch (name) {
+                case "transactionId" -> colId = bind(TransactionField.ID, i);
+                case "id" -> colLegacyId = bind(TransactionField.ID, i);
+                case "timestamp" -> colTimestamp = bind(TransactionField.TIMESTAMP, i);
+                case "amount" -> colAmount = bind(TransactionField.AMOUNT, i);
+                case "paymentType" -> colPaymentType = bind(TransactionField.PAYMENT_TYPE, i);
+                case "merchantId" -> colMerchantId = bind(TransactionField.MERCHANT_ID, i);
+                case "merchantName" -> colMerchantName = bind(TransactionField.MERCHANT_NAME, i);
+                case "merchantCategory" -> colMerchantCategory = bind(TransactionField.MERCHANT_CATEGORY, i);
+                case "customerId" -> colCustomerId = bind(TransactionField.CUSTOMER_ID, i);
+                case "location" -> colLocation = bind(TransactionField.LOCATION, i);
+                case "status" -> colStatus = bind(TransactionField.STATUS, i);
+                case "currency" -> colCurrency = bind(TransactionField.CURRENCY, i);
+                default -> { /* unknown column, ignored */ }
+            }
+        }
+    }
+
+    private int bind(TransactionField field, int col) {
+        return projection.has(field) ? col : -1;
+    }
+
+    public Transaction toTransaction(CsvRecord r) {
+        Transaction t = new Transaction();
+        // Support both new header names and previous names for backward compatibility
+        t.setId(colId >= 0 ? r.text(colId) : r.text(colLegacyId));
+        t.setMerchantId(r.text(colMerchantId));
+        t.setMerchantName(r.text(colMerchantName));
+        t.setMerchantCategory(r.text(colMerchantCategory));
+
+        if (r.decimal(colAmount, fixedPoint)) {
+            t.setAmount(fixedPoint.unscaled(), fixedPoint.scale());
+        } else {
+            String amt = r.text(colAmount);
+            t.setAmount(amt == null || amt.isBlank() ? BigDecimal.ZERO : new BigDecimal(amt));
+        }
+
+        String currency = r.text(colCurrency);
+        t.setCurrency(currency == null ? "INR" : currency);
+        t.setStatus(r.text(colStatus));
+
+        if (r.timestamp(colTimestamp, timestamps)) {
+            t.setTimestamp(timestamps.toOffsetDateTime());
+        } else {
+            String ts = r.text(colTimestamp);
+            if (ts != null && !ts.isBlank()) t.setTimestamp(parseTimestamp(ts, preferOffset));
+        }
+
+        t.setPaymentType(r.text(colPaymentType)); // UPI/CARD/NETBANKING/WALLET
+        t.setLocation(r.text(colLocation));
+        t.setCustomerId(r.text(colCustomerId));
+        return t;
+    }
+
+    /**
+     * The record as a RawRow for pushed-down filters; reused, valid until the next call.
+     */
+    public RawRow raw(CsvRecord r) {
+        if (raw == null) raw = new Raw();
+        raw.record = r;
+        return raw;
+    }
+
+    /**
+     * Reads status, timestamp and amount from the record bytes with the rules of toTransaction().
+     */
+    private final class Raw implements RawRow {
+        private CsvRecord record;
+        private Collection<String> encodedFor;
+        private byte[][] encoded = new byte[0][];
+
+        @Override
+        public boolean statusIn(Collection<String> values) {
+            if (values != encodedFor) {
+                encoded = new byte[values.size()][];
+                int i = 0;
+                for (String v : values) encoded[i++] = v.getBytes(StandardCharsets.UTF_8);
+                encodedFor = values;
+            }
+            for (byte[] v : encoded) {
+                if (record.textEquals(colStatus, v)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean timestampMissing() {
+            return record.isBlank(colTimestamp);
+        }
+
+        @Override
+        public boolean parseTimestamp() {
+            return record.timestamp(colTimestamp, timestamps);
+        }
+
+        @Override
+        public long epochNanos() { return timestamps.epochNanos(); }
+
+        @Override
+        public OffsetDateTime timestamp() { return timestamps.toOffsetDateTime(); }
+
+        @Override
+        public boolean parseAmount() {
+            if (record.decimal(colAmount, fixedPoint)) return true;
+            return record.isBlank(colAmount) && fixedPoint.parse("0");
+        }
+
+        @Override
+        public long amountUnscaled() { return fixedPoint.unscaled(); }
+
+        @Override
+        public int amountScale() { return fixedPoint.scale(); }
+    }
+
+    /**
+     * Parse an ISO timestamp, preferring offset or local form per date_format.
+     * Local timestamps are converted with the system default zone.
+     * Slow path for values {@link IsoTimestampParser} does not accept.
+     */
+    static OffsetDateTime parseTimestamp(String ts, boolean preferOffset) {
+        // Try OffsetDateTime first (if data has offset), otherwise parse LocalDateTime and convert
+        if (preferOffset) {
+            try {
+                return OffsetDateTime.parse(ts, ISO_OFFSET);
+            } catch (Exception ex) {
+                // fallback to local parse
+                LocalDateTime ldt = LocalDateTime.parse(ts, ISO_LOCAL);
+                ZoneId zone = ZoneId.systemDefault();
+                return ldt.atZone(zone).toOffsetDateTime();
+            }
+        }
+        try {
+            LocalDateTime ldt = LocalDateTime.parse(ts, ISO_LOCAL);
+            ZoneId zone = ZoneId.systemDefault();
+            return ldt.atZone(zone).toOffsetDateTime();
+        } catch (Exception ex) {
+            // fallback to parsing with offset if present
+            return OffsetDateTime.parse(ts, ISO_OFFSET);
+        }
+    }
+}
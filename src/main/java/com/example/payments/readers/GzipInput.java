@@ -0,0 +1,527 @@
+package com.example.payments.readers;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Streaming input for .gz files, read as the uncompressed bytes without a temporary file.
+ *
+ * With parallelism 1 this is a plain GZIPInputStream on the reading thread. Otherwise
+ * inflation runs on a background thread a few blocks ahead of the reader, member by member
+ * (e.g. concatenated hourly dumps), and members further on are inflated in advance on a pool
+ * of parallelism - 1 threads and handed on in file order.
+ *
+ * The member being read is always inflated incrementally, so a single-member file streams
+ * from its first block. Later members are found by scanning a bounded window of compressed
+ * bytes ahead of it for gzip headers; a match inside compressed data fails its inflate or
+ * CRC check, or lies inside the member being read, and is dropped, since only the offset
+ * where one member ends is taken as the start of the next. Members inflated in advance
+ * share a budget of inflated bytes (a quarter of the heap, at most IN_FLIGHT_BYTES); their
+ * buffers start at the size in the gzip trailer before the next match, or small and grow,
+ * and one that would overrun the budget is given up and inflated when it is reached.
+ * Corrupt members and trailing garbage are handled as by GZIPInputStream.
+ */
+public final class GzipInput {
+
+    private static final int CHUNK = 64 * 1024;
+    private static final int READ_AHEAD_BLOCK = 1024 * 1024;
+    private static final int SCAN_WINDOW = 1024 * 1024;
+    private static final long SCAN_AHEAD = 32L * 1024 * 1024;       // compressed bytes scanned past the current member's start
+    private static final long IN_FLIGHT_BYTES = 256L * 1024 * 1024; // inflated bytes held by members read in advance
+    private static final int MAX_BUFFER = Integer.MAX_VALUE - 8;
+    private static final int HEADER = 10;
+    private static final int FHCRC = 2, FEXTRA = 4, FNAME = 8, FCOMMENT = 16;
+
+    private GzipInput() {}
+
+    public static boolean isGzip(File file) {
+        return file.getName().toLowerCase().endsWith(".gz");
+    }
+
+    /**
+     * The uncompressed content of a gzip file; see the class comment for parallelism.
+     */
+    public static InputStream open(File file, int parallelism) throws IOException {
+        if (parallelism <= 1) return new GZIPInputStream(new FileInputStream(file), CHUNK);
+        return new ReadAhead(new MemberStream(file, parallelism));
+    }
+
+    private static boolean looksLikeHeader(byte[] b, int i) {
+        int xfl = b[i + 8] & 0xff, os = b[i + 9] & 0xff;
+        return b[i] == 0x1f && (b[i + 1] & 0xff) == 0x8b && b[i + 2] == 8 && (b[i + 3] & 0xe0) == 0
+                && (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+    }
+
+    /**
+     * One member inflated incrementally from its header: read() returns -1 once the
+     * deflate data has ended and the trailer's CRC and length match.
+     */
+    static final class MemberInflater implements AutoCloseable {
+        private final long start;
+        private final Source in;
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+        private long length;
+        private long end = -1;
+
+        /** Reads the header at start; throws if there is none. */
+        MemberInflater(FileChannel ch, long start) throws IOException {
+            this.start = start;
+            this.in = new Source(ch, start);
+            try {
+                CRC32 header = new CRC32();
+                if (in.read(header) != 0x1f || in.read(header) != 0x8b || in.read(header) != 8) {
+                    throw new ZipException("Not in GZIP format");
+                }
+                int flags = in.read(header);
+                for (int i = 0; i < 6; i++) in.read(header); // mtime, xfl, os
+                if ((flags & FEXTRA) != 0) {
+                    int n = in.read(header) | in.read(header) << 8;
+                    for (int i = 0; i < n; i++) in.read(header);
+                }
+                if ((flags & FNAME) != 0) while (in.read(header) != 0) { }
+                if ((flags & FCOMMENT) != 0) while (in.read(header) != 0) { }
+                if ((flags & FHCRC) != 0 && (in.read() | in.read() << 8) != (header.getValue() & 0xffff)) {
+                    throw new ZipException("Corrupt GZIP header");
+                }
+            } catch (IOException e) {
+                inflater.end();
+                throw e;
+            }
+        }
+
+        int read(byte[] b, int off, int len) throws IOException {
+            if (end >= 0) return -1;
+            if (len == 0) return 0;
+            try {
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) in.feed(inflater);
+                    int k = inflater.inflate(b, off, len);
+                    if (k > 0) {
+                        crc.update(b, off, k);
+                        length += k;
+                        return k;
+                    }
+                    if (inflater.needsDictionary()) throw new ZipException("Gzip member at " + start + " needs a dictionary");
+                }
+            } catch (DataFormatException e) {
+                throw new ZipException("Corrupt gzip member at " + start + ": " + e.getMessage());
+            }
+
+            in.unread(inflater.getRemaining());
+            long expectedCrc = in.read() | in.read() << 8 | in.read() << 16 | (long) in.read() << 24;
+            long expectedSize = in.read() | in.read() << 8 | in.read() << 16 | (long) in.read() << 24;
+            if (expectedCrc != crc.getValue() || expectedSize != (length & 0xffffffffL)) {
+                throw new ZipException("Gzip member at " + start + " fails its CRC or length check");
+            }
+            end = in.position();
+            return -1;
+        }
+
+        /** Offset just past the trailer, once read() has returned -1. */
+        long end() {
+            return end;
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+    }
+
+    /** Buffered positional reads from a channel shared by several threads. */
+    private static final class Source {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        private long pos;
+
+        Source(FileChannel ch, long pos) {
+            this.ch = ch;
+            this.pos = pos;
+            buf.limit(0);
+        }
+
+        private void fill() throws IOException {
+            buf.clear();
+            int r = ch.read(buf, pos);
+            buf.flip();
+            if (r <= 0) throw new EOFException("Unexpected end of gzip input at " + pos);
+            pos += r;
+        }
+
+        int read() throws IOException {
+            if (!buf.hasRemaining()) fill();
+            return buf.get() & 0xff;
+        }
+
+        /** read(), also adding the byte to crc. */
+        int read(CRC32 crc) throws IOException {
+            int b = read();
+            crc.update(b);
+            return b;
+        }
+
+        /** Hand all buffered bytes to the inflater. */
+        void feed(Inflater inflater) throws IOException {
+            if (!buf.hasRemaining()) fill();
+            inflater.setInput(buf.array(), buf.position(), buf.remaining());
+            buf.position(buf.limit());
+        }
+
+        /** Take back the last n bytes fed (the inflater did not use them). */
+        void unread(int n) {
+            buf.position(buf.position() - n);
+        }
+
+        long position() {
+            return pos - buf.remaining();
+        }
+    }
+
+    /** A member inflated in advance, holding reserved bytes of the budget until released. */
+    private static final class Member {
+        final long end;
+        final byte[] data;
+        final int length;
+        final long reserved;
+
+        Member(long end, byte[] data, int length, long reserved) {
+            this.end = end;
+            this.data = data;
+            this.length = length;
+            this.reserved = reserved;
+        }
+    }
+
+    /**
+     * Members in file order: the one at next is read from a finished advance inflation or
+     * inflated incrementally; members found ahead of it are inflated on the pool.
+     */
+    private static final class MemberStream extends InputStream {
+        private final File file;
+        private final FileChannel ch;
+        private final long size;
+        private final int threads;
+        private final ForkJoinPool pool;
+        private final AtomicLong budget;
+
+        private final TreeMap<Long, Advance> pending = new TreeMap<>();
+        private final ArrayDeque<Long> found = new ArrayDeque<>(); // header matches not yet submitted
+        private long scanned;                                      // matches below this offset are known
+
+        private volatile long next;      // offset of the member being read
+        private Member current;
+        private int pos;
+        private MemberInflater streaming;
+        private int members, inAdvance;
+        private long inflated;
+
+        MemberStream(File file, int threads) throws IOException {
+            this.file = file;
+            this.ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.size = ch.size();
+            this.threads = threads;
+            this.pool = new ForkJoinPool(Math.max(1, threads - 1));
+            this.budget = new AtomicLong(Math.min(IN_FLIGHT_BYTES, Runtime.getRuntime().maxMemory() / 4));
+        }
+
+        /** One advance inflation; whichever of finishing and dropping comes second releases its bytes. */
+        private final class Advance {
+            final long start;
+            final long sizeHint; // inflated size from the trailer before the next match, or -1
+            volatile boolean dropped;
+            Member result;
+            Future<?> task;
+
+            Advance(long start, long sizeHint) {
+                this.start = start;
+                this.sizeHint = sizeHint;
+            }
+
+            void run() {
+                Member m = inflateWithinBudget(this);
+                synchronized (this) {
+                    if (dropped) {
+                        if (m != null) release(m.reserved);
+                    } else {
+                        result = m;
+                    }
+                }
+            }
+
+            synchronized void drop() {
+                dropped = true;
+                if (result != null) release(result.reserved);
+                result = null;
+            }
+
+            /** Wait for the inflation; its member, or null if it failed or was given up. */
+            Member take() throws InterruptedIOException {
+                try {
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while inflating " + file);
+                } catch (ExecutionException e) {
+                    return null;
+                }
+                synchronized (this) {
+                    dropped = true; // now owned by the reader
+                    return result;
+                }
+            }
+        }
+
+        private boolean reserve(long bytes) {
+            for (long left = budget.get(); left >= bytes; left = budget.get()) {
+                if (budget.compareAndSet(left, left - bytes)) return true;
+            }
+            return false;
+        }
+
+        private void release(long bytes) {
+            budget.addAndGet(bytes);
+        }
+
+        /** Null if the member is corrupt, not a member at all, too large for the budget or passed by the reader. */
+        private Member inflateWithinBudget(Advance a) {
+            long size = a.sizeHint >= 0 && a.sizeHint < MAX_BUFFER ? Math.max(CHUNK, a.sizeHint + 1) : 4 * CHUNK;
+            if (!reserve(size)) size = 4 * CHUNK;
+            if (!reserve(size)) return null;
+            long reserved = size;
+            byte[] out = new byte[(int) size];
+            int length = 0;
+            try (MemberInflater m = new MemberInflater(ch, a.start)) {
+                while (true) {
+                    if (a.dropped || a.start < next) break;
+                    if (length == out.length) {
+                        int grow = Math.min(out.length, MAX_BUFFER - out.length);
+                        if (grow == 0 || !reserve(grow)) break;
+                        reserved += grow;
+                        out = Arrays.copyOf(out, out.length + grow);
+                    }
+                    int k = m.read(out, length, out.length - length);
+                    if (k < 0) return new Member(m.end(), out, length, reserved);
+                    length += k;
+                }
+            } catch (IOException e) {
+                // not a member after all, or corrupt: the reader finds out when it gets there
+            }
+            release(reserved);
+            return null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (true) {
+                if (current != null) {
+                    if (pos < current.length) {
+                        int n = Math.min(len, current.length - pos);
+                        System.arraycopy(current.data, pos, b, off, n);
+                        pos += n;
+                        return n;
+                    }
+                    release(current.reserved);
+                    next = current.end;
+                    current = null;
+                } else if (streaming != null) {
+                    int n = streaming.read(b, off, len);
+                    if (n >= 0) {
+                        inflated += n;
+                        return n;
+                    }
+                    next = streaming.end();
+                    streaming.close();
+                    streaming = null;
+                } else if (!advance()) {
+                    return -1;
+                }
+            }
+        }
+
+        /** Start reading the member at next; false at the end of the input. */
+        private boolean advance() throws IOException {
+            if (next >= size) return false;
+
+            for (Iterator<Map.Entry<Long, Advance>> it = pending.headMap(next).entrySet().iterator(); it.hasNext(); ) {
+                Advance stale = it.next().getValue();
+                stale.drop();
+                stale.task.cancel(false); // an interrupt would close the shared channel
+                it.remove();
+            }
+            while (!found.isEmpty() && found.peekFirst() <= next) found.pollFirst();
+            scanAhead();
+
+            Advance a = pending.remove(next);
+            Member m = a == null ? null : a.take();
+            members++;
+            if (m != null) {
+                current = m;
+                pos = 0;
+                inflated += m.length;
+                inAdvance++;
+                return true;
+            }
+            try {
+                streaming = new MemberInflater(ch, next);
+            } catch (IOException e) {
+                if (next == 0) throw e;
+                members--;
+                return false; // trailing garbage after the last member, ignored like GZIPInputStream does
+            }
+            return true;
+        }
+
+        /**
+         * Find header matches up to SCAN_AHEAD past next, one window at a time, and submit
+         * them while fewer than 2 * threads are pending.
+         */
+        private void scanAhead() throws IOException {
+            if (scanned < next + 1) scanned = next + 1;
+            byte[] b = new byte[0];
+            while (pending.size() + found.size() < 2 * threads && scanned < size && scanned < next + SCAN_AHEAD) {
+                long from = scanned;
+                int len = (int) Math.min(SCAN_WINDOW + HEADER - 1, size - from);
+                if (b.length < len) b = new byte[SCAN_WINDOW + HEADER - 1];
+                ByteBuffer buf = ByteBuffer.wrap(b, 0, len);
+                while (buf.hasRemaining() && ch.read(buf, from + buf.position()) > 0) { }
+                int got = buf.position();
+                int limit = from + got >= size ? got - HEADER + 1 : Math.min(SCAN_WINDOW, got - HEADER + 1);
+                for (int i = 0; i < limit; i++) {
+                    if (b[i] == 0x1f && looksLikeHeader(b, i)) found.addLast(from + i);
+                }
+                scanned = from + got >= size ? size : from + Math.max(limit, 1);
+            }
+            while (!found.isEmpty() && pending.size() < 2 * threads) {
+                long start = found.pollFirst();
+                long following = found.isEmpty() ? (scanned >= size ? size : -1) : found.peekFirst();
+                Advance a = new Advance(start, following > start + 8 ? trailerSize(following) : -1);
+                a.task = pool.submit(a::run);
+                pending.put(start, a);
+            }
+        }
+
+        /** ISIZE from the 4 bytes before offset, the trailer of the member ending there if one does. */
+        private long trailerSize(long offset) {
+            ByteBuffer buf = ByteBuffer.allocate(4);
+            try {
+                while (buf.hasRemaining() && ch.read(buf, offset - 4 + buf.position()) > 0) { }
+            } catch (IOException e) {
+                return -1;
+            }
+            byte[] t = buf.array();
+            return (t[0] & 0xff) | (t[1] & 0xff) << 8 | (t[2] & 0xff) << 16 | (long) (t[3] & 0xff) << 24;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Advance a : pending.values()) a.drop();
+            pool.shutdownNow();
+            if (streaming != null) streaming.close();
+            ch.close();
+            System.out.printf("GzipInput: %s: %d members (%d inflated in advance on %d threads), %d bytes%n",
+                    file, members, inAdvance, Math.max(1, threads - 1), inflated);
+        }
+    }
+
+    /**
+     * Reads a stream on a background thread, a few blocks ahead of the caller.
+     */
+    private static final class ReadAhead extends InputStream {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(4);
+        private final Thread worker;
+        private volatile IOException error;
+        private volatile boolean closed;
+        private byte[] block = new byte[0];
+        private int pos;
+
+        ReadAhead(InputStream in) {
+            worker = new Thread(() -> {
+                try (in) {
+                    while (!closed) {
+                        byte[] b = in.readNBytes(READ_AHEAD_BLOCK);
+                        if (b.length == 0) break;
+                        blocks.put(b);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } catch (RuntimeException e) {
+                    error = new IOException(e);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    blocks.put(END);
+                } catch (InterruptedException ignored) {
+                    // closed by the reader
+                }
+            }, "gzip-read-ahead");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (pos == block.length) {
+                if (block == END) return -1;
+                try {
+                    block = blocks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading ahead");
+                }
+                pos = 0;
+                if (block == END && error != null) throw error;
+            }
+            int n = Math.min(len, block.length - pos);
+            System.arraycopy(block, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            worker.interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.payments.readers;
+
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.utils.ErrorHandler;
+import com.example.payments.utils.IsoTimestampParser;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolves a reader's path parameter to input files: a single file, a directory (walked
+ * recursively, hidden entries skipped) or a glob such as data/dt=2025-11-0[1-7]/**.csv.
+ * Files are returned in path order.
+ *
+ * Hive-style partition directories dt=YYYY-MM-DD and dt=YYYY-MM-DD/hh=HH encode the day
+ * or hour their rows belong to (in partitionZone). A partition whose range no filter can
+ * match (see Filter.mayMatchTimestamps) is skipped without being listed, so pruning assumes
+ * rows are filed under the partition of their own timestamp.
+ */
+public class InputFiles {
+
+    private final List<Path> files = new ArrayList<>();
+    private int prunedPartitions;
+
+    private InputFiles() {}
+
+    public static boolean isPattern(String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('[') >= 0 || path.indexOf('{') >= 0;
+    }
+
+    /**
+     * Files under path whose name ends with one of the suffixes (a plain file path is
+     * always taken as given), minus the partitions the filters rule out.
+     */
+    public static InputFiles resolve(String path, List<String> suffixes, List<Filter> filters, ZoneId partitionZone)
+            throws IOException {
+        InputFiles out = new InputFiles();
+        Path base;
+        PathMatcher glob = null;
+        if (isPattern(path)) {
+            // walk from the directory before the first wildcard; match the rest relative to it
+            int slash = path.lastIndexOf('/', firstGlobChar(path));
+            base = Path.of(slash < 0 ? "." : path.substring(0, slash + 1));
+            glob = FileSystems.getDefault().getPathMatcher("glob:" + path.substring(slash + 1));
+        } else {
+            base = Path.of(path);
+            if (Files.isRegularFile(base)) {
+                out.files.add(base);
+                return out;
+            }
+            if (!Files.isDirectory(base)) return out;
+        }
+
+        PathMatcher matcher = glob;
+        Files.walkFileTree(base, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(base) && dir.getFileName().toString().startsWith(".")) return FileVisitResult.SKIP_SUBTREE;
+                if (!mayMatch(dir, filters, partitionZone)) {
+                    out.prunedPartitions++;
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (!attrs.isRegularFile() || name.startsWith(".")) return FileVisitResult.CONTINUE;
+                if (matcher != null ? !matcher.matches(base.relativize(file)) : !hasSuffix(name, suffixes)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                out.files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(out.files);
+        return out;
+    }
+
+    private static int firstGlobChar(String path) {
+        int i = 0;
+        while (i < path.length() && "*?[{".indexOf(path.charAt(i)) < 0) i++;
+        return i;
+    }
+
+    private static boolean hasSuffix(String name, List<String> suffixes) {
+        String lower = name.toLowerCase();
+        for (String s : suffixes) {
+            if (lower.endsWith(s)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * False when the path lies in a dt= (and hh=) partition that some filter rules out.
+     */
+    static boolean mayMatch(Path path, List<Filter> filters, ZoneId zone) {
+        if (filters == null || filters.isEmpty()) return true;
+        long[] range = partitionRange(path, zone);
+        if (range == null) return true;
+
+        for (Filter f : filters) {
+            try {
+                if (!f.mayMatchTimestamps(range[0], range[1])) return false;
+            } catch (Exception e) {
+                ErrorHandler.log("InputFiles-Partition-" + f.name(), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * [first, last] epoch nanos of the partition a path encodes, or null when it has no dt= segment.
+     */
+    static long[] partitionRange(Path path, ZoneId zone) {
+        LocalDate day = null;
+        int hour = -1;
+        for (Path segment : path) {
+            String s = segment.toString();
+            try {
+                if (s.startsWith("dt=")) day = LocalDate.parse(s.substring(3));
+                else if (s.startsWith("hh=") && day != null) hour = Integer.parseInt(s.substring(3));
+            } catch (Exception e) {
+                return null; // not a partition directory after all; never prune on it
+            }
+        }
+        if (day == null || hour > 23) return null;
+
+        ZonedDateTime from = hour < 0 ? day.atStartOfDay(zone) : day.atStartOfDay(zone).plusHours(hour);
+        ZonedDateTime to = hour < 0 ? from.plusDays(1) : from.plusHours(1);
+        return new long[] {
+                IsoTimestampParser.epochNanos(from.toOffsetDateTime()),
+                IsoTimestampParser.epochNanos(to.toOffsetDateTime()) - 1
+        };
+    }
+
+    public List<Path> files() { return files; }
+
+    public int prunedPartitions() { return prunedPartitions; }
+}
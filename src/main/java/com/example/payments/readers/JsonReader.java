@@ -1,18 +1,109 @@
 package com.example.payments.readers;
 
 import com.example.payments.engine.interfaces.DataReader;
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.utils.ErrorHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
- * Placeholder for JSON reader.
+ * JSON reader on Jackson's streaming JsonParser: one transaction object at a time, so only
+ * the current row is held in memory. Accepts NDJSON (objects one per line, or any
+ * whitespace-separated sequence) and a top-level array of objects; the form is detected
+ * from the first token. Field names match the CSV header (see JsonTransactionMapper).
+ * Fields outside the engine's projection are skipped without being read. A path ending in
+ * .gz is inflated while being parsed, with gzip members inflated on parallelism threads
+ * (see GzipInput).
+ *
+ * Note: this class may appear "unused" in the IDE because it's instantiated by reflection
+ * from ComponentFactory / PluginRegistry. That's expected.
  */
+@SuppressWarnings("unused")
 public class JsonReader implements DataReader {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private String path;
+    private boolean preferOffset;
+    private int parallelism = 1; // threads inflating a .gz input
+    private Projection projection = Projection.ALL;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        this.path = (String) parameters.getOrDefault("path", "src/main/resources/sample/transactions.json");
+        String dateFormat = (String) parameters.getOrDefault("date_format", "ISO_OFFSET_DATE_TIME");
+        this.preferOffset = "ISO_OFFSET_DATE_TIME".equalsIgnoreCase(dateFormat);
+
+        Object p = parameters.get("parallelism");
+        if (p != null) {
+            try {
+                String v = p.toString();
+                this.parallelism = "auto".equalsIgnoreCase(v) || "0".equals(v)
+                        ? Runtime.getRuntime().availableProcessors()
+                        : Integer.parseInt(v);
+            } catch (Exception e) {
+                ErrorHandler.log("JsonReader-Init-parallelism", e);
+            }
+        }
+    }
+
     @Override
-    public void init(java.util.Map<String, Object> parameters) throws Exception {
-        // placeholder
+    public void project(Set<TransactionField> fields) {
+        this.projection = new Projection(fields);
     }
 
     @Override
-    public java.util.List<com.example.payments.model.Transaction> readAll() throws Exception {
-        throw new UnsupportedOperationException("JsonReader not implemented in prototype");
+    public List<Transaction> readAll() throws Exception {
+        List<Transaction> out = new ArrayList<>();
+        read(out::add);
+        return out;
+    }
+
+    @Override
+    public void read(Consumer<Transaction> sink) throws Exception {
+        File json = new File(path);
+        if (!json.exists()) {
+            throw new IllegalArgumentException("JSON not found: " + path);
+        }
+
+        parse(json, sink);
+        projection.printSavings("JsonReader");
+    }
+
+    private void parse(File json, Consumer<Transaction> sink) {
+        JsonTransactionMapper mapper = new JsonTransactionMapper(preferOffset, projection);
+        try (JsonParser p = GzipInput.isGzip(json)
+                ? FACTORY.createParser(GzipInput.open(json, parallelism))
+                : FACTORY.createParser(json)) {
+            JsonToken token = p.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) token = p.nextToken();
+
+            while (token != null) {
+                if (array && token == JsonToken.END_ARRAY) {
+                    if (p.nextToken() != null) throw new IOException("Unexpected content after array at " + p.currentLocation());
+                    return;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a transaction object but found " + token + " at " + p.currentLocation());
+                }
+                sink.accept(mapper.toTransaction(p));
+                projection.rows(1);
+                token = p.nextToken();
+            }
+            if (array) throw new IOException("Unterminated JSON array");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read JSON: " + json.getAbsolutePath(), e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.example.payments.readers;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.IsoTimestampParser;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Builds a Transaction from one JSON object by walking parser tokens (no tree model, no
+ * per-row Map). Field names go through one switch; unknown fields, including nested
+ * objects and arrays, are skipped. Same field handling as the CSV mappers: transactionId
+ * or legacy id, currency defaults to INR, a missing amount reads as zero. Amounts may be
+ * JSON numbers or strings; timestamps are ISO strings or epoch seconds (what Jackson writes
+ * for OffsetDateTime). Fields outside the projection are skipped like unknown ones, without
+ * reading their text. Not thread-safe.
+ */
+public class JsonTransactionMapper {
+
+    private static final int UNKNOWN = -1;
+    private static final int ID = 0;
+    private static final int LEGACY_ID = 1;
+    private static final int TIMESTAMP = 2;
+    private static final int AMOUNT = 3;
+    private static final int PAYMENT_TYPE = 4;
+    private static final int MERCHANT_ID = 5;
+    private static final int MERCHANT_NAME = 6;
+    private static final int MERCHANT_CATEGORY = 7;
+    private static final int CUSTOMER_ID = 8;
+    private static final int LOCATION = 9;
+    private static final int STATUS = 10;
+    private static final int CURRENCY = 11;
+
+    private final boolean preferOffset;
+    private final boolean[] skipped = new boolean[CURRENCY + 1]; // by field code, outside the projection
+    private final FixedPoint fixedPoint = new FixedPoint(); // reused per row
+    private final IsoTimestampParser timestamps = new IsoTimestampParser(ZoneId.systemDefault());
+
+    public JsonTransactionMapper(boolean preferOffset) {
+        this(preferOffset, Projection.ALL);
+    }
+
+    public JsonTransactionMapper(boolean preferOffset, Projection projection) {
+        this.preferOffset = preferOffset;
+        skipped[ID] = skipped[LEGACY_ID] = !projection.has(TransactionField.ID);
+        skipped[TIMESTAMP] = !projection.has(TransactionField.TIMESTAMP);
+        skipped[AMOUNT] = !projection.has(TransactionField.AMOUNT);
+        skipped[PAYMENT_TYPE] = !projection.has(TransactionField.PAYMENT_TYPE);
+        skipped[MERCHANT_ID] = !projection.has(TransactionField.MERCHANT_ID);
+        skipped[MERCHANT_NAME] = !projection.has(TransactionField.MERCHANT_NAME);
+        skipped[MERCHANT_CATEGORY] = !projection.has(TransactionField.MERCHANT_CATEGORY);
+        skipped[CUSTOMER_ID] = !projection.has(TransactionField.CUSTOMER_ID);
+        skipped[LOCATION] = !projection.has(TransactionField.LOCATION);
+        skipped[STATUS] = !projection.has(TransactionField.STATUS);
+        skipped[CURRENCY] = !projection.has(TransactionField.CURRENCY);
+    }
+
+    static int field(String name) {
+        return switch (name) {
+            case "transactionId" -> ID;
+            case "id" -> LEGACY_ID;
+            case "timestamp" -> TIMESTAMP;
+            case "amount" -> AMOUNT;
+            case "paymentType" -> PAYMENT_TYPE;
+            case "merchantId" -> MERCHANT_ID;
+            case "merchantName" -> MERCHANT_NAME;
+            case "merchantCategory" -> MERCHANT_CATEGORY;
+            case "customerId" -> CUSTOMER_ID;
+            case "location" -> LOCATION;
+            case "status" -> STATUS;
+            case "currency" -> CURRENCY;
+            default -> UNKNOWN;
+        };
+    }
+
+    /**
+     * Read the object whose START_OBJECT is the parser's current token, leaving the
+     * parser on its END_OBJECT.
+     */
+    public Transaction toTransaction(JsonParser p) throws IOException {
+        Transaction t = new Transaction();
+        String legacyId = null;
+        boolean hasId = false;
+        boolean hasAmount = false;
+
+        String name;
+        while ((name = p.nextFieldName()) != null) {
+            JsonToken value = p.nextToken();
+            int f = field(name);
+            if (f == UNKNOWN || skipped[f] || value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+
+            switch (f) {
+                case ID -> {
+                    t.setId(text(p));
+                    hasId = true;
+                }
+                case LEGACY_ID -> legacyId = text(p);
+                case TIMESTAMP -> setTimestamp(t, p);
+                case AMOUNT -> hasAmount = setAmount(t, p);
+                case PAYMENT_TYPE -> t.setPaymentType(text(p)); // UPI/CARD/NETBANKING/WALLET
+                case MERCHANT_ID -> t.setMerchantId(text(p));
+                case MERCHANT_NAME -> t.setMerchantName(text(p));
+                case MERCHANT_CATEGORY -> t.setMerchantCategory(text(p));
+                case CUSTOMER_ID -> t.setCustomerId(text(p));
+                case LOCATION -> t.setLocation(text(p));
+                case STATUS -> t.setStatus(text(p));
+                case CURRENCY -> t.setCurrency(text(p));
+                default -> { /* unreachable */ }
+            }
+        }
+        if (p.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Expected a field name or '}' at " + p.currentLocation());
+        }
+
+        if (!hasId) t.setId(legacyId);
+        if (!hasAmount) t.setAmount(BigDecimal.ZERO);
+        if (t.getCurrency() == null) t.setCurrency("INR");
+        return t;
+    }
+
+    private static String text(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : p.getText();
+    }
+
+    private boolean setAmount(Transaction t, JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) return false;
+
+        String amt = p.getText();
+        if (fixedPoint.parse(amt)) {
+            t.setAmount(fixedPoint.unscaled(), fixedPoint.scale());
+        } else if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            t.setAmount(p.getDecimalValue());
+        } else {
+            t.setAmount(amt.isBlank() ? BigDecimal.ZERO : new BigDecimal(amt));
+        }
+        return true;
+    }
+
+    private void setTimestamp(Transaction t, JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            BigDecimal seconds = p.getDecimalValue();
+            Instant instant = Instant.ofEpochSecond(seconds.longValue(),
+                    seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+            t.setTimestamp(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC));
+            return;
+        }
+
+        String ts = text(p);
+        if (ts != null && timestamps.parse(ts)) t.setTimestamp(timestamps.toOffsetDateTime());
+        else if (ts != null && !ts.isBlank()) t.setTimestamp(CsvTransactionMapper.parseTimestamp(ts, preferOffset));
+    }
+}
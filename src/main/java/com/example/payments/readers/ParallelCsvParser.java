@@ -0,0 +1,229 @@
+package com.example.payments.readers;
+
+import com.example.payments.model.Transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Parallel CSV ingestion over a memory-mapped file.
+ *
+ * The data section (after the header) is cut into byte ranges that end exactly on
+ * record boundaries: a parallel pre-pass counts quote characters per range, the
+ * prefix parity tells whether each tentative split lies inside a quoted field, and
+ * the split is moved to the next newline outside quotes. Ranges are then parsed
+ * independently on a fork-join pool.
+ *
+ * Rows are always handed to the sink on the calling thread, in file order when
+ * ordered=true or chunk-completion order otherwise. At most 2 x parallelism parsed
+ * chunks are held at once. Assumes RFC 4180 quoting (quotes only wrap whole fields).
+ * Pushed-down filters drop rows inside the parse tasks, before Transactions are built,
+ * and columns outside the projection are never decoded.
+ */
+public class ParallelCsvParser {
+
+    private static final long MAX_CHUNK = 256L * 1024 * 1024;  // must stay below 2 GB (one mapping per chunk)
+    private static final long MAX_RECORD = 64L * 1024 * 1024;  // search window for a record boundary
+
+    private final int parallelism;
+    private final boolean ordered;
+    private final boolean preferOffset;
+    private final PushDownFilters filters;
+    private final Projection projection;
+
+    public ParallelCsvParser(int parallelism, boolean ordered, boolean preferOffset) {
+        this(parallelism, ordered, preferOffset, PushDownFilters.NONE);
+    }
+
+    public ParallelCsvParser(int parallelism, boolean ordered, boolean preferOffset, PushDownFilters filters) {
+        this(parallelism, ordered, preferOffset, filters, Projection.ALL);
+    }
+
+    public ParallelCsvParser(int parallelism, boolean ordered, boolean preferOffset, PushDownFilters filters,
+                             Projection projection) {
+        this.parallelism = Math.max(1, parallelism);
+        this.ordered = ordered;
+        this.preferOffset = preferOffset;
+        this.filters = filters;
+        this.projection = projection;
+    }
+
+    public void read(File csv, Consumer<Transaction> sink) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel ch = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) return;
+
+            CsvTransactionMapper mapper = new CsvTransactionMapper(preferOffset, projection);
+            long dataStart = bindHeader(ch, size, mapper);
+            if (dataStart >= size) return;
+
+            long[] bounds = splitOnRecordBoundaries(ch, dataStart, size, pool);
+            emit(ch, bounds, mapper, pool, sink);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading CSV: " + csv.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException("Failed to read CSV: " + csv.getAbsolutePath(), cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse the header record and return the offset where data starts.
+     */
+    private long bindHeader(FileChannel ch, long size, CsvTransactionMapper mapper) throws IOException {
+        int len = (int) Math.min(size, MAX_RECORD);
+        MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, len);
+        CsvByteScanner scanner = new CsvByteScanner();
+        CsvRecord rec = new CsvRecord();
+
+        int pos = 0;
+        while (pos < len) {
+            int next = scanner.scanRecord(head, pos, len, len == size, rec);
+            if (next < 0) throw new IOException("CSV header larger than " + MAX_RECORD + " bytes");
+            pos = next;
+            if (!rec.isBlank()) {
+                mapper.bindHeader(rec);
+                return pos;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Cut [dataStart, size) into ranges whose boundaries are record starts.
+     * Returns n+1 offsets for n ranges.
+     */
+    private long[] splitOnRecordBoundaries(FileChannel ch, long dataStart, long size, ForkJoinPool pool)
+            throws ExecutionException, InterruptedException, IOException {
+        long span = size - dataStart;
+        int n = (int) Math.max(parallelism * 4L, (span + MAX_CHUNK - 1) / MAX_CHUNK);
+        n = (int) Math.max(1, Math.min(n, span / 4096 + 1)); // no point in tiny chunks
+
+        long[] tentative = new long[n + 1];
+        for (int k = 0; k <= n; k++) tentative[k] = dataStart + span * k / n;
+
+        // pass 1: quote counts per tentative range, in parallel
+        List<Future<Long>> counts = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            long from = tentative[k];
+            long to = tentative[k + 1];
+            counts.add(pool.submit(() -> countQuotes(ch, from, to)));
+        }
+
+        boolean[] inQuote = new boolean[n + 1];
+        long quotes = 0;
+        for (int k = 0; k < n; k++) {
+            inQuote[k] = (quotes & 1) == 1;
+            quotes += counts.get(k).get();
+        }
+
+        // pass 2: move each split to the next newline outside quotes, in parallel
+        List<Future<Long>> aligned = new ArrayList<>(n);
+        for (int k = 1; k < n; k++) {
+            long from = tentative[k];
+            boolean quoted = inQuote[k];
+            aligned.add(pool.submit(() -> nextRecordStart(ch, from, size, quoted)));
+        }
+
+        List<Long> bounds = new ArrayList<>(n + 1);
+        bounds.add(dataStart);
+        for (Future<Long> f : aligned) {
+            long b = f.get();
+            if (b > bounds.get(bounds.size() - 1) && b < size) bounds.add(b);
+        }
+        bounds.add(size);
+
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = bounds.get(i);
+        return out;
+    }
+
+    private long countQuotes(FileChannel ch, long from, long to) throws IOException {
+        if (to <= from) return 0;
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        long c = 0;
+        int len = (int) (to - from);
+        for (int i = 0; i < len; i++) {
+            if (buf.get(i) == '"') c++;
+        }
+        return c;
+    }
+
+    private long nextRecordStart(FileChannel ch, long from, long size, boolean inQuote) throws IOException {
+        int len = (int) Math.min(size - from, MAX_RECORD);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, len);
+        boolean quoted = inQuote;
+        for (int i = 0; i < len; i++) {
+            byte c = buf.get(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == '\n' && !quoted) return from + i + 1;
+        }
+        if (from + len == size) return size;
+        throw new IOException("No CSV record boundary within " + MAX_RECORD + " bytes of offset " + from);
+    }
+
+    private List<Transaction> parseChunk(FileChannel ch, long from, long to, CsvTransactionMapper mapper) throws IOException {
+        int len = (int) (to - from);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, len);
+        List<Transaction> rows = new ArrayList<>();
+        CsvTransactionMapper local = mapper.copy();
+        new CsvByteScanner().scan(buf, 0, len, true, new CsvRecord(), r -> {
+            if (!filters.isEmpty() && !filters.test(local.raw(r))) return;
+            rows.add(local.toTransaction(r));
+        });
+        return rows;
+    }
+
+    private void emit(FileChannel ch, long[] bounds, CsvTransactionMapper mapper,
+                      ForkJoinPool pool, Consumer<Transaction> sink)
+            throws ExecutionException, InterruptedException {
+        int chunks = bounds.length - 1;
+        int maxInFlight = parallelism * 2;
+        int next = 0;
+
+        if (ordered) {
+            Deque<Future<List<Transaction>>> inFlight = new ArrayDeque<>();
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < maxInFlight) {
+                    long from = bounds[next];
+                    long to = bounds[next + 1];
+                    inFlight.add(pool.submit(() -> parseChunk(ch, from, to, mapper)));
+                    next++;
+                }
+                for (Transaction t : inFlight.poll().get()) sink.accept(t);
+            }
+            return;
+        }
+
+        CompletionService<List<Transaction>> done = new ExecutorCompletionService<>(pool);
+        int pending = 0;
+        while (next < chunks || pending > 0) {
+            while (next < chunks && pending < maxInFlight) {
+                long from = bounds[next];
+                long to = bounds[next + 1];
+                done.submit(() -> parseChunk(ch, from, to, mapper));
+                next++;
+                pending++;
+            }
+            List<Transaction> rows = done.take().get();
+            pending--;
+            for (Transaction t : rows) sink.accept(t);
+        }
+    }
+}
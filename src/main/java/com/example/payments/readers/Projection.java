@@ -0,0 +1,45 @@
+package com.example.payments.readers;
+
+import com.example.payments.model.TransactionField;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fields a reader has to decode (see DataReader.project); the others are left unset on
+ * the Transaction. Counts rows read so the run summary can report the decodes skipped.
+ * Counts are thread-safe.
+ */
+public class Projection {
+
+    public static final Projection ALL = new Projection(null);
+
+    private final Set<TransactionField> fields;
+    private final LongAdder rows = new LongAdder();
+
+    public Projection(Set<TransactionField> fields) {
+        this.fields = fields == null ? TransactionField.all() : EnumSet.copyOf(fields);
+    }
+
+    public boolean isAll() {
+        return fields.size() == TransactionField.values().length;
+    }
+
+    public boolean has(TransactionField field) {
+        return fields.contains(field);
+    }
+
+    public void rows(long n) {
+        if (!isAll()) rows.add(n);
+    }
+
+    public void printSavings(String reader) {
+        if (isAll()) return;
+        int total = TransactionField.values().length;
+        int skipped = total - fields.size();
+        long n = rows.sum();
+        System.out.println(reader + ": decoded " + fields.size() + " of " + total + " fields per row, skipped "
+                + (skipped * n) + " field decodes over " + n + " rows (projection)");
+    }
+}
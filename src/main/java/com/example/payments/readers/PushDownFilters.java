@@ -0,0 +1,63 @@
+package com.example.payments.readers;
+
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.engine.interfaces.RawRow;
+import com.example.payments.utils.ErrorHandler;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filters handed to a reader (see DataReader.pushDown), tested on raw rows before a
+ * Transaction is built. Conservative: a filter that throws keeps the row, and the engine
+ * still runs the full filter chain on every row that gets through. Counts are thread-safe
+ * and kept per filter (the first one that rejected the row), since rows skipped here never
+ * reach the engine's FilterChain and are missing from its remaining= counts.
+ */
+public class PushDownFilters {
+
+    public static final PushDownFilters NONE = new PushDownFilters(List.of());
+
+    private final Filter[] filters;
+    private final LongAdder tested = new LongAdder();
+    private final LongAdder[] skipped;
+
+    public PushDownFilters(List<Filter> filters) {
+        this.filters = filters == null ? new Filter[0] : filters.toArray(new Filter[0]);
+        this.skipped = new LongAdder[this.filters.length];
+        for (int i = 0; i < skipped.length; i++) skipped[i] = new LongAdder();
+    }
+
+    public boolean isEmpty() {
+        return filters.length == 0;
+    }
+
+    public boolean test(RawRow row) {
+        tested.increment();
+        for (int i = 0; i < filters.length; i++) {
+            try {
+                if (!filters[i].mayMatch(row)) {
+                    skipped[i].increment();
+                    return false;
+                }
+            } catch (Exception e) {
+                ErrorHandler.log("PushDownFilters-" + filters[i].name(), e);
+            }
+        }
+        return true;
+    }
+
+    public void printCounts(String reader) {
+        if (isEmpty()) return;
+        long total = 0;
+        StringBuilder byFilter = new StringBuilder();
+        for (int i = 0; i < filters.length; i++) {
+            long n = skipped[i].sum();
+            total += n;
+            if (byFilter.length() > 0) byFilter.append(", ");
+            byFilter.append(filters[i].name()).append(' ').append(n);
+        }
+        System.out.println(reader + ": skipped " + total + " of " + tested.sum() + " rows at source (filter pushdown: "
+                + byFilter + "); the filter counts below start from the " + (tested.sum() - total) + " rows passed on");
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.payments.readers;
+
+import com.example.payments.store.ColumnarTransactionStore;
+import com.example.payments.store.SnapshotIO;
+import com.example.payments.utils.ErrorHandler;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk cache of parsed inputs as columnar-store snapshots (see ColumnarTransactionStore.save).
+ *
+ * One snapshot per input path, named after a hash of the absolute path. Its header records
+ * the input's size, modification time and CRC32C of the content, plus the reader options
+ * that change parsing; any difference makes it stale and it is rebuilt. Snapshots are
+ * touched on use and the least recently used are deleted once the directory exceeds maxBytes.
+ */
+public class SnapshotCache {
+
+    private static final long MAGIC = 0x5041595349534E50L; // "PAYSISNP"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".snap";
+
+    private final Path dir;
+    private final long maxBytes;
+
+    public SnapshotCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Identity of one input file as parsed with given options.
+     */
+    public static class Fingerprint {
+        final String path;
+        final long size;
+        final long modified;
+        final long crc;
+        final String options;
+
+        Fingerprint(String path, long size, long modified, long crc, String options) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.crc = crc;
+            this.options = options;
+        }
+
+        boolean matches(Fingerprint o) {
+            return path.equals(o.path) && size == o.size && modified == o.modified && crc == o.crc && options.equals(o.options);
+        }
+    }
+
+    public static Fingerprint fingerprint(Path input, String options) throws IOException {
+        Path abs = input.toAbsolutePath().normalize();
+        CRC32C crc = new CRC32C();
+        try (FileChannel ch = FileChannel.open(abs, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; ) {
+                long len = Math.min(256L * 1024 * 1024, size - pos);
+                MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                crc.update(window);
+                pos += len;
+            }
+            return new Fingerprint(abs.toString(), size, Files.getLastModifiedTime(abs).toMillis(), crc.getValue(), options);
+        }
+    }
+
+    private Path snapshotPath(Fingerprint fp) {
+        return dir.resolve(Long.toHexString(fp.path.hashCode() & 0xffffffffL) + "-"
+                + Path.of(fp.path).getFileName() + SUFFIX);
+    }
+
+    /**
+     * Load the snapshot for fp into an empty store; false when there is none or it is stale.
+     */
+    public boolean load(Fingerprint fp, ColumnarTransactionStore store) {
+        Path snap = snapshotPath(fp);
+        if (!Files.exists(snap)) return false;
+
+        try (FileChannel ch = FileChannel.open(snap, StandardOpenOption.READ)) {
+            SnapshotIO.Reader in = new SnapshotIO.Reader(ch, 0);
+            if (in.getLong() != MAGIC || in.getInt() != VERSION) {
+                System.out.println("Snapshot cache: ignoring incompatible " + snap);
+                return false;
+            }
+            Fingerprint stored = new Fingerprint(in.getString(), in.getLong(), in.getLong(), in.getLong(), in.getString());
+            if (!stored.matches(fp)) {
+                System.out.println("Snapshot cache: input changed, rebuilding " + snap);
+                return false;
+            }
+            store.load(ch, in.position());
+        } catch (Exception e) {
+            ErrorHandler.log("SnapshotCache-Load(" + snap + ")", e);
+            return false;
+        }
+
+        try {
+            Files.setLastModifiedTime(snap, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            ErrorHandler.log("SnapshotCache-Touch(" + snap + ")", e);
+        }
+        System.out.println("Snapshot cache: loaded " + store.size() + " transactions from " + snap);
+        return true;
+    }
+
+    /**
+     * Write the store as the snapshot for fp (via a temp file and an atomic rename), then evict.
+     */
+    public void save(Fingerprint fp, ColumnarTransactionStore store) {
+        Path snap = snapshotPath(fp);
+        Path tmp = null;
+        try {
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, "snapshot-", ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                SnapshotIO.Writer out = new SnapshotIO.Writer(ch);
+                out.putLong(MAGIC);
+                out.putInt(VERSION);
+                out.putString(fp.path);
+                out.putLong(fp.size);
+                out.putLong(fp.modified);
+                out.putLong(fp.crc);
+                out.putString(fp.options);
+                out.flush();
+                store.save(ch);
+            }
+            Files.move(tmp, snap, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Snapshot cache: wrote " + snap + " (" + Files.size(snap) + " bytes)");
+        } catch (Exception e) {
+            ErrorHandler.log("SnapshotCache-Save(" + snap + ")", e);
+            try {
+                if (tmp != null) Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // best effort
+            }
+            return;
+        }
+        evict(snap);
+    }
+
+    /**
+     * Delete least recently used snapshots until the total size fits maxBytes; keep is never deleted.
+     */
+    private void evict(Path keep) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            List<Path> snaps = new ArrayList<>();
+            long total = 0;
+            for (Path p : files) {
+                snaps.add(p);
+                total += Files.size(p);
+            }
+            snaps.sort(Comparator.comparing(p -> {
+                try {
+                    return Files.getLastModifiedTime(p);
+                } catch (IOException e) {
+                    return FileTime.fromMillis(0);
+                }
+            }));
+
+            for (Path p : snaps) {
+                if (total <= maxBytes) break;
+                if (p.equals(keep)) continue;
+                long size = Files.size(p);
+                Files.deleteIfExists(p);
+                total -= size;
+                System.out.println("Snapshot cache: evicted " + p);
+            }
+        } catch (Exception e) {
+            ErrorHandler.log("SnapshotCache-Evict", e);
+        }
+    }
+}
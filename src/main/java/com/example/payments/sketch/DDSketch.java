@@ -0,0 +1,175 @@
+package com.example.payments.sketch;
+
+/**
+ * DDSketch quantile summary (Masson et al.) with relative-error guarantees.
+ *
+ * Values are counted in logarithmic buckets of ratio gamma = (1 + a) / (1 - a), so every
+ * quantile is returned within a relative error a of the exact rank value (a = relativeAccuracy).
+ * Positive and negative values keep separate bucket stores; zero has its own count.
+ * Memory is bounded by maxBuckets per store: past that, the buckets nearest zero are collapsed
+ * into one, and quantiles falling in the collapsed range lose the guarantee (see isCollapsed()).
+ * Two sketches with the same settings merge exactly by adding bucket counts. Not thread-safe.
+ */
+public class DDSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBuckets;
+    private final Store positive;
+    private final Store negative;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public DDSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+        }
+        if (maxBuckets < 2) throw new IllegalArgumentException("maxBuckets must be >= 2");
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBuckets = maxBuckets;
+        this.positive = new Store();
+        this.negative = new Store();
+    }
+
+    public double relativeAccuracy() { return relativeAccuracy; }
+
+    public long count() { return count; }
+
+    public double min() { return min; }
+
+    public double max() { return max; }
+
+    /** True when low-magnitude buckets were merged to stay within maxBuckets. */
+    public boolean isCollapsed() {
+        return positive.collapsed || negative.collapsed;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return;
+
+        if (value > Double.MIN_NORMAL) positive.add(index(value), 1);
+        else if (value < -Double.MIN_NORMAL) negative.add(index(-value), 1);
+        else zeroCount++;
+
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void merge(DDSketch other) {
+        if (other.gamma != gamma || other.maxBuckets != maxBuckets) {
+            throw new IllegalArgumentException("cannot merge sketches with different settings");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Value at quantile q (0..1), or NaN when empty: the value of 0-based rank
+     * floor(q * (count - 1)), clamped to the exact min and max.
+     */
+    public double quantile(double q) {
+        if (count == 0 || q < 0 || q > 1) return Double.NaN;
+
+        long rank = (long) Math.floor(q * (count - 1));
+        double v;
+        if (rank < negative.total) {
+            // negative values ascend as their magnitude buckets descend
+            v = -value(negative.indexAtRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            v = 0;
+        } else {
+            v = value(positive.indexAtRank(rank - negative.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, v));
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /** Representative value of a bucket: within relativeAccuracy of anything it holds. */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Dense counts for bucket indexes [offset, offset + counts.length).
+     */
+    private class Store {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+        private boolean collapsed;
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[Math.min(64, maxBuckets)];
+                offset = index - counts.length / 2;
+            }
+            if (index < offset || index >= offset + counts.length) index = ensure(index);
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        /**
+         * Grow the range to cover index; past maxBuckets the lowest buckets fold into the
+         * lowest kept one. Returns the index the value should be counted in.
+         */
+        private int ensure(int index) {
+            int lo = index, hi = index;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                lo = Math.min(lo, offset + i);
+                hi = Math.max(hi, offset + i);
+            }
+
+            int size;
+            int newOffset;
+            if (hi - lo + 1 > maxBuckets) {
+                size = maxBuckets;
+                newOffset = hi - maxBuckets + 1;
+                collapsed = true;
+            } else {
+                // leave the spare room on the side the range is growing towards
+                size = Math.min(maxBuckets, Math.max(hi - lo + 1, counts.length * 2));
+                newOffset = index == lo ? hi - size + 1 : lo;
+            }
+
+            long[] grown = new long[size];
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                grown[Math.max(offset + i, newOffset) - newOffset] += counts[i];
+            }
+            counts = grown;
+            offset = newOffset;
+            return Math.max(index, newOffset);
+        }
+
+        void merge(Store other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) add(other.offset + i, other.counts[i]);
+            }
+            collapsed |= other.collapsed;
+        }
+
+        /** Index of the bucket holding the value at the given 0-based rank. */
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) return offset + i;
+            }
+            return offset + counts.length - 1;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.payments.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving heavy-hitter summary (Metwally et al.) with a fixed number of counters.
+ *
+ * Memory is O(capacity) regardless of how many distinct keys are offered. For every tracked
+ * key, estimate(key) - error(key) <= true total <= estimate(key); an untracked key's true
+ * total is at most untrackedBound() <= total() / capacity, so any key above that is tracked.
+ *
+ * The bounds assume non-negative weights. Negative weights (e.g. refunds) are applied to
+ * tracked keys and dropped for untracked ones, so upper bounds still hold but lower bounds
+ * may not. Not thread-safe.
+ */
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Integer> slots;
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    // min-heap of slot numbers ordered by count; heapPos[slot] is the slot's heap index
+    private final int[] heap;
+    private final int[] heapPos;
+    private int size;
+    private long total;
+    private long maxEvicted; // largest counter value ever evicted
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.slots = new HashMap<>(Math.min(capacity, 1 << 16) * 2);
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapPos = new int[capacity];
+    }
+
+    public void offer(K key, long weight) {
+        total = saturatingAdd(total, weight);
+
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] = saturatingAdd(counts[slot], weight);
+            if (weight >= 0) siftDown(heapPos[slot]);
+            else siftUp(heapPos[slot]);
+            return;
+        }
+        if (weight < 0) return; // untracked key: dropping keeps its upper bound valid
+
+        if (size < capacity) {
+            int s = size++;
+            keys[s] = key;
+            counts[s] = weight;
+            errors[s] = 0;
+            slots.put(key, s);
+            heap[s] = s;
+            heapPos[s] = s;
+            siftUp(s);
+            return;
+        }
+
+        // replace the minimum counter; the newcomer inherits it as error. With only
+        // non-negative weights min never decreases, so maxEvicted == min here; after negative
+        // weights it can be lower, and maxEvicted keeps the newcomer's estimate an upper bound.
+        int s = heap[0];
+        slots.remove(keys[s]);
+        if (counts[s] > maxEvicted) maxEvicted = counts[s];
+        keys[s] = key;
+        errors[s] = maxEvicted;
+        counts[s] = saturatingAdd(maxEvicted, weight);
+        slots.put(key, s);
+        siftDown(0);
+    }
+
+    public int capacity() { return capacity; }
+
+    public int size() { return size; }
+
+    /** Sum of all offered weights. */
+    public long total() { return total; }
+
+    /** Upper bound on the total of any key that is not tracked (0 until a key has been evicted). */
+    public long untrackedBound() {
+        return maxEvicted;
+    }
+
+    /**
+     * Tracked entries ordered by estimate (descending), then guaranteed count, then first slot.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Counter<K>> top(int n) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int c = Long.compare(counts[b], counts[a]);
+            if (c != 0) return c;
+            c = Long.compare(counts[b] - errors[b], counts[a] - errors[a]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+
+        List<Counter<K>> out = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, size); i++) {
+            int s = order[i];
+            out.add(new Counter<>((K) keys[s], counts[s], errors[s]));
+        }
+        return out;
+    }
+
+    /**
+     * One tracked key: estimate is an upper bound, estimate - error a lower bound.
+     */
+    public static class Counter<K> {
+        public final K key;
+        public final long estimate;
+        public final long error;
+
+        Counter(K key, long estimate, long error) {
+            this.key = key;
+            this.estimate = estimate;
+            this.error = error;
+        }
+    }
+
+    // ---------------------------------------------------------------- heap
+
+    private void siftUp(int i) {
+        int s = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (counts[p] <= counts[s]) break;
+            heap[i] = p;
+            heapPos[p] = i;
+            i = parent;
+        }
+        heap[i] = s;
+        heapPos[s] = i;
+    }
+
+    private void siftDown(int i) {
+        int s = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) child++;
+            int c = heap[child];
+            if (counts[s] <= counts[c]) break;
+            heap[i] = c;
+            heapPos[c] = i;
+            i = child;
+        }
+        heap[i] = s;
+        heapPos[s] = i;
+    }
+
+    private static long saturatingAdd(long a, long b) {
+        long r = a + b;
+        if (((a ^ r) & (b ^ r)) < 0) return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        return r;
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.payments.store;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Self-contained columnar file format for transactions.
+ *
+ * File: magic, version, row groups of up to rowGroupRows rows, then an int 0.
+ * Row group: int rows, int length + stats (a {@link ZoneMap}), long length + one
+ * length-prefixed chunk per column, so a reader can look at the stats and skip the
+ * whole group. Chunk encodings:
+ * - dictionary columns: varint codes into the group's dictionary (kept in the stats)
+ * - timestamps: zigzag varint deltas of epoch nanos, and of offset seconds
+ * - amounts: unscaled longs as zigzag varints, plus the scale (stored once when constant)
+ * - ids: varint length + UTF-8
+ * Amounts and timestamps the primitive columns cannot hold exactly (see ColumnarTransactionStore)
+ * go to side chunks as text.
+ */
+public final class ColumnarFile {
+
+    public static final int DEFAULT_ROW_GROUP_ROWS = 65536;
+
+    private static final int MAGIC = 0x50434631; // "PCF1"
+    private static final int VERSION = 1;
+
+    // column chunks of a row group, in file order
+    private static final int ID = 0;
+    private static final int AMOUNT_SCALE = 1;
+    private static final int AMOUNT = 2;
+    private static final int WIDE_AMOUNTS = 3;
+    private static final int TIMESTAMP = 4;
+    private static final int OFFSET = 5;
+    private static final int WIDE_TIMESTAMPS = 6;
+    private static final int CODES = 7;
+    private static final int CHUNKS = CODES + DictColumn.values().length;
+
+    private ColumnarFile() {}
+
+    /**
+     * Buffers rows into a ColumnarTransactionStore and writes it out as a row group when full.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel ch;
+        private final SnapshotIO.Writer out;
+        private final int rowGroupRows;
+        private ColumnarTransactionStore group;
+        private long rows;
+        private int rowGroups;
+
+        public Writer(Path path, int rowGroupRows) throws IOException {
+            this.rowGroupRows = Math.max(1, rowGroupRows);
+            this.ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new SnapshotIO.Writer(ch);
+            this.group = new ColumnarTransactionStore(this.rowGroupRows);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+        }
+
+        public void add(Transaction t) throws IOException {
+            group.add(t);
+            if (group.size() == rowGroupRows) writeGroup();
+        }
+
+        public long rows() { return rows; }
+
+        public int rowGroups() { return rowGroups; }
+
+        private void writeGroup() throws IOException {
+            ZoneMap zone = ZoneMap.of(group);
+            Bytes stats = new Bytes();
+            writeStats(zone, stats);
+            Bytes[] chunks = encode(group);
+
+            out.putInt(group.size());
+            out.putInt(stats.length);
+            out.putBytes(stats.data, stats.length);
+            long dataLength = 0;
+            for (Bytes c : chunks) dataLength += 4 + c.length;
+            out.putLong(dataLength);
+            for (Bytes c : chunks) {
+                out.putInt(c.length);
+                out.putBytes(c.data, c.length);
+            }
+
+            rows += group.size();
+            rowGroups++;
+            group = new ColumnarTransactionStore(rowGroupRows);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (group.size() > 0) writeGroup();
+                out.putInt(0);
+                out.flush();
+            } finally {
+                ch.close();
+            }
+        }
+    }
+
+    /**
+     * Walks row groups in file order: next() returns a group's zone map, then either
+     * read() decodes it or skip() moves past it without touching its columns.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel ch;
+        private final SnapshotIO.Reader in;
+        private ZoneMap zone;
+        private long dataLength = -1; // of the current group, -1 once read or skipped
+
+        public Reader(Path path) throws IOException {
+            this.ch = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.in = new SnapshotIO.Reader(ch, 0);
+                if (ch.size() < 8 || in.getInt() != MAGIC) throw new IOException("Not a columnar transaction file: " + path);
+                int version = in.getInt();
+                if (version != VERSION) throw new IOException("Unsupported columnar file version " + version + ": " + path);
+            } catch (IOException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        /** Zone map of the next row group, or null at the end of the file. */
+        public ZoneMap next() throws IOException {
+            if (dataLength >= 0) skip();
+            int rows = in.getInt();
+            if (rows == 0) return null;
+
+            byte[] stats = new byte[in.getInt()];
+            in.getBytes(stats, stats.length);
+            zone = readStats(rows, ByteBuffer.wrap(stats));
+            dataLength = in.getLong();
+            return zone;
+        }
+
+        public void skip() throws IOException {
+            in.skip(dataLength);
+            dataLength = -1;
+        }
+
+        public RowGroup read() throws IOException {
+            return read(TransactionField.all());
+        }
+
+        /**
+         * Decode only the chunks of the given fields; the others are skipped and read as
+         * absent (null id, zero amount, no timestamp, null strings).
+         */
+        public RowGroup read(Set<TransactionField> fields) throws IOException {
+            if (dataLength < 0) throw new IllegalStateException("No current row group; call next() first");
+            ByteBuffer[] chunks = new ByteBuffer[CHUNKS];
+            for (int k = 0; k < CHUNKS; k++) {
+                int length = in.getInt();
+                if (!fields.contains(field(k))) {
+                    in.skip(length);
+                    continue;
+                }
+                byte[] b = new byte[length];
+                in.getBytes(b, b.length);
+                chunks[k] = ByteBuffer.wrap(b);
+            }
+            dataLength = -1;
+            return decode(zone, chunks);
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    /**
+     * One decoded row group; dictionary codes index the zone map's values.
+     */
+    public static final class RowGroup {
+        final ZoneMap zone;
+        final int rows;
+        final byte[] idBytes;
+        final int[] idStart;
+        final int[] idLength; // -1 for a null id
+        final long[] amountUnscaled;
+        final byte[] amountScale;
+        final Map<Integer, BigDecimal> wideAmounts = new HashMap<>();
+        final long[] epochNanos;
+        final int[] offsetSeconds;
+        final Map<Integer, OffsetDateTime> wideTimestamps = new HashMap<>();
+        final int[][] codes = new int[DictColumn.values().length][]; // null for a column not read
+
+        private RowGroup(ZoneMap zone, int idArenaSize) {
+            this.zone = zone;
+            this.rows = zone.rows();
+            this.idBytes = new byte[idArenaSize];
+            this.idStart = new int[rows];
+            this.idLength = new int[rows];
+            this.amountUnscaled = new long[rows];
+            this.amountScale = new byte[rows];
+            this.epochNanos = new long[rows];
+            this.offsetSeconds = new int[rows];
+        }
+
+        public ZoneMap zone() { return zone; }
+
+        public int rows() { return rows; }
+
+        /**
+         * Materialize a row, equal to the Transaction the writer was given.
+         */
+        public Transaction transaction(int i) {
+            Transaction t = new Transaction();
+            t.setId(idLength[i] < 0 ? null : new String(idBytes, idStart[i], idLength[i], StandardCharsets.UTF_8));
+            t.setMerchantId(string(DictColumn.MERCHANT_ID, i));
+            t.setMerchantName(string(DictColumn.MERCHANT_NAME, i));
+            t.setMerchantCategory(string(DictColumn.MERCHANT_CATEGORY, i));
+            byte scale = amountScale[i];
+            if (scale >= 0) t.setAmount(amountUnscaled[i], scale);
+            else t.setAmount(scale == ColumnarTransactionStore.SCALE_WIDE ? wideAmounts.get(i) : null);
+            t.setCurrency(string(DictColumn.CURRENCY, i));
+            t.setStatus(string(DictColumn.STATUS, i));
+            OffsetDateTime wide = wideTimestamps.get(i);
+            t.setTimestamp(wide != null ? wide : ColumnarTransactionStore.toTimestamp(epochNanos[i], offsetSeconds[i]));
+            t.setPaymentType(string(DictColumn.PAYMENT_TYPE, i));
+            t.setLocation(string(DictColumn.LOCATION, i));
+            t.setCustomerId(string(DictColumn.CUSTOMER_ID, i));
+            return t;
+        }
+
+        private String string(DictColumn c, int i) {
+            if (codes[c.ordinal()] == null) return null;
+            int code = codes[c.ordinal()][i];
+            return code < 0 ? null : zone.dictionary(c)[code];
+        }
+
+        /**
+         * Append every row to a store, remapping dictionary codes without building Transactions.
+         */
+        public void appendTo(ColumnarTransactionStore store) {
+            store.addAll(this);
+        }
+    }
+
+    // ---------------------------------------------------------------- encoding
+
+    private static void writeStats(ZoneMap zone, Bytes b) {
+        b.putLong(zone.minEpochNanos());
+        b.putLong(zone.maxEpochNanos());
+        b.putString(zone.minAmount() == null ? null : zone.minAmount().toString());
+        b.putString(zone.maxAmount() == null ? null : zone.maxAmount().toString());
+        for (DictColumn c : DictColumn.values()) {
+            String[] values = zone.dictionary(c);
+            b.putVarLong(values.length);
+            for (String v : values) b.putString(v);
+        }
+    }
+
+    private static ZoneMap readStats(int rows, ByteBuffer b) {
+        long minTs = b.getLong();
+        long maxTs = b.getLong();
+        String minAmt = getString(b);
+        String maxAmt = getString(b);
+        String[][] values = new String[DictColumn.values().length][];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = new String[(int) getVarLong(b)];
+            for (int k = 0; k < values[c].length; k++) values[c][k] = getString(b);
+        }
+        return new ZoneMap(rows, minTs, maxTs,
+                minAmt == null ? null : new BigDecimal(minAmt),
+                maxAmt == null ? null : new BigDecimal(maxAmt), values);
+    }
+
+    private static Bytes[] encode(ColumnarTransactionStore g) {
+        Bytes[] c = new Bytes[CHUNKS];
+        for (int k = 0; k < CHUNKS; k++) c[k] = new Bytes();
+        int n = g.size();
+
+        boolean constantScale = true;
+        for (int row = 1; row < n && constantScale; row++) constantScale = g.amountScale(row) == g.amountScale(0);
+        c[AMOUNT_SCALE].put((byte) (constantScale ? 1 : 0));
+        if (constantScale) c[AMOUNT_SCALE].put((byte) g.amountScale(0));
+
+        long prevTs = 0;
+        int prevOffset = 0;
+        for (int row = 0; row < n; row++) {
+            c[ID].putString(g.id(row));
+
+            if (!constantScale) c[AMOUNT_SCALE].put((byte) g.amountScale(row));
+            c[AMOUNT].putZigZag(g.isCompactAmount(row) ? g.amountUnscaled(row) : 0);
+            if (g.amountScale(row) == ColumnarTransactionStore.SCALE_WIDE) {
+                c[WIDE_AMOUNTS].putVarLong(row);
+                c[WIDE_AMOUNTS].putString(g.amount(row).toString());
+            }
+
+            // deltas wrap around on overflow and unwrap the same way on decode
+            long ts = g.epochNanos(row);
+            c[TIMESTAMP].putZigZag(ts - prevTs);
+            prevTs = ts;
+            int offset = g.offsetSeconds(row);
+            c[OFFSET].putZigZag(offset - prevOffset);
+            prevOffset = offset;
+            if (g.isWideTimestamp(row)) {
+                c[WIDE_TIMESTAMPS].putVarLong(row);
+                c[WIDE_TIMESTAMPS].putString(g.timestamp(row).toString());
+            }
+
+            for (DictColumn col : DictColumn.values()) c[CODES + col.ordinal()].putVarLong(g.code(col, row) + 1);
+        }
+        return c;
+    }
+
+    /** Field whose values a chunk holds. */
+    private static TransactionField field(int chunk) {
+        return switch (chunk) {
+            case ID -> TransactionField.ID;
+            case AMOUNT_SCALE, AMOUNT, WIDE_AMOUNTS -> TransactionField.AMOUNT;
+            case TIMESTAMP, OFFSET, WIDE_TIMESTAMPS -> TransactionField.TIMESTAMP;
+            default -> DictColumn.values()[chunk - CODES].transactionField();
+        };
+    }
+
+    /** Chunks left null (not read) decode as absent values. */
+    private static RowGroup decode(ZoneMap zone, ByteBuffer[] c) {
+        RowGroup g = new RowGroup(zone, c[ID] == null ? 0 : c[ID].remaining());
+        int n = g.rows;
+
+        if (c[ID] == null) Arrays.fill(g.idLength, -1);
+        int idPos = 0;
+        for (int i = 0; c[ID] != null && i < n; i++) {
+            int len = (int) getVarLong(c[ID]) - 1;
+            g.idStart[i] = idPos;
+            g.idLength[i] = len;
+            if (len > 0) {
+                c[ID].get(g.idBytes, idPos, len);
+                idPos += len;
+            }
+        }
+
+        if (c[AMOUNT] != null) {
+            if (c[AMOUNT_SCALE].get() == 1) Arrays.fill(g.amountScale, c[AMOUNT_SCALE].get());
+            else c[AMOUNT_SCALE].get(g.amountScale);
+            for (int i = 0; i < n; i++) g.amountUnscaled[i] = getZigZag(c[AMOUNT]);
+            while (c[WIDE_AMOUNTS].hasRemaining()) {
+                g.wideAmounts.put((int) getVarLong(c[WIDE_AMOUNTS]), new BigDecimal(getString(c[WIDE_AMOUNTS])));
+            }
+        }
+
+        if (c[TIMESTAMP] == null) {
+            Arrays.fill(g.epochNanos, ColumnarTransactionStore.NO_TIMESTAMP);
+        } else {
+            long ts = 0;
+            int offset = 0;
+            for (int i = 0; i < n; i++) {
+                ts += getZigZag(c[TIMESTAMP]);
+                g.epochNanos[i] = ts;
+                offset += (int) getZigZag(c[OFFSET]);
+                g.offsetSeconds[i] = offset;
+            }
+            while (c[WIDE_TIMESTAMPS].hasRemaining()) {
+                g.wideTimestamps.put((int) getVarLong(c[WIDE_TIMESTAMPS]), OffsetDateTime.parse(getString(c[WIDE_TIMESTAMPS])));
+            }
+        }
+
+        for (DictColumn col : DictColumn.values()) {
+            ByteBuffer chunk = c[CODES + col.ordinal()];
+            if (chunk == null) continue;
+            int[] codes = g.codes[col.ordinal()] = new int[n];
+            for (int i = 0; i < n; i++) codes[i] = (int) getVarLong(chunk) - 1;
+        }
+        return g;
+    }
+
+    private static long getVarLong(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+    }
+
+    private static long getZigZag(ByteBuffer b) {
+        long v = getVarLong(b);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** varint length + 1 (0 for null), then UTF-8 */
+    private static String getString(ByteBuffer b) {
+        int len = (int) getVarLong(b) - 1;
+        if (len < 0) return null;
+        String s = new String(b.array(), b.arrayOffset() + b.position(), len, StandardCharsets.UTF_8);
+        b.position(b.position() + len);
+        return s;
+    }
+
+    /**
+     * Growable byte array for encoding one chunk.
+     */
+    private static final class Bytes {
+        byte[] data = new byte[256];
+        int length;
+
+        void put(byte v) {
+            if (length == data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[length++] = v;
+        }
+
+        void putLong(long v) {
+            for (int shift = 56; shift >= 0; shift -= 8) put((byte) (v >>> shift));
+        }
+
+        void putVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            put((byte) v);
+        }
+
+        void putZigZag(long v) {
+            putVarLong((v << 1) ^ (v >> 63));
+        }
+
+        void putString(String s) {
+            if (s == null) {
+                putVarLong(0);
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            putVarLong(b.length + 1L);
+            if (length + b.length > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + b.length));
+            System.arraycopy(b, 0, data, length, b.length);
+            length += b.length;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.payments.store;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.utils.IsoTimestampParser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Struct-of-arrays transaction store.
+ *
+ * Per row it keeps:
+ * - amount as unscaled long + scale byte (the exact BigDecimal encoding; values that
+ *   do not fit go to a side map)
+ * - timestamp as epoch nanos + offset seconds (out-of-range values saturate and are
+ *   kept exactly in a side map, so comparisons on the long column stay correct)
+ * - int dictionary codes for every {@link DictColumn}
+ * - transaction id as UTF-8 bytes in a shared arena
+ *
+ * Filters and analytics scan the primitive columns directly; {@link #get(int)}
+ * builds a Transaction only when one is actually needed.
+ */
+public class ColumnarTransactionStore {
+
+    public static final long NO_TIMESTAMP = IsoTimestampParser.NO_TIMESTAMP;
+
+    static final byte SCALE_NULL = Byte.MIN_VALUE;     // amount is null
+    static final byte SCALE_WIDE = Byte.MIN_VALUE + 1; // exact amount held in wideAmounts
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private int size;
+
+    private long[] amountUnscaled;
+    private byte[] amountScale;
+    private final Map<Integer, BigDecimal> wideAmounts = new HashMap<>();
+
+    private long[] epochNanos;
+    private int[] offsetSeconds;
+    private final Map<Integer, OffsetDateTime> wideTimestamps = new HashMap<>();
+
+    private final int[][] codes = new int[DictColumn.values().length][];
+    private final StringDictionary[] dictionaries = new StringDictionary[DictColumn.values().length];
+
+    private byte[] idBytes = new byte[4096];
+    private int idLength;
+    private int[] idEnd;
+    private final BitSet nullIds = new BitSet();
+
+    public ColumnarTransactionStore() {
+        this(1024);
+    }
+
+    public ColumnarTransactionStore(int initialCapacity) {
+        int cap = Math.max(16, initialCapacity);
+        amountUnscaled = new long[cap];
+        amountScale = new byte[cap];
+        epochNanos = new long[cap];
+        offsetSeconds = new int[cap];
+        idEnd = new int[cap];
+        for (DictColumn c : DictColumn.values()) {
+            codes[c.ordinal()] = new int[cap];
+            dictionaries[c.ordinal()] = new StringDictionary();
+        }
+    }
+
+    /**
+     * Append one transaction; returns its row number.
+     */
+    public int add(Transaction t) {
+        if (size == amountUnscaled.length) grow();
+        int row = size;
+
+        if (t.hasCompactAmount()) {
+            amountUnscaled[row] = t.amountUnscaled();
+            amountScale[row] = (byte) t.amountScale();
+        } else {
+            setAmount(row, t.getAmount());
+        }
+        setTimestamp(row, t.getTimestamp());
+        for (DictColumn c : DictColumn.values()) {
+            codes[c.ordinal()][row] = dictionaries[c.ordinal()].encode(c.valueOf(t));
+        }
+        appendId(row, t.getId());
+
+        size++;
+        return row;
+    }
+
+    public int size() { return size; }
+
+    // ---------------------------------------------------------------- dictionary columns
+
+    public int code(DictColumn c, int row) { return codes[c.ordinal()][row]; }
+
+    public StringDictionary dictionary(DictColumn c) { return dictionaries[c.ordinal()]; }
+
+    public String string(DictColumn c, int row) {
+        return dictionaries[c.ordinal()].decode(codes[c.ordinal()][row]);
+    }
+
+    // ---------------------------------------------------------------- amount column
+
+    public boolean hasAmount(int row) { return amountScale[row] != SCALE_NULL; }
+
+    /**
+     * True when the amount is held as unscaled long + scale (see {@link #amountUnscaled}).
+     */
+    public boolean isCompactAmount(int row) { return amountScale[row] >= 0; }
+
+    public long amountUnscaled(int row) { return amountUnscaled[row]; }
+
+    public int amountScale(int row) { return amountScale[row]; }
+
+    /**
+     * Exact amount as the reader produced it (same unscaled value and scale), or null.
+     */
+    public BigDecimal amount(int row) {
+        byte scale = amountScale[row];
+        if (scale == SCALE_NULL) return null;
+        if (scale == SCALE_WIDE) return wideAmounts.get(row);
+        return BigDecimal.valueOf(amountUnscaled[row], scale);
+    }
+
+    // ---------------------------------------------------------------- timestamp column
+
+    /**
+     * Epoch nanoseconds, or NO_TIMESTAMP. Instants outside the long range saturate.
+     */
+    public long epochNanos(int row) { return epochNanos[row]; }
+
+    /**
+     * True when epochNanos(row) is a saturated placeholder and timestamp(row) must be used to compare.
+     */
+    public boolean isWideTimestamp(int row) {
+        return IsoTimestampParser.isSaturated(epochNanos[row]);
+    }
+
+    /**
+     * Epoch nanos of a timestamp, saturating outside the long range; NO_TIMESTAMP for null.
+     */
+    public static long epochNanosOf(OffsetDateTime ts) {
+        return IsoTimestampParser.epochNanos(ts);
+    }
+
+    public int offsetSeconds(int row) { return offsetSeconds[row]; }
+
+    public OffsetDateTime timestamp(int row) {
+        OffsetDateTime wide = wideTimestamps.get(row);
+        return wide != null ? wide : toTimestamp(epochNanos[row], offsetSeconds[row]);
+    }
+
+    /**
+     * Timestamp of a non-saturated epoch nanos value, or null for NO_TIMESTAMP.
+     */
+    static OffsetDateTime toTimestamp(long epochNanos, int offsetSeconds) {
+        if (epochNanos == NO_TIMESTAMP) return null;
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    // ---------------------------------------------------------------- id column
+
+    public String id(int row) {
+        if (nullIds.get(row)) return null;
+        int start = row == 0 ? 0 : idEnd[row - 1];
+        return new String(idBytes, start, idEnd[row] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Materialize a row as a Transaction (allocates; use for output, not for scans).
+     */
+    public Transaction get(int row) {
+        Transaction t = new Transaction();
+        t.setId(id(row));
+        t.setMerchantId(string(DictColumn.MERCHANT_ID, row));
+        t.setMerchantName(string(DictColumn.MERCHANT_NAME, row));
+        t.setMerchantCategory(string(DictColumn.MERCHANT_CATEGORY, row));
+        if (isCompactAmount(row)) t.setAmount(amountUnscaled[row], amountScale[row]);
+        else t.setAmount(amount(row));
+        t.setCurrency(string(DictColumn.CURRENCY, row));
+        t.setStatus(string(DictColumn.STATUS, row));
+        t.setTimestamp(timestamp(row));
+        t.setPaymentType(string(DictColumn.PAYMENT_TYPE, row));
+        t.setLocation(string(DictColumn.LOCATION, row));
+        t.setCustomerId(string(DictColumn.CUSTOMER_ID, row));
+        return t;
+    }
+
+    /**
+     * Append a decoded ColumnarFile row group: primitive columns are copied and the group's
+     * dictionary codes are remapped to this store's codes once per distinct value.
+     */
+    void addAll(ColumnarFile.RowGroup g) {
+        int[][] remap = new int[codes.length][];
+        for (DictColumn c : DictColumn.values()) {
+            if (g.codes[c.ordinal()] == null) continue; // column not read
+            String[] values = g.zone.dictionary(c);
+            remap[c.ordinal()] = new int[values.length];
+            for (int k = 0; k < values.length; k++) remap[c.ordinal()][k] = dictionaries[c.ordinal()].encode(values[k]);
+        }
+
+        for (int i = 0; i < g.rows; i++) {
+            if (size == amountUnscaled.length) grow();
+            int row = size;
+
+            amountUnscaled[row] = g.amountUnscaled[i];
+            amountScale[row] = g.amountScale[i];
+            if (amountScale[row] == SCALE_WIDE) wideAmounts.put(row, g.wideAmounts.get(i));
+            epochNanos[row] = g.epochNanos[i];
+            offsetSeconds[row] = g.offsetSeconds[i];
+            if (isWideTimestamp(row)) wideTimestamps.put(row, g.wideTimestamps.get(i));
+            for (int c = 0; c < codes.length; c++) {
+                int code = g.codes[c] == null ? -1 : g.codes[c][i];
+                codes[c][row] = code < 0 ? -1 : remap[c][code];
+            }
+            appendId(row, g.idBytes, g.idStart[i], g.idLength[i]);
+
+            size++;
+        }
+    }
+
+    // ---------------------------------------------------------------- snapshot
+
+    /**
+     * Write all rows at the channel's position: dictionaries, then each column as one
+     * contiguous block, then the side maps. load() reads it back.
+     */
+    public void save(FileChannel ch) throws IOException {
+        SnapshotIO.Writer out = new SnapshotIO.Writer(ch);
+        out.putInt(size);
+        for (StringDictionary d : dictionaries) {
+            out.putInt(d.size());
+            for (int code = 0; code < d.size(); code++) out.putString(d.decode(code));
+        }
+
+        out.putLongs(amountUnscaled, size);
+        out.putBytes(amountScale, size);
+        out.putLongs(epochNanos, size);
+        out.putInts(offsetSeconds, size);
+        for (int[] column : codes) out.putInts(column, size);
+        out.putInts(idEnd, size);
+        out.putInt(idLength);
+        out.putBytes(idBytes, idLength);
+
+        long[] nulls = nullIds.toLongArray();
+        out.putInt(nulls.length);
+        out.putLongs(nulls, nulls.length);
+        out.putInt(wideAmounts.size());
+        for (var e : new TreeMap<>(wideAmounts).entrySet()) {
+            out.putInt(e.getKey());
+            out.putString(e.getValue().toString());
+        }
+        out.putInt(wideTimestamps.size());
+        for (var e : new TreeMap<>(wideTimestamps).entrySet()) {
+            out.putInt(e.getKey());
+            out.putString(e.getValue().toString());
+        }
+        out.flush();
+    }
+
+    /**
+     * Fill this (empty) store from a save() at the given file position; columns are
+     * bulk-copied from memory-mapped windows.
+     */
+    public void load(FileChannel ch, long position) throws IOException {
+        if (size != 0) throw new IllegalStateException("Snapshot can only be loaded into an empty store");
+        SnapshotIO.Reader in = new SnapshotIO.Reader(ch, position);
+
+        int rows = in.getInt();
+        for (StringDictionary d : dictionaries) {
+            int n = in.getInt();
+            for (int code = 0; code < n; code++) d.encode(in.getString()); // same order -> same codes
+        }
+
+        int cap = Math.max(16, rows);
+        amountUnscaled = new long[cap];
+        amountScale = new byte[cap];
+        epochNanos = new long[cap];
+        offsetSeconds = new int[cap];
+        idEnd = new int[cap];
+        in.getLongs(amountUnscaled, rows);
+        in.getBytes(amountScale, rows);
+        in.getLongs(epochNanos, rows);
+        in.getInts(offsetSeconds, rows);
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = new int[cap];
+            in.getInts(codes[i], rows);
+        }
+        in.getInts(idEnd, rows);
+        idLength = in.getInt();
+        idBytes = new byte[Math.max(4096, idLength)];
+        in.getBytes(idBytes, idLength);
+
+        long[] nulls = new long[in.getInt()];
+        in.getLongs(nulls, nulls.length);
+        nullIds.or(BitSet.valueOf(nulls));
+        for (int n = in.getInt(); n > 0; n--) wideAmounts.put(in.getInt(), new BigDecimal(in.getString()));
+        for (int n = in.getInt(); n > 0; n--) wideTimestamps.put(in.getInt(), OffsetDateTime.parse(in.getString()));
+        size = rows;
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    private void setAmount(int row, BigDecimal amount) {
+        if (amount == null) {
+            amountScale[row] = SCALE_NULL;
+            return;
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= Byte.MAX_VALUE
+                && unscaled.compareTo(LONG_MIN) >= 0 && unscaled.compareTo(LONG_MAX) <= 0) {
+            amountUnscaled[row] = unscaled.longValue();
+            amountScale[row] = (byte) scale;
+        } else {
+            amountScale[row] = SCALE_WIDE;
+            wideAmounts.put(row, amount);
+        }
+    }
+
+    private void setTimestamp(int row, OffsetDateTime ts) {
+        if (ts == null) {
+            epochNanos[row] = NO_TIMESTAMP;
+            return;
+        }
+        offsetSeconds[row] = ts.getOffset().getTotalSeconds();
+        epochNanos[row] = epochNanosOf(ts);
+        if (isWideTimestamp(row)) wideTimestamps.put(row, ts);
+    }
+
+    private void appendId(int row, String id) {
+        if (id == null) {
+            appendId(row, null, 0, -1);
+            return;
+        }
+        byte[] b = id.getBytes(StandardCharsets.UTF_8);
+        appendId(row, b, 0, b.length);
+    }
+
+    /** UTF-8 id bytes b[start, start + length); length -1 for a null id. */
+    private void appendId(int row, byte[] b, int start, int length) {
+        if (length < 0) {
+            nullIds.set(row);
+            idEnd[row] = idLength;
+            return;
+        }
+        if (idLength + length > idBytes.length) {
+            long want = Math.max((long) idBytes.length * 2, (long) idLength + length);
+            if (want > Integer.MAX_VALUE - 8) throw new IllegalStateException("Transaction id arena exceeds 2 GB");
+            idBytes = Arrays.copyOf(idBytes, (int) want);
+        }
+        System.arraycopy(b, start, idBytes, idLength, length);
+        idLength += length;
+        idEnd[row] = idLength;
+    }
+
+    private void grow() {
+        int cap = amountUnscaled.length * 2;
+        amountUnscaled = Arrays.copyOf(amountUnscaled, cap);
+        amountScale = Arrays.copyOf(amountScale, cap);
+        epochNanos = Arrays.copyOf(epochNanos, cap);
+        offsetSeconds = Arrays.copyOf(offsetSeconds, cap);
+        idEnd = Arrays.copyOf(idEnd, cap);
+        for (int i = 0; i < codes.length; i++) codes[i] = Arrays.copyOf(codes[i], cap);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.payments.store;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.model.TransactionField;
+
+import java.util.function.Function;
+
+/**
+ * Dictionary-encoded string columns of the columnar store, keyed by the
+ * Transaction field name used in configuration.
+ */
+public enum DictColumn {
+    MERCHANT_ID("merchantId", Transaction::getMerchantId),
+    MERCHANT_NAME("merchantName", Transaction::getMerchantName),
+    MERCHANT_CATEGORY("merchantCategory", Transaction::getMerchantCategory),
+    PAYMENT_TYPE("paymentType", Transaction::getPaymentType),
+    STATUS("status", Transaction::getStatus),
+    LOCATION("location", Transaction::getLocation),
+    CURRENCY("currency", Transaction::getCurrency),
+    CUSTOMER_ID("customerId", Transaction::getCustomerId);
+
+    private final String field;
+    private final Function<Transaction, String> getter;
+
+    DictColumn(String field, Function<Transaction, String> getter) {
+        this.field = field;
+        this.getter = getter;
+    }
+
+    public String field() { return field; }
+
+    public String valueOf(Transaction t) { return getter.apply(t); }
+
+    public TransactionField transactionField() { return TransactionField.valueOf(name()); }
+
+    /**
+     * Resolve a config field name (e.g. "paymentType"); null when the field is not dictionary-encoded.
+     */
+    public static DictColumn fromField(String field) {
+        if (field == null) return null;
+        for (DictColumn c : values()) {
+            if (c.field.equalsIgnoreCase(field)) return c;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.payments.store;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints (row numbers) in the Roaring layout: values are split
+ * by their high 16 bits into containers, each holding the low 16 bits either as a sorted
+ * char array (up to 4096 values) or as a 65536-bit bitmap. Immutable once built; and/or
+ * return new sets. Built with a Builder from ascending values or from a plain bitset.
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024; // 65536 bits per container
+
+    public static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0], 0);
+
+    private final char[] keys;             // high 16 bits, ascending
+    private final Container[] containers;
+    private final int size;
+
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) n += containers[i].cardinality();
+        return n;
+    }
+
+    public boolean contains(int value) {
+        int k = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return k >= 0 && containers[k].contains((char) value);
+    }
+
+    /** Visit the values in ascending order. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) containers[i].forEach(keys[i] << 16, action);
+    }
+
+    /** The values in ascending order. */
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int[] n = new int[1];
+        forEach(v -> out[n[0]++] = v);
+        return out;
+    }
+
+    /** Approximate heap bytes of the containers. */
+    public long sizeInBytes() {
+        long bytes = 2L * size;
+        for (int i = 0; i < size; i++) bytes += containers[i].sizeInBytes();
+        return bytes;
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        Builder out = new Builder();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                out.put(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        Builder out = new Builder();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                out.put(keys[i], containers[i]);
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                out.put(other.keys[j], other.containers[j]);
+                j++;
+            } else {
+                out.put(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    /**
+     * The set bits of a plain bitset (bit i of words[i / 64] for value i).
+     */
+    public static RoaringBitmap fromWords(long[] words) {
+        Builder out = new Builder();
+        for (int from = 0; from < words.length; from += WORDS) {
+            int to = Math.min(words.length, from + WORDS);
+            int card = 0;
+            for (int w = from; w < to; w++) card += Long.bitCount(words[w]);
+            if (card == 0) continue;
+
+            long[] bits = Arrays.copyOfRange(words, from, from + WORDS);
+            out.put((char) (from / WORDS), new BitmapContainer(bits, card).shrink());
+        }
+        return out.build();
+    }
+
+    /**
+     * Collects ascending values; add() must be called in increasing order.
+     */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Container[] containers = new Container[4];
+        private int size;
+
+        // container being filled by add()
+        private int currentKey = -1;
+        private char[] values = new char[16];
+        private int count;
+        private long[] bits;
+
+        public Builder add(int value) {
+            int key = value >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) value;
+            if (bits != null) {
+                bits[low >>> 6] |= 1L << low;
+                count++;
+            } else if (count < ARRAY_MAX) {
+                if (count == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, count * 2));
+                values[count++] = low;
+            } else {
+                bits = new long[WORDS];
+                for (int k = 0; k < count; k++) bits[values[k] >>> 6] |= 1L << values[k];
+                bits[low >>> 6] |= 1L << low;
+                count++;
+            }
+            return this;
+        }
+
+        private void flush() {
+            if (currentKey < 0 || count == 0) return;
+            put((char) currentKey, bits != null
+                    ? new BitmapContainer(bits, count)
+                    : new ArrayContainer(Arrays.copyOf(values, count)));
+            bits = null;
+            count = 0;
+        }
+
+        private void put(char key, Container c) {
+            if (c == null || c.cardinality() == 0) return;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            keys[size] = key;
+            containers[size++] = c;
+        }
+
+        public RoaringBitmap build() {
+            flush();
+            currentKey = -1;
+            return new RoaringBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), size);
+        }
+    }
+
+    // ---------------------------------------------------------------- containers
+
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract void forEach(int high, IntConsumer action);
+
+        abstract long sizeInBytes();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+    }
+
+    private static final class ArrayContainer extends Container {
+        final char[] values; // ascending
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        int cardinality() { return values.length; }
+
+        boolean contains(char low) { return Arrays.binarySearch(values, low) >= 0; }
+
+        void forEach(int high, IntConsumer action) {
+            for (char v : values) action.accept(high | v);
+        }
+
+        long sizeInBytes() { return 16 + 2L * values.length; }
+
+        Container and(Container other) {
+            char[] out = new char[values.length];
+            int n = 0;
+            if (other instanceof ArrayContainer a) {
+                int i = 0, j = 0;
+                while (i < values.length && j < a.values.length) {
+                    if (values[i] < a.values[j]) i++;
+                    else if (values[i] > a.values[j]) j++;
+                    else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (char v : values) if (other.contains(v)) out[n++] = v;
+            }
+            return new ArrayContainer(Arrays.copyOf(out, n));
+        }
+
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            ArrayContainer a = (ArrayContainer) other;
+            char[] out = new char[values.length + a.values.length];
+            int i = 0, j = 0, n = 0;
+            while (i < values.length || j < a.values.length) {
+                if (j == a.values.length || (i < values.length && values[i] < a.values[j])) out[n++] = values[i++];
+                else if (i == values.length || values[i] > a.values[j]) out[n++] = a.values[j++];
+                else {
+                    out[n++] = values[i++];
+                    j++;
+                }
+            }
+            if (n <= ARRAY_MAX) return new ArrayContainer(Arrays.copyOf(out, n));
+            long[] bits = new long[WORDS];
+            for (int k = 0; k < n; k++) bits[out[k] >>> 6] |= 1L << out[k];
+            return new BitmapContainer(bits, n);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] bits;
+        final int cardinality;
+
+        BitmapContainer(long[] bits, int cardinality) {
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        /** The same values as an array container when they fit. */
+        Container shrink() {
+            if (cardinality > ARRAY_MAX) return this;
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    values[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values);
+        }
+
+        int cardinality() { return cardinality; }
+
+        boolean contains(char low) { return (bits[low >>> 6] & (1L << low)) != 0; }
+
+        void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    action.accept(high | (w * 64 + Long.numberOfTrailingZeros(word)));
+                }
+            }
+        }
+
+        long sizeInBytes() { return 16 + 8L * WORDS; }
+
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] o = ((BitmapContainer) other).bits;
+            long[] out = new long[WORDS];
+            int card = 0;
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = bits[w] & o[w];
+                card += Long.bitCount(out[w]);
+            }
+            return new BitmapContainer(out, card).shrink();
+        }
+
+        Container or(Container other) {
+            long[] out = bits.clone();
+            if (other instanceof ArrayContainer a) {
+                for (char v : a.values) out[v >>> 6] |= 1L << v;
+            } else {
+                long[] o = ((BitmapContainer) other).bits;
+                for (int w = 0; w < WORDS; w++) out[w] |= o[w];
+            }
+            int card = 0;
+            for (long word : out) card += Long.bitCount(word);
+            return new BitmapContainer(out, card);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.payments.store;
+
+import com.example.payments.model.Transaction;
+import com.example.payments.utils.FixedPoint;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Pre-aggregated count / sum / min / max of amounts per (UTC time bucket, dimension values).
+ *
+ * Cells live in an open-addressing table keyed by two longs: the bucket number and the
+ * dimension codes packed into one word (63 / dimensions bits each), so adding a row does
+ * not allocate. Dimension values are dictionary-encoded per cube; null is stored as UNKNOWN.
+ * The largest code of each dimension is reserved for OTHER: values that no longer fit in
+ * the packed word are counted there, whether added row by row or merged from another cube
+ * (which values end up in OTHER then depends on the order they were first seen).
+ * Amounts are kept as longs in 10^-valueScale units (HALF_EVEN). A cell whose sum or a
+ * single amount does not fit in a long is flagged as overflowed and reports no sum.
+ *
+ * A cube can be written to a compact binary file and read back, and rollUp() derives a
+ * coarser granularity from the cells alone, without the transactions.
+ */
+public class RollupCube {
+
+    private static final int MAGIC = 0x50435542; // "PCUB"
+    private static final int VERSION = 2; // 2 adds the per-cell overflow flag
+
+    public static final String OTHER = "OTHER";
+
+    public enum Granularity {
+        MINUTE(60), HOUR(3600), DAY(86400);
+
+        public final long seconds;
+
+        Granularity(long seconds) {
+            this.seconds = seconds;
+        }
+
+        public static Granularity parse(String v) {
+            return valueOf(v.trim().toUpperCase());
+        }
+    }
+
+    private final Granularity granularity;
+    private final DictColumn[] dimensions;
+    private final int valueScale;
+    private final StringDictionary[] dictionaries;
+    private final int bits;
+    private final int otherCode; // reserved code for values past the packed-word capacity
+
+    // cells
+    private long[] buckets = new long[64];
+    private long[] tuples = new long[64];
+    private long[] counts = new long[64];
+    private long[] amountCounts = new long[64];
+    private long[] sums = new long[64];
+    private long[] mins = new long[64];
+    private long[] maxs = new long[64];
+    private boolean[] overflows = new boolean[64];
+    private int size;
+    private int[] table = new int[128]; // slot + 1, 0 = empty
+
+    // columnar store code -> cube code + 1, per dimension
+    private ColumnarTransactionStore remapStore;
+    private int[][] remap;
+
+    public RollupCube(Granularity granularity, DictColumn[] dimensions, int valueScale) {
+        if (dimensions.length > 4) throw new IllegalArgumentException("At most 4 dimensions");
+        this.granularity = granularity;
+        this.dimensions = dimensions.clone();
+        this.valueScale = valueScale;
+        this.dictionaries = new StringDictionary[dimensions.length];
+        for (int i = 0; i < dimensions.length; i++) dictionaries[i] = new StringDictionary();
+        this.bits = dimensions.length == 0 ? 0 : 63 / dimensions.length;
+        this.otherCode = bits >= 31 ? Integer.MAX_VALUE : (1 << bits) - 1;
+    }
+
+    public Granularity granularity() { return granularity; }
+
+    public DictColumn[] dimensions() { return dimensions.clone(); }
+
+    public int valueScale() { return valueScale; }
+
+    /** Number of non-empty cells. */
+    public int size() { return size; }
+
+    /**
+     * Adds one row; false when it has no timestamp.
+     */
+    public boolean add(Transaction t) {
+        if (t.getTimestamp() == null) return false;
+
+        long tuple = 0;
+        for (int d = 0; d < dimensions.length; d++) {
+            tuple = tuple << bits | cap(dictionaries[d].encode(nullToUnknown(dimensions[d].valueOf(t))));
+        }
+
+        long bucket = Math.floorDiv(t.getTimestamp().toEpochSecond(), granularity.seconds);
+        int slot = slot(bucket, tuple);
+        if (t.hasCompactAmount()) addAmount(slot, 1, FixedPoint.rescale(t.amountUnscaled(), t.amountScale(), valueScale));
+        else if (t.getAmount() != null) addAmount(slot, 1, FixedPoint.rescale(t.getAmount(), valueScale));
+        counts[slot]++;
+        return true;
+    }
+
+    public boolean add(ColumnarTransactionStore store, int row) {
+        long nanos = store.epochNanos(row);
+        if (nanos == ColumnarTransactionStore.NO_TIMESTAMP) return false;
+        if (store != remapStore) {
+            remapStore = store;
+            remap = new int[dimensions.length][0];
+        }
+
+        long tuple = 0;
+        for (int d = 0; d < dimensions.length; d++) {
+            int storeCode = store.code(dimensions[d], row) + 1; // null -> 0
+            int[] m = remap[d];
+            if (storeCode >= m.length) {
+                m = remap[d] = Arrays.copyOf(m, Math.max(storeCode + 1, store.dictionary(dimensions[d]).size() + 1));
+            }
+            if (m[storeCode] == 0) {
+                m[storeCode] = dictionaries[d].encode(nullToUnknown(store.dictionary(dimensions[d]).decode(storeCode - 1))) + 1;
+            }
+            tuple = tuple << bits | cap(m[storeCode] - 1);
+        }
+
+        long epochSecond = store.isWideTimestamp(row)
+                ? store.timestamp(row).toEpochSecond()
+                : Math.floorDiv(nanos, 1_000_000_000L);
+        int slot = slot(Math.floorDiv(epochSecond, granularity.seconds), tuple);
+        if (store.isCompactAmount(row)) addAmount(slot, 1, FixedPoint.rescale(store.amountUnscaled(row), store.amountScale(row), valueScale));
+        else if (store.hasAmount(row)) addAmount(slot, 1, FixedPoint.rescale(store.amount(row), valueScale));
+        counts[slot]++;
+        return true;
+    }
+
+    /**
+     * Adds every cell of a cube with the same granularity, dimensions and scale.
+     */
+    public void merge(RollupCube other) {
+        checkCompatible(other);
+        mergeCells(other, 1);
+    }
+
+    /**
+     * The same cells summed into a coarser granularity (a multiple of this one).
+     */
+    public RollupCube rollUp(Granularity coarser) {
+        if (coarser.seconds % granularity.seconds != 0) {
+            throw new IllegalArgumentException("Cannot roll " + granularity + " up to " + coarser);
+        }
+        RollupCube out = new RollupCube(coarser, dimensions, valueScale);
+        out.mergeCells(this, coarser.seconds / granularity.seconds);
+        return out;
+    }
+
+    private void mergeCells(RollupCube other, long bucketFactor) {
+        for (int s = 0; s < other.size; s++) {
+            long tuple = 0;
+            for (int d = 0; d < dimensions.length; d++) {
+                int code = other.code(other.tuples[s], d);
+                // the other cube's OTHER cell stays OTHER; its values are re-encoded under the same cap as add()
+                int mine = code == other.otherCode ? otherCode : cap(dictionaries[d].encode(other.dictionaries[d].decode(code)));
+                tuple = tuple << bits | mine;
+            }
+            int slot = slot(Math.floorDiv(other.buckets[s], bucketFactor), tuple);
+            counts[slot] += other.counts[s];
+            if (other.amountCounts[s] > 0) {
+                addAmount(slot, other.amountCounts[s], other.sums[s]);
+                mins[slot] = Math.min(mins[slot], other.mins[s]);
+                maxs[slot] = Math.max(maxs[slot], other.maxs[s]);
+            }
+            overflows[slot] |= other.overflows[s];
+        }
+    }
+
+    /**
+     * Cells ordered by bucket, then dimension values: bucket (start, UTC), one entry per
+     * dimension, count, and sum / min / max over the rows that had an amount. An overflowed
+     * cell has "overflow": true and a null sum (and null min / max where those overflowed).
+     */
+    public List<Map<String, Object>> rows() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int c = Long.compare(buckets[a], buckets[b]);
+            for (int d = 0; c == 0 && d < dimensions.length; d++) {
+                c = value(d, code(tuples[a], d)).compareTo(value(d, code(tuples[b], d)));
+            }
+            return c;
+        });
+
+        List<Map<String, Object>> rows = new ArrayList<>(size);
+        for (int s : order) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("bucket", OffsetDateTime.ofInstant(Instant.ofEpochSecond(buckets[s] * granularity.seconds), ZoneOffset.UTC));
+            for (int d = 0; d < dimensions.length; d++) {
+                row.put(dimensions[d].field(), value(d, code(tuples[s], d)));
+            }
+            row.put("count", counts[s]);
+            boolean hasAmount = amountCounts[s] > 0;
+            row.put("sum", hasAmount && !overflows[s] ? BigDecimal.valueOf(sums[s], valueScale) : null);
+            row.put("min", hasAmount && !saturated(mins[s]) ? BigDecimal.valueOf(mins[s], valueScale) : null);
+            row.put("max", hasAmount && !saturated(maxs[s]) ? BigDecimal.valueOf(maxs[s], valueScale) : null);
+            if (overflows[s]) row.put("overflow", true);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Number of cells whose amounts overflowed. */
+    public int overflowCells() {
+        int n = 0;
+        for (int s = 0; s < size; s++) if (overflows[s]) n++;
+        return n;
+    }
+
+    // ---------------------------------------------------------------- file format
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(granularity.name());
+            out.writeInt(valueScale);
+            out.writeInt(dimensions.length);
+            for (int d = 0; d < dimensions.length; d++) {
+                out.writeUTF(dimensions[d].field());
+                out.writeInt(dictionaries[d].size());
+                for (int c = 0; c < dictionaries[d].size(); c++) out.writeUTF(dictionaries[d].decode(c));
+            }
+            out.writeInt(size);
+            for (int s = 0; s < size; s++) {
+                out.writeLong(buckets[s]);
+                out.writeLong(tuples[s]);
+                out.writeLong(counts[s]);
+                out.writeLong(amountCounts[s]);
+                out.writeLong(sums[s]);
+                out.writeLong(mins[s]);
+                out.writeLong(maxs[s]);
+                out.writeBoolean(overflows[s]);
+            }
+        }
+    }
+
+    public static RollupCube read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a rollup cube file: " + path);
+            int version = in.readInt();
+            if (version != 1 && version != VERSION) throw new IOException("Unsupported rollup cube version " + version + ": " + path);
+
+            Granularity granularity = Granularity.valueOf(in.readUTF());
+            int valueScale = in.readInt();
+            int n = in.readInt();
+            DictColumn[] dimensions = new DictColumn[n];
+            String[][] values = new String[n][];
+            for (int d = 0; d < n; d++) {
+                String field = in.readUTF();
+                dimensions[d] = DictColumn.fromField(field);
+                if (dimensions[d] == null) throw new IOException("Unknown dimension " + field + ": " + path);
+                values[d] = new String[in.readInt()];
+                for (int c = 0; c < values[d].length; c++) values[d][c] = in.readUTF();
+            }
+
+            RollupCube cube = new RollupCube(granularity, dimensions, valueScale);
+            for (int d = 0; d < n; d++) {
+                for (String v : values[d]) cube.dictionaries[d].encode(v); // same order -> same codes
+            }
+            int cells = in.readInt();
+            for (int i = 0; i < cells; i++) {
+                int s = cube.slot(in.readLong(), in.readLong());
+                cube.counts[s] = in.readLong();
+                cube.amountCounts[s] = in.readLong();
+                cube.sums[s] = in.readLong();
+                cube.mins[s] = in.readLong();
+                cube.maxs[s] = in.readLong();
+                if (version >= 2) cube.overflows[s] = in.readBoolean();
+            }
+            return cube;
+        }
+    }
+
+    // ---------------------------------------------------------------- cell table
+
+    private int code(long tuple, int d) {
+        int shift = (dimensions.length - 1 - d) * bits;
+        return (int) ((tuple >>> shift) & ((1L << bits) - 1));
+    }
+
+    private String value(int d, int code) {
+        return code == otherCode ? OTHER : dictionaries[d].decode(code);
+    }
+
+    /** The code itself, or OTHER once the dictionary has outgrown the packed word. */
+    private int cap(int code) {
+        return code >= otherCode ? otherCode : code;
+    }
+
+    /** FixedPoint.rescale returns Long.MIN_VALUE / MAX_VALUE for amounts that do not fit. */
+    private static boolean saturated(long units) {
+        return units == Long.MIN_VALUE || units == Long.MAX_VALUE;
+    }
+
+    private void addAmount(int slot, long n, long units) {
+        amountCounts[slot] += n;
+        long r = sums[slot] + units;
+        if (((sums[slot] ^ r) & (units ^ r)) < 0 || (n == 1 && saturated(units))) overflows[slot] = true;
+        sums[slot] = r;
+        if (n == 1) {
+            mins[slot] = Math.min(mins[slot], units);
+            maxs[slot] = Math.max(maxs[slot], units);
+        }
+    }
+
+    private int slot(long bucket, long tuple) {
+        int mask = table.length - 1;
+        int i = hash(bucket, tuple) & mask;
+        while (true) {
+            int s = table[i] - 1;
+            if (s < 0) break;
+            if (buckets[s] == bucket && tuples[s] == tuple) return s;
+            i = (i + 1) & mask;
+        }
+
+        if (size == buckets.length) grow();
+        int s = size++;
+        buckets[s] = bucket;
+        tuples[s] = tuple;
+        mins[s] = Long.MAX_VALUE;
+        maxs[s] = Long.MIN_VALUE;
+        if (size * 2 > table.length) rehash();
+        else table[i] = s + 1;
+        return s;
+    }
+
+    private void grow() {
+        int n = buckets.length * 2;
+        buckets = Arrays.copyOf(buckets, n);
+        tuples = Arrays.copyOf(tuples, n);
+        counts = Arrays.copyOf(counts, n);
+        amountCounts = Arrays.copyOf(amountCounts, n);
+        sums = Arrays.copyOf(sums, n);
+        mins = Arrays.copyOf(mins, n);
+        maxs = Arrays.copyOf(maxs, n);
+        overflows = Arrays.copyOf(overflows, n);
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int s = 0; s < size; s++) {
+            int i = hash(buckets[s], tuples[s]) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = s + 1;
+        }
+    }
+
+    private static int hash(long bucket, long tuple) {
+        long h = bucket * 0x9E3779B97F4A7C15L ^ tuple;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private void checkCompatible(RollupCube other) {
+        if (other.granularity != granularity || other.valueScale != valueScale
+                || !Arrays.equals(other.dimensions, dimensions)) {
+            throw new IllegalArgumentException("Rollup cubes differ in granularity, dimensions or value scale");
+        }
+    }
+
+    private static String nullToUnknown(String v) {
+        return v == null ? "UNKNOWN" : v;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.payments.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sequential binary I/O on a FileChannel for store snapshots and ColumnarFile: a buffered
+ * writer, and a reader over memory-mapped windows so primitive columns load with bulk copies.
+ * Big-endian; strings are an int byte length + UTF-8 (length -1 for null).
+ */
+public final class SnapshotIO {
+
+    private SnapshotIO() {}
+
+    public static final class Writer {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+
+        public Writer(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        private void room(int n) throws IOException {
+            if (buf.remaining() < n) flush();
+        }
+
+        public void putInt(int v) throws IOException {
+            room(4);
+            buf.putInt(v);
+        }
+
+        public void putLong(long v) throws IOException {
+            room(8);
+            buf.putLong(v);
+        }
+
+        public void putString(String s) throws IOException {
+            if (s == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            putInt(b.length);
+            putBytes(b, b.length);
+        }
+
+        public void putBytes(byte[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                room(1);
+                int k = Math.min(n - i, buf.remaining());
+                buf.put(a, i, k);
+                i += k;
+            }
+        }
+
+        public void putInts(int[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                room(4);
+                int k = Math.min(n - i, buf.remaining() / 4);
+                buf.asIntBuffer().put(a, i, k);
+                buf.position(buf.position() + k * 4);
+                i += k;
+            }
+        }
+
+        public void putLongs(long[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                room(8);
+                int k = Math.min(n - i, buf.remaining() / 8);
+                buf.asLongBuffer().put(a, i, k);
+                buf.position(buf.position() + k * 8);
+                i += k;
+            }
+        }
+
+        public void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+
+    public static final class Reader {
+        private static final long WINDOW = 256L * 1024 * 1024;
+
+        private final FileChannel ch;
+        private final long end;
+        private MappedByteBuffer map;
+        private long mapStart;
+
+        public Reader(FileChannel ch, long position) throws IOException {
+            this.ch = ch;
+            this.end = ch.size();
+            remap(position);
+        }
+
+        /** File offset of the next unread byte. */
+        public long position() {
+            return mapStart + map.position();
+        }
+
+        private void remap(long position) throws IOException {
+            mapStart = position;
+            map = ch.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, end - position));
+        }
+
+        private void need(int n) throws IOException {
+            if (map.remaining() >= n) return;
+            if (position() + n > end) throw new IOException("Truncated snapshot");
+            remap(position());
+        }
+
+        public void skip(long n) throws IOException {
+            long target = position() + n;
+            if (target > end) throw new IOException("Truncated snapshot");
+            if (target - mapStart <= map.limit()) map.position((int) (target - mapStart));
+            else remap(target);
+        }
+
+        public int getInt() throws IOException {
+            need(4);
+            return map.getInt();
+        }
+
+        public long getLong() throws IOException {
+            need(8);
+            return map.getLong();
+        }
+
+        public String getString() throws IOException {
+            int n = getInt();
+            if (n < 0) return null;
+            byte[] b = new byte[n];
+            getBytes(b, n);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        public void getBytes(byte[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                need(1);
+                int k = Math.min(n - i, map.remaining());
+                map.get(a, i, k);
+                i += k;
+            }
+        }
+
+        public void getInts(int[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                need(4);
+                int k = Math.min(n - i, map.remaining() / 4);
+                map.asIntBuffer().get(a, i, k);
+                map.position(map.position() + k * 4);
+                i += k;
+            }
+        }
+
+        public void getLongs(long[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                need(8);
+                int k = Math.min(n - i, map.remaining() / 8);
+                map.asLongBuffer().get(a, i, k);
+                map.position(map.position() + k * 8);
+                i += k;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.payments.store;
+
+import com.example.payments.utils.IsoTimestampParser;
+import com.example.payments.utils.PairedSort;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Indexes over a loaded ColumnarTransactionStore, built once so that many filter windows
+ * can be resolved without scanning every row (see Filter.select):
+ * - timestamps: row numbers sorted by epoch nanos, for binary-searched range lookups
+ * - dictionary columns: one RoaringBitmap of rows per code
+ * Rows without a timestamp are left out of the timestamp index; saturated ones are kept
+ * apart because only their exact OffsetDateTime orders them. The index describes the
+ * store as it was when built and must be rebuilt after rows are added.
+ */
+public class StoreIndex {
+
+    private final int rows;
+    private final long[] sortedNanos;
+    private final int[] sortedRows;
+    private final int[] saturatedRows;
+    private final Map<DictColumn, RoaringBitmap[]> bitmaps = new EnumMap<>(DictColumn.class);
+
+    private StoreIndex(int rows, long[] sortedNanos, int[] sortedRows, int[] saturatedRows) {
+        this.rows = rows;
+        this.sortedNanos = sortedNanos;
+        this.sortedRows = sortedRows;
+        this.saturatedRows = saturatedRows;
+    }
+
+    /**
+     * Index the timestamps and the given dictionary columns (meant for low-cardinality ones).
+     */
+    public static StoreIndex build(ColumnarTransactionStore store, DictColumn... columns) {
+        int n = store.size();
+
+        long[] nanos = new long[n];
+        int[] order = new int[n];
+        int[] saturated = new int[0];
+        int count = 0, saturatedCount = 0;
+        for (int row = 0; row < n; row++) {
+            long ts = store.epochNanos(row);
+            if (ts == ColumnarTransactionStore.NO_TIMESTAMP) continue;
+            if (IsoTimestampParser.isSaturated(ts)) {
+                if (saturatedCount == saturated.length) saturated = Arrays.copyOf(saturated, Math.max(4, saturatedCount * 2));
+                saturated[saturatedCount++] = row;
+                continue;
+            }
+            nanos[count] = ts;
+            order[count++] = row;
+        }
+        PairedSort.sort(nanos, order, count);
+
+        StoreIndex index = new StoreIndex(n, Arrays.copyOf(nanos, count), Arrays.copyOf(order, count),
+                Arrays.copyOf(saturated, saturatedCount));
+
+        for (DictColumn c : columns) {
+            int codes = store.dictionary(c).size();
+            RoaringBitmap.Builder[] builders = new RoaringBitmap.Builder[codes];
+            for (int code = 0; code < codes; code++) builders[code] = new RoaringBitmap.Builder();
+            for (int row = 0; row < n; row++) {
+                int code = store.code(c, row);
+                if (code >= 0) builders[code].add(row);
+            }
+            RoaringBitmap[] byCode = new RoaringBitmap[codes];
+            for (int code = 0; code < codes; code++) byCode[code] = builders[code].build();
+            index.bitmaps.put(c, byCode);
+        }
+        return index;
+    }
+
+    /** Number of store rows the index covers. */
+    public int rows() { return rows; }
+
+    public boolean indexed(DictColumn c) {
+        return bitmaps.containsKey(c);
+    }
+
+    /**
+     * Rows whose (non-saturated) epoch nanos lie in [fromNanos, toNanos].
+     */
+    public RoaringBitmap timestampRange(long fromNanos, long toNanos) {
+        int from = lowerBound(fromNanos);
+        int to = toNanos == Long.MAX_VALUE ? sortedNanos.length : lowerBound(toNanos + 1);
+        if (from >= to) return RoaringBitmap.EMPTY;
+
+        long[] words = new long[(rows + 63) >>> 6];
+        for (int i = from; i < to; i++) {
+            int row = sortedRows[i];
+            words[row >>> 6] |= 1L << row;
+        }
+        return RoaringBitmap.fromWords(words);
+    }
+
+    /** First position whose nanos are >= value. */
+    private int lowerBound(long value) {
+        int lo = 0, hi = sortedNanos.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedNanos[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Rows with a saturated timestamp, which timestampRange() never returns. */
+    public int[] saturatedRows() {
+        return saturatedRows;
+    }
+
+    /**
+     * Rows whose code in column c is one of the given codes; null when c is not indexed.
+     */
+    public RoaringBitmap rowsWithCodes(DictColumn c, int... codes) {
+        RoaringBitmap[] byCode = bitmaps.get(c);
+        if (byCode == null) return null;
+        RoaringBitmap out = RoaringBitmap.EMPTY;
+        for (int code : codes) {
+            if (code >= 0 && code < byCode.length) out = out.or(byCode[code]);
+        }
+        return out;
+    }
+
+    /** Approximate heap bytes of the index. */
+    public long sizeInBytes() {
+        long bytes = 12L * sortedNanos.length + 4L * saturatedRows.length;
+        for (RoaringBitmap[] byCode : bitmaps.values()) {
+            for (RoaringBitmap b : byCode) bytes += b.sizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.payments.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps distinct strings to dense int codes (0..size-1), in first-seen order.
+ * null is never stored and encodes as -1.
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Code of an existing value, or -1 when the value was never seen.
+     */
+    public int lookup(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    public int size() { return size; }
+}
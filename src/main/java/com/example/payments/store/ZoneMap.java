@@ -0,0 +1,80 @@
+package com.example.payments.store;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Min/max statistics of one row group of a ColumnarFile, so filters can rule out the whole
+ * group without decoding it (see Filter.mayMatch). Bounds are conservative: saturated
+ * timestamps count at their saturated epoch nanos. Dictionary columns carry the group's
+ * distinct non-null values, which double as the dictionary for decoding its codes.
+ */
+public class ZoneMap {
+
+    private final int rows;
+    private final long minEpochNanos;
+    private final long maxEpochNanos;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final String[][] values;
+
+    ZoneMap(int rows, long minEpochNanos, long maxEpochNanos, BigDecimal minAmount, BigDecimal maxAmount, String[][] values) {
+        this.rows = rows;
+        this.minEpochNanos = minEpochNanos;
+        this.maxEpochNanos = maxEpochNanos;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.values = values;
+    }
+
+    /**
+     * Statistics of all rows of a store (the writer buffers one row group per store).
+     */
+    static ZoneMap of(ColumnarTransactionStore store) {
+        long minTs = Long.MAX_VALUE, maxTs = Long.MIN_VALUE;
+        BigDecimal minAmt = null, maxAmt = null;
+        for (int row = 0; row < store.size(); row++) {
+            long ts = store.epochNanos(row);
+            if (ts != ColumnarTransactionStore.NO_TIMESTAMP) {
+                minTs = Math.min(minTs, ts);
+                maxTs = Math.max(maxTs, ts);
+            }
+            if (store.hasAmount(row)) {
+                BigDecimal a = store.amount(row);
+                if (minAmt == null || a.compareTo(minAmt) < 0) minAmt = a;
+                if (maxAmt == null || a.compareTo(maxAmt) > 0) maxAmt = a;
+            }
+        }
+        if (minTs > maxTs) minTs = maxTs = ColumnarTransactionStore.NO_TIMESTAMP;
+
+        String[][] values = new String[DictColumn.values().length][];
+        for (DictColumn c : DictColumn.values()) {
+            StringDictionary d = store.dictionary(c);
+            values[c.ordinal()] = new String[d.size()];
+            for (int code = 0; code < d.size(); code++) values[c.ordinal()][code] = d.decode(code);
+        }
+        return new ZoneMap(store.size(), minTs, maxTs, minAmt, maxAmt, values);
+    }
+
+    public int rows() { return rows; }
+
+    /** False when no row of the group has a timestamp. */
+    public boolean hasTimestamps() { return minEpochNanos != ColumnarTransactionStore.NO_TIMESTAMP; }
+
+    public long minEpochNanos() { return minEpochNanos; }
+
+    public long maxEpochNanos() { return maxEpochNanos; }
+
+    /** Smallest amount in the group, or null when no row has one. */
+    public BigDecimal minAmount() { return minAmount; }
+
+    public BigDecimal maxAmount() { return maxAmount; }
+
+    /** Distinct non-null values of a dictionary column, in code order. */
+    public List<String> values(DictColumn c) {
+        return Arrays.asList(values[c.ordinal()]);
+    }
+
+    String[] dictionary(DictColumn c) { return values[c.ordinal()]; }
+}
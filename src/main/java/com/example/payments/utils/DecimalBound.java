@@ -0,0 +1,72 @@
+package com.example.payments.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A BigDecimal threshold that fixed-point amounts can be compared against with
+ * plain long comparisons. For each input scale the bound is converted once to
+ * floor/ceil unscaled longs, up front, so a bound can be shared between threads.
+ */
+public class DecimalBound {
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private static final byte IN_RANGE = 1;
+    private static final byte ABOVE_ALL = 2; // bound exceeds every long at this scale
+    private static final byte BELOW_ALL = 3; // bound is below every long at this scale
+
+    private final BigDecimal bound;
+    private final long[] floor = new long[FixedPoint.MAX_SCALE + 1];
+    private final long[] ceil = new long[FixedPoint.MAX_SCALE + 1];
+    private final boolean[] exact = new boolean[FixedPoint.MAX_SCALE + 1];
+    private final byte[] state = new byte[FixedPoint.MAX_SCALE + 1];
+
+    public DecimalBound(BigDecimal bound) {
+        this.bound = bound;
+        for (int scale = 0; scale <= FixedPoint.MAX_SCALE; scale++) prepare(scale);
+    }
+
+    public BigDecimal value() { return bound; }
+
+    /**
+     * Sign of (unscaled * 10^-scale) - bound.
+     */
+    public int compareTo(long unscaled, int scale) {
+        if (scale < 0 || scale > FixedPoint.MAX_SCALE) {
+            return BigDecimal.valueOf(unscaled, scale).compareTo(bound);
+        }
+        switch (state[scale]) {
+            case ABOVE_ALL: return -1;
+            case BELOW_ALL: return 1;
+            default:
+                if (unscaled > ceil[scale]) return 1;
+                if (unscaled < floor[scale]) return -1;
+                // floor <= unscaled <= ceil: equal only when the bound is exact at this scale
+                if (exact[scale]) return 0;
+                return unscaled == floor[scale] ? -1 : 1;
+        }
+    }
+
+    public int compareTo(BigDecimal v) {
+        return v.compareTo(bound);
+    }
+
+    private void prepare(int scale) {
+        BigInteger f = bound.setScale(scale, RoundingMode.FLOOR).unscaledValue();
+        BigInteger c = bound.setScale(scale, RoundingMode.CEILING).unscaledValue();
+        if (f.compareTo(LONG_MAX) > 0) {
+            state[scale] = ABOVE_ALL;
+        } else if (c.compareTo(LONG_MIN) < 0) {
+            state[scale] = BELOW_ALL;
+        } else {
+            exact[scale] = f.equals(c);
+            // a bound straddling the edge of the long range still orders correctly when clamped
+            floor[scale] = f.compareTo(LONG_MIN) < 0 ? Long.MIN_VALUE : f.longValue();
+            ceil[scale] = c.compareTo(LONG_MAX) > 0 ? Long.MAX_VALUE : c.longValue();
+            state[scale] = IN_RANGE;
+        }
+    }
+}
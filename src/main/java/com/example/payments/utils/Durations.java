@@ -0,0 +1,21 @@
+package com.example.payments.utils;
+
+import java.time.Duration;
+
+/**
+ * Duration parameters as written in config.yaml.
+ */
+public final class Durations {
+
+    private Durations() {}
+
+    /** "PT30M", "2h", "30m", "45s" or plain seconds ("45"). */
+    public static Duration parse(String v) {
+        v = v.trim();
+        if (v.startsWith("P")) return Duration.parse(v);
+        if (v.endsWith("h")) return Duration.ofHours(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
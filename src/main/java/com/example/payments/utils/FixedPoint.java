@@ -0,0 +1,155 @@
+package com.example.payments.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reusable parser for plain decimal amounts ("1249.50", "-3", ".5") into an
+ * unscaled long + scale, i.e. exactly the (unscaledValue, scale) pair that
+ * new BigDecimal(text) would produce, without allocating.
+ *
+ * parse() returns false for anything it cannot represent exactly (exponents,
+ * more than 18 digits, stray characters); callers then fall back to BigDecimal.
+ */
+public final class FixedPoint {
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private static final Map<String, Integer> CURRENCY_SCALES = new ConcurrentHashMap<>();
+
+    private long unscaled;
+    private int scale;
+
+    public long unscaled() { return unscaled; }
+
+    public int scale() { return scale; }
+
+    public boolean parse(ByteBuffer buf, int start, int end) {
+        int i = start;
+        if (i >= end) return false;
+
+        boolean negative = false;
+        byte c = buf.get(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long v = 0;
+        int digits = 0;
+        int fraction = -1; // digits after '.', -1 until a '.' is seen
+        for (; i < end; i++) {
+            c = buf.get(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_SCALE) return false;
+                v = v * 10 + (c - '0');
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) return false;
+
+        unscaled = negative ? -v : v;
+        scale = Math.max(fraction, 0);
+        return true;
+    }
+
+    public boolean parse(CharSequence s) {
+        int len = s.length();
+        int i = 0;
+        if (len == 0) return false;
+
+        boolean negative = false;
+        char c = s.charAt(0);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long v = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < len; i++) {
+            c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_SCALE) return false;
+                v = v * 10 + (c - '0');
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) return false;
+
+        unscaled = negative ? -v : v;
+        scale = Math.max(fraction, 0);
+        return true;
+    }
+
+    /**
+     * 10^n for 0 <= n <= 18; throws ArithmeticException beyond (the caller's overflow path).
+     */
+    public static long pow10(int n) {
+        if (n < 0 || n > MAX_SCALE) throw new ArithmeticException("10^" + n + " out of long range");
+        return POW10[n];
+    }
+
+    /**
+     * unscaled * 10^-scale as a count of 10^-targetScale units, rounded HALF_EVEN and
+     * saturating at the long range.
+     */
+    public static long rescale(long unscaled, int scale, int targetScale) {
+        if (scale == targetScale) return unscaled;
+        if (scale < targetScale) {
+            try {
+                return Math.multiplyExact(unscaled, pow10(targetScale - scale));
+            } catch (ArithmeticException overflow) {
+                return unscaled < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            }
+        }
+        return rescale(BigDecimal.valueOf(unscaled, scale), targetScale);
+    }
+
+    /**
+     * Same for a BigDecimal amount; null counts as 0.
+     */
+    public static long rescale(BigDecimal amount, int targetScale) {
+        if (amount == null) return 0;
+        BigDecimal v = amount.setScale(targetScale, RoundingMode.HALF_EVEN);
+        try {
+            return v.unscaledValue().longValueExact();
+        } catch (ArithmeticException overflow) {
+            return v.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Minor-unit scale of a currency (INR/USD 2, JPY 0, KWD 3); 2 when unknown.
+     */
+    public static int scaleOf(String currency) {
+        if (currency == null) return 2;
+        return CURRENCY_SCALES.computeIfAbsent(currency, code -> {
+            try {
+                int digits = Currency.getInstance(code).getDefaultFractionDigits();
+                return digits < 0 ? 2 : digits;
+            } catch (Exception e) {
+                return 2;
+            }
+        });
+    }
+}
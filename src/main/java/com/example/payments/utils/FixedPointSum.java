@@ -0,0 +1,102 @@
+package com.example.payments.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Running sum of decimal amounts in long minor units.
+ *
+ * The sum is held at a working scale that starts at the currency's minor-unit
+ * scale and only grows if an input has more decimals. On long overflow it
+ * switches to BigDecimal for the rest of the run. The result equals chaining
+ * BigDecimal.add over the same inputs, scale included.
+ */
+public class FixedPointSum {
+
+    private long sum;
+    private int scale;                       // scale of sum
+    private int maxScale = Integer.MIN_VALUE; // largest input scale; MIN_VALUE while empty
+    private BigDecimal wide;                 // non-null after overflow
+
+    public FixedPointSum(int baseScale) {
+        this.scale = baseScale;
+    }
+
+    public void add(long unscaled, int s) {
+        if (s > maxScale) maxScale = s;
+
+        if (wide == null) {
+            try {
+                long acc = sum;
+                int accScale = scale;
+                if (s > accScale) {
+                    acc = Math.multiplyExact(acc, FixedPoint.pow10(s - accScale));
+                    accScale = s;
+                }
+                long v = s < accScale ? Math.multiplyExact(unscaled, FixedPoint.pow10(accScale - s)) : unscaled;
+                sum = Math.addExact(acc, v);
+                scale = accScale;
+                return;
+            } catch (ArithmeticException overflow) {
+                wide = BigDecimal.valueOf(sum, scale);
+            }
+        }
+        wide = wide.add(BigDecimal.valueOf(unscaled, s));
+    }
+
+    public void add(BigDecimal v) {
+        if (v == null) return;
+        int s = v.scale();
+        if (wide == null && s >= 0 && s <= FixedPoint.MAX_SCALE && v.precision() <= FixedPoint.MAX_SCALE) {
+            add(v.unscaledValue().longValue(), s);
+            return;
+        }
+        if (s > maxScale) maxScale = s;
+        if (wide == null) wide = BigDecimal.valueOf(sum, scale);
+        wide = wide.add(v);
+    }
+
+    /**
+     * Fold another partial sum into this one (same result as adding its inputs here).
+     */
+    public void add(FixedPointSum other) {
+        if (other.isEmpty()) return;
+        int inputScale = maxScale;
+        if (other.wide == null) add(other.sum, other.scale);
+        else add(other.wide);
+        // the other's working scale may exceed its inputs; keep the true input scale
+        maxScale = Math.max(inputScale, other.maxScale);
+    }
+
+    public boolean isEmpty() { return maxScale == Integer.MIN_VALUE; }
+
+    /**
+     * Numeric comparison of the two sums (same ordering as comparing toBigDecimal()).
+     */
+    public int compareTo(FixedPointSum other) {
+        if (wide == null && other.wide == null) {
+            if (scale == other.scale) return Long.compare(sum, other.sum);
+            try {
+                if (scale < other.scale) {
+                    return Long.compare(Math.multiplyExact(sum, FixedPoint.pow10(other.scale - scale)), other.sum);
+                }
+                return Long.compare(sum, Math.multiplyExact(other.sum, FixedPoint.pow10(scale - other.scale)));
+            } catch (ArithmeticException overflow) {
+                // fall through to exact comparison
+            }
+        }
+        return value().compareTo(other.value());
+    }
+
+    private BigDecimal value() {
+        return wide != null ? wide : BigDecimal.valueOf(sum, scale);
+    }
+
+    /**
+     * Sum at the largest input scale, exactly as BigDecimal.add would report it.
+     */
+    public BigDecimal toBigDecimal() {
+        if (isEmpty()) return BigDecimal.ZERO;
+        return value().setScale(maxScale, RoundingMode.UNNECESSARY);
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.payments.utils;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Reusable parser for ISO-8601 timestamps ("2025-11-21T10:15:30", "2025-11-21T10:15:30.5+05:30",
+ * "...Z") straight into epoch seconds/nanos and an offset, without exceptions.
+ *
+ * Accepts exactly what ISO_LOCAL_DATE_TIME / ISO_OFFSET_DATE_TIME accept for 4-digit years;
+ * parse() returns false for anything else (callers then fall back to java.time).
+ * Local timestamps are resolved against the given zone like LocalDateTime.atZone: the offset
+ * is looked up once and reused while values stay between the same two zone transitions.
+ *
+ * Both forms are handled by one pass over the bytes, so a file may mix them. Not thread-safe.
+ */
+public final class IsoTimestampParser {
+
+    /** Marker for "no timestamp" in epoch-nanos columns. */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int MAX_LENGTH = 38; // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn+HH:MM:SS
+    private static final int MAX_OFFSET = 18 * 3600;
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    private static final int[] FRACTION_SCALE = {
+            0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1 };
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final byte[] scratch = new byte[MAX_LENGTH];
+
+    // local seconds [localFrom, localTo) map to localOffset without gaps or overlaps
+    private long localFrom = Long.MAX_VALUE;
+    private long localTo = Long.MIN_VALUE;
+    private int localOffset;
+
+    // last parsed value
+    private int year, month, day, hour, minute, second, nano;
+    private int offsetSeconds;
+    private long epochSecond;
+
+    public IsoTimestampParser(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            localFrom = Long.MIN_VALUE;
+            localTo = Long.MAX_VALUE;
+            localOffset = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+        }
+    }
+
+    public boolean parse(CharSequence s) {
+        int len = s.length();
+        if (len > MAX_LENGTH) return false;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c > 0x7F) return false;
+            scratch[i] = (byte) c;
+        }
+        return parseScratch(len);
+    }
+
+    public boolean parse(ByteBuffer buf, int start, int end) {
+        int len = end - start;
+        if (len > MAX_LENGTH) return false;
+        buf.get(start, scratch, 0, len);
+        return parseScratch(len);
+    }
+
+    public long epochSecond() { return epochSecond; }
+
+    public int nano() { return nano; }
+
+    public int offsetSeconds() { return offsetSeconds; }
+
+    /**
+     * Epoch nanos of the last value, saturating like {@link #epochNanos(OffsetDateTime)}.
+     */
+    public long epochNanos() { return epochNanos(epochSecond, nano); }
+
+    public OffsetDateTime toOffsetDateTime() {
+        return OffsetDateTime.of(year, month, day, hour, minute, second, nano, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    /**
+     * Epoch nanos of a timestamp; NO_TIMESTAMP for null. Instants outside the long range
+     * saturate to NO_TIMESTAMP + 1 / Long.MAX_VALUE (see {@link #isSaturated(long)}).
+     */
+    public static long epochNanos(OffsetDateTime ts) {
+        if (ts == null) return NO_TIMESTAMP;
+        return epochNanos(ts.toEpochSecond(), ts.getNano());
+    }
+
+    /**
+     * True when an epoch-nanos value is a saturated placeholder and the OffsetDateTime must be compared instead.
+     */
+    public static boolean isSaturated(long epochNanos) {
+        return epochNanos == NO_TIMESTAMP + 1 || epochNanos == Long.MAX_VALUE;
+    }
+
+    private static long epochNanos(long seconds, int nano) {
+        if (seconds > -9_223_372_036L && seconds < 9_223_372_036L) return seconds * 1_000_000_000L + nano;
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, 1_000_000_000L), nano);
+        } catch (ArithmeticException overflow) {
+            return seconds < 0 ? NO_TIMESTAMP + 1 : Long.MAX_VALUE;
+        }
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    private boolean parseScratch(int len) {
+        byte[] b = scratch;
+        // yyyy-MM-ddTHH:mm
+        if (len < 16 || b[4] != '-' || b[7] != '-' || (b[10] != 'T' && b[10] != 't') || b[13] != ':') return false;
+        int y = digits(b, 0, 4);
+        int mo = digits(b, 5, 2);
+        int d = digits(b, 8, 2);
+        int h = digits(b, 11, 2);
+        int mi = digits(b, 14, 2);
+        if ((y | mo | d | h | mi) < 0) return false;
+        if (mo < 1 || mo > 12 || d < 1 || d > lengthOfMonth(y, mo) || h > 23 || mi > 59) return false;
+
+        // [:ss[.fraction]]
+        int pos = 16;
+        int s = 0;
+        int n = 0;
+        if (pos < len && b[pos] == ':') {
+            if (pos + 3 > len || (s = digits(b, pos + 1, 2)) < 0 || s > 59) return false;
+            pos += 3;
+            if (pos < len && b[pos] == '.') {
+                int start = ++pos;
+                while (pos < len && b[pos] >= '0' && b[pos] <= '9') pos++;
+                int width = pos - start;
+                if (width > 9) return false;
+                // "ss." with no digits is valid, as in java.time
+                if (width > 0) n = digits(b, start, width) * FRACTION_SCALE[width];
+            }
+        }
+
+        // [Z | +HH[:MM[:SS]]]
+        boolean hasOffset = pos < len;
+        int off = 0;
+        if (hasOffset) {
+            byte c = b[pos];
+            if (c == 'Z' || c == 'z') {
+                if (pos + 1 != len) return false;
+            } else if (c == '+' || c == '-') {
+                int rest = len - pos;
+                // java.time also takes a bare "+HH"
+                if (rest != 3 && ((rest != 6 && rest != 9) || b[pos + 3] != ':')) return false;
+                int oh = digits(b, pos + 1, 2);
+                int om = rest == 3 ? 0 : digits(b, pos + 4, 2);
+                int os = 0;
+                if (rest == 9 && (b[pos + 6] != ':' || (os = digits(b, pos + 7, 2)) < 0)) return false;
+                if (oh < 0 || om < 0 || oh > 18 || om > 59 || os > 59) return false;
+                off = oh * 3600 + om * 60 + os;
+                if (off > MAX_OFFSET) return false;
+                if (c == '-') off = -off;
+            } else {
+                return false;
+            }
+        }
+
+        year = y; month = mo; day = d; hour = h; minute = mi; second = s; nano = n;
+        long localSecond = epochDay(y, mo, d) * 86400 + h * 3600 + mi * 60 + s;
+        if (hasOffset) {
+            offsetSeconds = off;
+        } else if (localSecond >= localFrom && localSecond < localTo) {
+            offsetSeconds = localOffset;
+        } else {
+            resolveLocal(localSecond);
+            return true;
+        }
+        epochSecond = localSecond - offsetSeconds;
+        return true;
+    }
+
+    /**
+     * Slow path for local values: resolve like LocalDateTime.atZone (gaps shift forward,
+     * overlaps take the earlier offset) and cache the unambiguous range around the value.
+     */
+    private void resolveLocal(long localSecond) {
+        ZonedDateTime z = LocalDateTime.of(year, month, day, hour, minute, second, nano).atZone(zone);
+        offsetSeconds = z.getOffset().getTotalSeconds();
+        epochSecond = z.toEpochSecond();
+        if (z.getHour() != hour || z.getMinute() != minute || z.getSecond() != second
+                || z.getDayOfMonth() != day || z.getMonthValue() != month || z.getYear() != year) {
+            // in a gap: java.time moved the local time forward
+            year = z.getYear(); month = z.getMonthValue(); day = z.getDayOfMonth();
+            hour = z.getHour(); minute = z.getMinute(); second = z.getSecond();
+            return;
+        }
+
+        Instant at = Instant.ofEpochSecond(epochSecond);
+        ZoneOffsetTransition prev = rules.previousTransition(at.plusSeconds(1)); // at or before
+        ZoneOffsetTransition next = rules.nextTransition(at);
+        long from = prev == null ? Long.MIN_VALUE
+                : Math.max(localSecond(prev.getDateTimeBefore()), localSecond(prev.getDateTimeAfter()));
+        long to = next == null ? Long.MAX_VALUE
+                : Math.min(localSecond(next.getDateTimeBefore()), localSecond(next.getDateTimeAfter()));
+        if (localSecond >= from && localSecond < to) {
+            localFrom = from;
+            localTo = to;
+            localOffset = offsetSeconds;
+        }
+    }
+
+    private static long localSecond(LocalDateTime ldt) {
+        return ldt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Parse a fixed-width run of ASCII digits; -1 if any byte is not a digit.
+     */
+    private static int digits(byte[] b, int from, int width) {
+        int v = 0;
+        for (int i = from; i < from + width; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static boolean isLeap(int y) {
+        return (y & 3) == 0 && (y % 100 != 0 || y % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int y, int m) {
+        return switch (m) {
+            case 2 -> isLeap(y) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Same arithmetic as LocalDate.toEpochDay, for years 0..9999.
+     */
+    private static long epochDay(int y, int m, int d) {
+        long total = 365L * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * m - 362) / 12;
+        total += d - 1;
+        if (m > 2) {
+            total--;
+            if (!isLeap(y)) total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
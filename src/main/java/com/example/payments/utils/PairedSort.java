@@ -0,0 +1,50 @@
+package com.example.payments.utils;
+
+/**
+ * Sorting of parallel primitive arrays: long keys with an int payload (row numbers,
+ * positions), without boxing either side into objects and comparators.
+ */
+public final class PairedSort {
+
+    private PairedSort() {}
+
+    /**
+     * Stable bottom-up merge sort of the first n entries by key, moving values along, so
+     * ties keep their input order. Input already in key order (the usual case for
+     * timestamps) costs one pass.
+     */
+    public static void sort(long[] keys, int[] values, int n) {
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) sorted = keys[i - 1] <= keys[i];
+        if (sorted) return;
+
+        long[] srcKeys = keys, dstKeys = new long[n];
+        int[] srcValues = values, dstValues = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n), hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    if (srcKeys[j] < srcKeys[i]) {
+                        dstKeys[k] = srcKeys[j];
+                        dstValues[k++] = srcValues[j++];
+                    } else {
+                        dstKeys[k] = srcKeys[i];
+                        dstValues[k++] = srcValues[i++];
+                    }
+                }
+                System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                System.arraycopy(srcValues, i, dstValues, k, mid - i);
+                k += mid - i;
+                System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                System.arraycopy(srcValues, j, dstValues, k, hi - j);
+            }
+            long[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            int[] tv = srcValues; srcValues = dstValues; dstValues = tv;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcValues, 0, values, 0, n);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.payments.writers;
+
+import com.example.payments.utils.ErrorHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only file of byte records kept open for the whole run. Callers hand records to a
+ * lock-free queue; one commit thread drains everything queued so far (a group commit) into
+ * a direct buffer and writes it to the channel, so concurrent writers share one write and
+ * one fsync instead of taking turns on a lock.
+ *
+ * Fsync policy:
+ * - COMMIT: every group commit is written and forced before its callers return
+ * - INTERVAL: the buffer is written when full and written and forced every interval
+ * - NONE: as INTERVAL but never forced; the OS decides when data reaches the disk
+ * close() writes what is left (and forces it unless NONE).
+ *
+ * With rollBytes or rollInterval set, records go to segments named
+ * stem-yyyyMMdd'T'HHmmss'Z'-n.ext next to path; a segment is closed (and forced unless NONE)
+ * once it holds rollBytes or has been open rollInterval, and a record never spans two.
+ *
+ * Grouping only pays off with concurrent callers. CoreEngine writes its payloads from one
+ * thread, so there each group holds a single record and COMMIT forces every payload.
+ * FileWriterBench (test sources) compares the modes from one thread and from several.
+ */
+public class GroupCommitFile implements AutoCloseable {
+
+    public enum Fsync { NONE, INTERVAL, COMMIT }
+
+    private static final int MAX_BATCH = 4096;
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Path path;
+    private final Fsync fsync;
+    private final long intervalNanos;
+    private final long rollBytes;         // 0: no size rollover
+    private final long rollIntervalNanos; // 0: no time rollover
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger appending = new AtomicInteger();
+    private volatile boolean closed;
+    private volatile boolean stopping;
+    private final Thread committer;
+
+    // owned by the commit thread
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private Path segment;
+    private long segmentBytes;
+    private long segmentOpenedAt;
+    private long lastSync;
+    private boolean dirty; // bytes written since the last force
+
+    private volatile long records, commits, fsyncs, bytes;
+    private final List<Path> segments = new ArrayList<>();
+
+    /** One queued record; committed is set only with Fsync.COMMIT. */
+    private static final class Pending {
+        final byte[] bytes;
+        final CompletableFuture<Void> committed;
+
+        Pending(byte[] bytes, CompletableFuture<Void> committed) {
+            this.bytes = bytes;
+            this.committed = committed;
+        }
+    }
+
+    /**
+     * Open (or append to) path and start the commit thread.
+     */
+    public static GroupCommitFile open(Path path, Fsync fsync, Duration interval, long rollBytes, Duration rollInterval,
+                                       int bufferBytes) throws IOException {
+        GroupCommitFile file = new GroupCommitFile(path, fsync, interval, rollBytes, rollInterval, bufferBytes);
+        file.committer.start();
+        return file;
+    }
+
+    private GroupCommitFile(Path path, Fsync fsync, Duration interval, long rollBytes, Duration rollInterval,
+                            int bufferBytes) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        this.intervalNanos = interval.toNanos();
+        this.rollBytes = Math.max(0, rollBytes);
+        this.rollIntervalNanos = rollInterval == null ? 0 : rollInterval.toNanos();
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        openSegment();
+
+        committer = new Thread(this::run, "group-commit-" + path.getFileName());
+        committer.setDaemon(true);
+    }
+
+    /**
+     * Queue a record; with Fsync.COMMIT, wait until it is written and forced.
+     */
+    public void append(byte[] record) throws IOException {
+        Pending p = new Pending(record, fsync == Fsync.COMMIT ? new CompletableFuture<>() : null);
+        appending.incrementAndGet();
+        try {
+            if (closed) throw new IllegalStateException("File already closed: " + path);
+            queue.offer(p);
+        } finally {
+            appending.decrementAndGet();
+        }
+        LockSupport.unpark(committer);
+
+        if (p.committed == null) return;
+        try {
+            p.committed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for commit to " + path);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Commit what is queued, close the file and stop the commit thread.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        while (appending.get() > 0) Thread.onSpinWait(); // let appends that passed the check enqueue
+        stopping = true;
+        LockSupport.unpark(committer);
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted closing " + path);
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            boolean stop = stopping; // read before draining: once set, nothing more is queued
+            Pending p;
+            while (batch.size() < MAX_BATCH && (p = queue.poll()) != null) batch.add(p);
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+                continue;
+            }
+            if (stop) break;
+
+            try {
+                onIdle();
+            } catch (IOException e) {
+                ErrorHandler.log("GroupCommitFile-Idle", e);
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+
+        try {
+            writeBuffer();
+            if (fsync != Fsync.NONE) force();
+            channel.close();
+        } catch (IOException e) {
+            ErrorHandler.log("GroupCommitFile-Close", e);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        try {
+            if (rollDue(System.nanoTime())) roll();
+            for (Pending p : batch) {
+                if (rollBytes > 0 && segmentBytes > 0 && segmentBytes + p.bytes.length > rollBytes) roll();
+                put(p.bytes);
+            }
+            records += batch.size();
+            commits++;
+
+            if (fsync == Fsync.COMMIT) {
+                writeBuffer();
+                force();
+            } else {
+                onIdle();
+            }
+            for (Pending p : batch) {
+                if (p.committed != null) p.committed.complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            ErrorHandler.log("GroupCommitFile-Commit", e);
+            for (Pending p : batch) {
+                if (p.committed != null) p.committed.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** Interval writes and forces, and time rollover, while records are not arriving. */
+    private void onIdle() throws IOException {
+        long now = System.nanoTime();
+        if (rollIntervalNanos > 0 && segmentBytes + buffer.position() > 0 && now - segmentOpenedAt >= rollIntervalNanos) {
+            roll();
+            return;
+        }
+        if (now - lastSync >= intervalNanos) {
+            writeBuffer();
+            if (fsync == Fsync.INTERVAL && dirty) force();
+            lastSync = now;
+        }
+    }
+
+    private boolean rollDue(long now) {
+        return rollIntervalNanos > 0 && segmentBytes > 0 && now - segmentOpenedAt >= rollIntervalNanos;
+    }
+
+    private void put(byte[] record) throws IOException {
+        if (record.length > buffer.remaining()) writeBuffer();
+        if (record.length > buffer.capacity()) {
+            write(ByteBuffer.wrap(record));
+        } else {
+            buffer.put(record);
+        }
+        segmentBytes += record.length;
+        bytes += record.length;
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) channel.write(src);
+        dirty = true;
+    }
+
+    private void force() throws IOException {
+        if (!dirty) return;
+        channel.force(false);
+        dirty = false;
+        fsyncs++;
+    }
+
+    private void roll() throws IOException {
+        writeBuffer();
+        if (fsync != Fsync.NONE) force();
+        channel.close();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        segment = rollBytes > 0 || rollIntervalNanos > 0 ? segmentPath(segments.size() + 1) : path;
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.add(segment);
+        segmentBytes = 0;
+        segmentOpenedAt = System.nanoTime();
+        lastSync = segmentOpenedAt;
+        dirty = false;
+    }
+
+    /** results.json -> results-20261017T101500Z-1.json */
+    private Path segmentPath(int n) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String ext = dot > 0 ? name.substring(dot) : "";
+        String time = ZonedDateTime.now(ZoneOffset.UTC).format(SEGMENT_TIME);
+        return path.resolveSibling(stem + "-" + time + "-" + n + ext);
+    }
+
+    public long records() { return records; }
+
+    public long commits() { return commits; }
+
+    public long fsyncs() { return fsyncs; }
+
+    public long bytes() { return bytes; }
+
+    /** Files written so far; complete once close() returns. */
+    public List<Path> segments() { return segments; }
+}
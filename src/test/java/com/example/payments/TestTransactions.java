@@ -0,0 +1,69 @@
+package com.example.payments;
+
+import com.example.payments.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random transactions for tests: a few merchants, customers and categories so that groups
+ * repeat, with null fields, mixed amount scales and offsets, and the occasional timestamp
+ * outside the epoch-nanos range.
+ */
+public final class TestTransactions {
+
+    public static final String[] STATUSES = {"COMPLETED", "FAILED", "PENDING", "REFUNDED"};
+    public static final String[] PAYMENT_TYPES = {"UPI", "CARD", "NETBANKING", "WALLET"};
+    public static final String[] CATEGORIES = {"Retail", "Food", "Travel", "Electronics"};
+
+    public static final OffsetDateTime START = OffsetDateTime.of(2025, 11, 10, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private TestTransactions() {}
+
+    public static List<Transaction> random(Random rnd, int n) {
+        List<Transaction> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(transaction(rnd, i));
+        return out;
+    }
+
+    public static Transaction transaction(Random rnd, int i) {
+        Transaction t = new Transaction();
+        t.setId("TXN" + i);
+        int merchant = rnd.nextInt(40);
+        t.setMerchantId(rnd.nextInt(50) == 0 ? null : "M" + merchant);
+        t.setMerchantName("Merchant" + merchant);
+        t.setMerchantCategory(rnd.nextInt(30) == 0 ? null : CATEGORIES[merchant % CATEGORIES.length]);
+        t.setCustomerId(rnd.nextInt(50) == 0 ? null : "C" + rnd.nextInt(300));
+        t.setPaymentType(rnd.nextInt(30) == 0 ? null : PAYMENT_TYPES[rnd.nextInt(PAYMENT_TYPES.length)]);
+        t.setStatus(rnd.nextInt(20) == 0 ? null : STATUSES[rnd.nextInt(STATUSES.length)]);
+        t.setLocation("City" + rnd.nextInt(5));
+        t.setCurrency(rnd.nextInt(40) == 0 ? "USD" : "INR");
+        t.setAmount(amount(rnd));
+        t.setTimestamp(timestamp(rnd));
+        return t;
+    }
+
+    static BigDecimal amount(Random rnd) {
+        switch (rnd.nextInt(40)) {
+            case 0: return null;
+            case 1: return BigDecimal.ZERO;
+            case 2: return new BigDecimal("10000.00");
+            case 3: return new BigDecimal("99999999.999");
+            default: return BigDecimal.valueOf(rnd.nextInt(2_000_000), rnd.nextInt(3));
+        }
+    }
+
+    static OffsetDateTime timestamp(Random rnd) {
+        switch (rnd.nextInt(60)) {
+            case 0: return null;
+            case 1: return OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC); // past epoch nanos
+            default:
+                OffsetDateTime ts = START.plusSeconds(rnd.nextInt(3 * 24 * 3600)).plusNanos(rnd.nextInt(1000) * 1000L);
+                return rnd.nextInt(4) == 0 ? ts.withOffsetSameInstant(ZoneOffset.ofHoursMinutes(5, 30)) : ts;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.payments.analytics;
+
+import com.example.payments.TestTransactions;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A fixed out-of-order event sequence through the streaming fraud detector: late events
+ * within allowed_lateness still count, events behind the watermark are dropped, alerts fire
+ * on the event that crosses the threshold, and idle or surplus customers are evicted.
+ */
+class StreamingFraudDetectorAnalyticsTest {
+
+    private static OffsetDateTime at(int minutes) {
+        return TestTransactions.START.plusMinutes(minutes);
+    }
+
+    private static Transaction event(String customer, int minutes) {
+        Transaction t = new Transaction();
+        t.setId(customer + "@" + minutes);
+        t.setCustomerId(customer);
+        t.setTimestamp(at(minutes));
+        t.setAmount(new BigDecimal("1.00"));
+        return t;
+    }
+
+    private static StreamingFraudDetectorAnalytics detector(Map<String, Object> extra) throws Exception {
+        Map<String, Object> params = new HashMap<>(Map.of(
+                "velocity_window", "10m", "velocity_threshold", 3, "allowed_lateness", "2m", "print_alerts", false));
+        params.putAll(extra);
+        StreamingFraudDetectorAnalytics module = new StreamingFraudDetectorAnalytics();
+        module.init(params);
+        return module;
+    }
+
+    /** Customer and minute of each event, in arrival order. */
+    private static final Object[][] SEQUENCE = {
+            {"A", 0}, {"A", 5},
+            {"A", 3},             // out of order but inside the 2m lateness: A now has 3 events in 10m
+            {"A", 6},             // same burst: raises max_count, no second alert
+            {"B", 10},            // watermark moves to 8m
+            {"B", 7},             // behind the watermark: dropped as late
+            {"B", 9}, {"C", 11},
+            {"D", 40},            // horizon 40 - 2 - 10 = 28m: A, B and C hold nothing after it (4 customers at peak)
+            {"A", 41}, {"A", 42},
+            {"A", 43},            // a fresh burst for the evicted customer
+    };
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void outOfOrderSequenceRaisesAlertsAsTheyHappen() throws Exception {
+        StreamingFraudDetectorAnalytics module = detector(Map.of());
+        List<Integer> raisedAt = new ArrayList<>();
+        int[] arrival = {0};
+        module.setAlertListener(alert -> raisedAt.add(arrival[0]));
+
+        Analytics.Accumulator acc = module.newAccumulator();
+        for (Object[] e : SEQUENCE) {
+            acc.accept(event((String) e[0], (Integer) e[1]));
+            arrival[0]++;
+        }
+        Map<String, Object> result = acc.finish();
+
+        assertEquals(List.of(2, 11), raisedAt, "alerts fire on the event that crosses the threshold");
+
+        List<Map<String, Object>> alerts = (List<Map<String, Object>>) result.get("velocity_alerts");
+        assertEquals(2, alerts.size());
+        assertEquals("A", alerts.get(0).get("customerId"));
+        assertEquals(at(0), alerts.get(0).get("start"));
+        assertEquals(3, alerts.get(0).get("count"));
+        assertEquals(4, alerts.get(0).get("max_count"));
+        assertEquals(at(3), alerts.get(0).get("detected_at"));
+        assertEquals(at(41), alerts.get(1).get("start"));
+        assertEquals(3, alerts.get(1).get("max_count"));
+
+        Map<String, Object> state = (Map<String, Object>) result.get("state");
+        assertEquals((long) SEQUENCE.length, state.get("events"));
+        assertEquals(1L, state.get("late_events"));
+        assertEquals(3L, state.get("evicted_customers"));
+        assertEquals(2, state.get("active_customers"));
+        assertEquals(4, state.get("peak_customers"));
+        assertEquals(at(41), state.get("watermark"));
+
+        // the columnar path sees the same events and reaches the same result
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (Object[] e : SEQUENCE) store.add(event((String) e[0], (Integer) e[1]));
+        Analytics.Accumulator columnar = detector(Map.of()).newAccumulator();
+        for (int row = 0; row < store.size(); row++) columnar.accept(store, row);
+        Map<String, Object> columnarResult = columnar.finish();
+        assertEquals(alerts, columnarResult.get("velocity_alerts"));
+        assertEquals(state, columnarResult.get("state"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maxCustomersEvictsTheLeastRecentlyActive() throws Exception {
+        Analytics.Accumulator acc = detector(Map.of("max_customers", 2)).newAccumulator();
+        // all within one window, so nothing is idle: only the cap evicts
+        for (String customer : new String[]{"E1", "E2", "E1", "E3", "E1", "E4"}) acc.accept(event(customer, 1));
+        acc.accept(event("E1", 2)); // E1 was never the least recently active, so its events are all still there
+
+        Map<String, Object> result = acc.finish();
+        Map<String, Object> state = (Map<String, Object>) result.get("state");
+        assertEquals(2, state.get("active_customers"));
+        assertEquals(2, state.get("peak_customers"));
+        assertEquals(2L, state.get("forced_evictions"), "E2, then E3");
+        assertEquals(0L, state.get("evicted_customers"));
+
+        List<Map<String, Object>> alerts = (List<Map<String, Object>>) result.get("velocity_alerts");
+        assertEquals(1, alerts.size());
+        assertEquals("E1", alerts.get(0).get("customerId"));
+        assertEquals(4, alerts.get(0).get("max_count"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.payments.bench;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Minimal timing loop shared by the benchmark mains in this package. They are plain
+ * main() classes, not tests, so surefire does not run them; build and run with e.g.
+ *
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *       com.example.payments.bench.FraudVelocityBench
+ *
+ * Each round's result is folded into a printed checksum (outside the timed region), so the
+ * JIT cannot drop the work and runs of two builds can be checked for the same output.
+ */
+final class Bench {
+
+    private Bench() {}
+
+    static void run(String label, int warmup, int rounds, Callable<?> body) throws Exception {
+        long checksum = 0;
+        for (int i = 0; i < warmup; i++) checksum += Objects.hashCode(body.call());
+
+        long[] millis = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            Object result = body.call();
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            checksum += Objects.hashCode(result);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-28s min %6d ms  median %6d ms  max %6d ms  (checksum %x)%n",
+                label, millis[0], millis[rounds / 2], millis[rounds - 1], checksum);
+    }
+
+    static int intArg(String[] args, int i, int fallback) {
+        return args.length > i ? Integer.parseInt(args[i]) : fallback;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.payments.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Seeded input files for the reader benchmarks, in the layout of transactions.csv: about
+ * 50k merchants, heavy-tailed customers, a month of timestamps (every third one at +05:30).
+ */
+final class BenchData {
+
+    static final String HEADER =
+            "transactionId,timestamp,amount,paymentType,merchantId,merchantName,merchantCategory,customerId,location,status";
+
+    private static final String[] PAYMENT_TYPES = {"UPI", "CARD", "NETBANKING", "WALLET"};
+    private static final String[] STATUSES = {"COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED",
+            "COMPLETED", "COMPLETED", "COMPLETED", "FAILED", "PENDING"};
+    private static final String[] CATEGORIES = {"Retail", "FoodDelivery", "ECommerce", "Beverages", "Electronics", "Travel"};
+    private static final String[] LOCATIONS = {"Mumbai", "Bangalore", "Delhi", "Chennai", "Pune", "Hyderabad", "Kolkata"};
+
+    private BenchData() {}
+
+    /** One row's fields in header order; the amount is a plain decimal, the rest are strings. */
+    static String[] row(Random rnd, int i, int rows) {
+        int merchant = 1000 + rnd.nextInt(50_000);
+        int customer = (int) (10 / Math.pow(rnd.nextDouble(), 1 / 1.2)) % 2_000_000;
+        long second = 1 + (long) i * 86_400 * 30 / rows;
+        String timestamp = String.format("2025-11-%02dT%02d:%02d:%02d%s", 1 + second / 86_400, second / 3600 % 24,
+                second / 60 % 60, second % 60, i % 3 == 0 ? "+05:30" : "Z");
+        return new String[]{
+                "TXN" + i, timestamp, (1 + rnd.nextInt(20_000)) + "." + String.format("%02d", rnd.nextInt(100)),
+                PAYMENT_TYPES[rnd.nextInt(PAYMENT_TYPES.length)], "M" + merchant, "Merchant" + merchant,
+                CATEGORIES[merchant % CATEGORIES.length], "C" + customer,
+                LOCATIONS[rnd.nextInt(LOCATIONS.length)], STATUSES[rnd.nextInt(STATUSES.length)]};
+    }
+
+    /** Writes rows lines under the header to file, unless it already exists. */
+    static Path csv(Path file, int rows) throws IOException {
+        if (Files.exists(file)) return file;
+        Random rnd = new Random(7);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (int i = 0; i < rows; i++) {
+                out.write(String.join(",", row(rnd, i, rows)));
+                out.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Writes the same rows as csv() as JSON objects, one per line (NDJSON) or as elements of
+     * a top-level array, unless file already exists. The amount is a JSON number.
+     */
+    static Path json(Path file, int rows, boolean array) throws IOException {
+        if (Files.exists(file)) return file;
+        String[] names = HEADER.split(",");
+        Random rnd = new Random(7);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (array) out.write("[\n");
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < rows; i++) {
+                String[] fields = row(rnd, i, rows);
+                line.setLength(0);
+                line.append('{');
+                for (int f = 0; f < names.length; f++) {
+                    if (f > 0) line.append(',');
+                    line.append('"').append(names[f]).append("\":");
+                    if (f == 2) line.append(fields[f]);
+                    else line.append('"').append(fields[f]).append('"');
+                }
+                line.append('}');
+                if (array && i < rows - 1) line.append(',');
+                out.append(line).append('\n');
+            }
+            if (array) out.write("]\n");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.payments.bench;
+
+import com.example.payments.readers.CsvReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CsvReader parse time, parser "jackson" against "mapped", sequential and with parallel
+ * byte ranges. The input is generated once (see BenchData) and kept between runs.
+ *
+ * args: [rows, default 1000000] [parallelism, default 4] [csv path, default in java.io.tmpdir]
+ */
+public class CsvReaderBench {
+
+    static long count(Map<String, Object> params) throws Exception {
+        CsvReader reader = new CsvReader();
+        reader.init(params);
+        long[] rows = {0};
+        reader.read(t -> rows[0] += t.getId().length());
+        return rows[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Bench.intArg(args, 0, 1_000_000);
+        int parallelism = Bench.intArg(args, 1, 4);
+        Path file = args.length > 2 ? Path.of(args[2])
+                : Path.of(System.getProperty("java.io.tmpdir"), "bench-" + rows + ".csv");
+        BenchData.csv(file, rows);
+        System.out.println(file + ": " + rows + " rows, " + Files.size(file) / (1 << 20) + " MB");
+
+        for (String parser : new String[]{"jackson", "mapped"}) {
+            for (int p : new int[]{1, parallelism}) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("path", file.toString());
+                params.put("parser", parser);
+                params.put("parallelism", p);
+                Bench.run(parser + " parallelism=" + p, 1, 5, () -> count(params));
+            }
+        }
+    }
+}
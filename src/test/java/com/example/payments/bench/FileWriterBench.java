@@ -0,0 +1,82 @@
+package com.example.payments.bench;
+
+import com.example.payments.writers.FileWriterImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * FileWriterImpl throughput per mode: "append" against "buffered" with each fsync policy,
+ * from one writer thread (as CoreEngine writes) and from several.
+ *
+ * args: [payloads per round, default 20000] [threads, default 8]
+ */
+public class FileWriterBench {
+
+    private static Map<String, Object> payload(int thread, int seq) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("module", "bench");
+        m.put("thread", thread);
+        m.put("seq", seq);
+        m.put("values", List.of(1.5, "x\n\"y\"", Map.of("k", seq)));
+        m.put("pad", "p".repeat(seq % 300));
+        return m;
+    }
+
+    /** Writes payloads split across threads, closes the writer and returns the bytes on disk. */
+    private static long write(Path dir, Map<String, Object> params, int payloads, int threads) throws Exception {
+        try (Stream<Path> old = Files.list(dir)) {
+            for (Path p : old.toList()) Files.delete(p);
+        }
+        FileWriterImpl writer = new FileWriterImpl();
+        writer.init(params);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = thread; i < payloads; i += threads) writer.write(payload(thread, i));
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        writer.close();
+
+        long bytes = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : files.toList()) bytes += Files.size(p);
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int payloads = Bench.intArg(args, 0, 20_000);
+        int threads = Bench.intArg(args, 1, 8);
+        Path dir = Files.createTempDirectory("file-writer-bench");
+
+        String[][] modes = {{"append", null}, {"buffered", "none"}, {"buffered", "interval"}, {"buffered", "commit"}};
+        for (int n : new int[]{1, threads}) {
+            for (String[] mode : modes) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("path", dir.resolve("out.json").toString());
+                params.put("mode", mode[0]);
+                if (mode[1] != null) params.put("fsync", mode[1]);
+                String label = mode[0] + (mode[1] == null ? "" : "/" + mode[1]) + " threads=" + n;
+                Bench.run(label, 1, 3, () -> write(dir, params, payloads, n));
+            }
+        }
+    }
+}
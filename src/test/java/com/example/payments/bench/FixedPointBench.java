@@ -0,0 +1,80 @@
+package com.example.payments.bench;
+
+import com.example.payments.utils.FixedPoint;
+import com.example.payments.utils.FixedPointSum;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Per-merchant amount totals from CSV amount bytes: String + new BigDecimal + BigDecimal.add
+ * (the path before fixed-point amounts) against FixedPoint.parse + FixedPointSum. Both give
+ * the same totals, scale included, so the printed checksums match. Also prints the bytes
+ * each round allocates.
+ *
+ * args: [rows, default 2000000] [merchants, default 50000]
+ */
+public class FixedPointBench {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Bench.intArg(args, 0, 2_000_000);
+        int merchants = Bench.intArg(args, 1, 50_000);
+
+        // amounts laid out back to back as in a CSV buffer, mostly 2 decimals, some 0 or 3
+        Random rnd = new Random(5);
+        StringBuilder text = new StringBuilder();
+        int[] starts = new int[rows + 1];
+        int[] merchant = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            starts[i] = text.length();
+            text.append(BigDecimal.valueOf(rnd.nextInt(2_000_000), rnd.nextInt(10) == 0 ? rnd.nextInt(4) : 2).toPlainString());
+            merchant[i] = rnd.nextInt(merchants);
+        }
+        starts[rows] = text.length();
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+
+        Callable<List<BigDecimal>> bigDecimal = () -> {
+            BigDecimal[] sums = new BigDecimal[merchants];
+            for (int i = 0; i < rows; i++) {
+                BigDecimal v = new BigDecimal(new String(bytes, starts[i], starts[i + 1] - starts[i], StandardCharsets.US_ASCII));
+                int m = merchant[i];
+                sums[m] = sums[m] == null ? v : sums[m].add(v);
+            }
+            List<BigDecimal> out = new ArrayList<>(merchants);
+            for (BigDecimal s : sums) out.add(s);
+            return out;
+        };
+        Callable<List<BigDecimal>> fixedPoint = () -> {
+            FixedPointSum[] sums = new FixedPointSum[merchants];
+            FixedPoint parser = new FixedPoint();
+            for (int i = 0; i < rows; i++) {
+                if (!parser.parse(buf, starts[i], starts[i + 1])) throw new IllegalStateException("row " + i);
+                int m = merchant[i];
+                if (sums[m] == null) sums[m] = new FixedPointSum(2);
+                sums[m].add(parser.unscaled(), parser.scale());
+            }
+            List<BigDecimal> out = new ArrayList<>(merchants);
+            for (FixedPointSum s : sums) out.add(s == null ? null : s.toBigDecimal());
+            return out;
+        };
+
+        Bench.run("BigDecimal", 2, 7, bigDecimal);
+        Bench.run("FixedPoint", 2, 7, fixedPoint);
+        System.out.printf("allocated per round: BigDecimal %d MB, FixedPoint %d MB%n",
+                allocated(bigDecimal) >> 20, allocated(fixedPoint) >> 20);
+    }
+
+    private static long allocated(Callable<?> body) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        body.call();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
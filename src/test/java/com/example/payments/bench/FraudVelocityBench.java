@@ -0,0 +1,77 @@
+package com.example.payments.bench;
+
+import com.example.payments.analytics.FraudDetectorAnalytics;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * FraudDetectorAnalytics velocity check on a skewed input: a few hot customers with an
+ * event every 100 ms (36k per hour) and many cold customers with 3 events each. Times
+ * finish() only, on accumulators filled once, for the list and the columnar path, with the
+ * hot customers below the threshold (every window is swept) and breaching early.
+ *
+ * Args: [hot customers, default 8] [events per hot customer, 100000] [cold customers, 200000] [rounds, 5]
+ */
+public class FraudVelocityBench {
+
+    public static void main(String[] args) throws Exception {
+        int hot = Bench.intArg(args, 0, 8);
+        int events = Bench.intArg(args, 1, 100_000);
+        int cold = Bench.intArg(args, 2, 200_000);
+        int rounds = Bench.intArg(args, 3, 5);
+
+        List<Transaction> rows = rows(new Random(1), hot, events, cold);
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (Transaction t : rows) store.add(t);
+        System.out.printf("%d rows: %d hot customers x %d events, %d cold customers x 3%n",
+                rows.size(), hot, events, cold);
+
+        for (int threshold : new int[]{40_000, 1_000}) {
+            Analytics module = new FraudDetectorAnalytics();
+            module.init(Map.of("velocity_window", "1h", "velocity_threshold", threshold,
+                    "amount_threshold", "1000000000"));
+
+            Analytics.Accumulator list = module.newAccumulator();
+            for (Transaction t : rows) list.accept(t);
+            Analytics.Accumulator columnar = module.newAccumulator();
+            for (int row = 0; row < store.size(); row++) columnar.accept(store, row);
+
+            Bench.run("list finish, threshold " + threshold, 1, rounds, list::finish);
+            Bench.run("columnar finish, threshold " + threshold, 1, rounds, columnar::finish);
+        }
+    }
+
+    static List<Transaction> rows(Random rnd, int hot, int events, int cold) {
+        OffsetDateTime start = OffsetDateTime.of(2025, 11, 10, 0, 0, 0, 0, ZoneOffset.UTC);
+        long spanMillis = events * 100L;
+        List<Transaction> rows = new ArrayList<>(hot * events + 3 * cold);
+        for (int c = 0; c < hot; c++) {
+            for (int i = 0; i < events; i++) rows.add(row("H" + c, start.plusNanos((i * 100L + rnd.nextInt(50)) * 1_000_000)));
+        }
+        for (int c = 0; c < cold; c++) {
+            for (int i = 0; i < 3; i++) rows.add(row("C" + c, start.plusNanos((long) (rnd.nextDouble() * spanMillis) * 1_000_000)));
+        }
+        rows.sort(Comparator.comparing(Transaction::getTimestamp));
+        return rows;
+    }
+
+    private static Transaction row(String customer, OffsetDateTime ts) {
+        Transaction t = new Transaction();
+        t.setId(customer + "-" + ts);
+        t.setCustomerId(customer);
+        t.setTimestamp(ts);
+        t.setAmount(BigDecimal.TEN);
+        t.setCurrency("INR");
+        return t;
+    }
+}
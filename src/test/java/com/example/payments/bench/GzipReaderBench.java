@@ -0,0 +1,72 @@
+package com.example.payments.bench;
+
+import com.example.payments.readers.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CsvReader on gzip input against the uncompressed file: one gzip member, and one member
+ * per block of lines as in concatenated hourly dumps, inflated on 1 and on parallelism
+ * threads (see GzipInput). Inputs are generated once into java.io.tmpdir.
+ *
+ * args: [rows, default 1000000] [parallelism, default 4] [members, default 24]
+ */
+public class GzipReaderBench {
+
+    /** Gzips csv into members of about rows / members lines each; the header goes in the first. */
+    static Path gzip(Path csv, Path gz, int rows, int members) throws IOException {
+        if (Files.exists(gz)) return gz;
+        int perMember = Math.max(1, (rows + members - 1) / members);
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(gz)) {
+            String line = in.readLine();
+            while (line != null) {
+                GZIPOutputStream member = new GZIPOutputStream(out, 1 << 16) {
+                    @Override
+                    public void close() throws IOException {
+                        finish(); // end the member, keep the file open
+                    }
+                };
+                for (int n = 0; line != null && n <= perMember; n++, line = in.readLine()) {
+                    member.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                member.close();
+            }
+        }
+        return gz;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Bench.intArg(args, 0, 1_000_000);
+        int parallelism = Bench.intArg(args, 1, 4);
+        int members = Bench.intArg(args, 2, 24);
+        Path dir = Path.of(System.getProperty("java.io.tmpdir"));
+        Path csv = BenchData.csv(dir.resolve("bench-" + rows + ".csv"), rows);
+        Path single = gzip(csv, dir.resolve("bench-" + rows + ".csv.gz"), rows, 1);
+        Path multi = gzip(csv, dir.resolve("bench-" + rows + "-" + members + ".csv.gz"), rows, members);
+        for (Path p : new Path[]{csv, single, multi}) {
+            System.out.println(p + ": " + Files.size(p) / (1 << 20) + " MB");
+        }
+
+        Object[][] cases = {
+                {"csv", csv, 1}, {"gz 1 member", single, 1}, {"gz 1 member", single, parallelism},
+                {"gz " + members + " members", multi, 1}, {"gz " + members + " members", multi, parallelism}};
+        for (String parser : new String[]{"mapped", "jackson"}) {
+            for (Object[] c : cases) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("path", c[1].toString());
+                params.put("parser", parser);
+                params.put("parallelism", c[2]);
+                Bench.run(parser + " " + c[0] + " p=" + c[2], 1, 5, () -> CsvReaderBench.count(params));
+            }
+        }
+    }
+}
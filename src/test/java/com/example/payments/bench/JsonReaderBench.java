@@ -0,0 +1,41 @@
+package com.example.payments.bench;
+
+import com.example.payments.engine.interfaces.DataReader;
+import com.example.payments.readers.CsvReader;
+import com.example.payments.readers.JsonReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * JsonReader on NDJSON and on a top-level array against CsvReader on the same rows. The
+ * inputs are generated once (see BenchData) into java.io.tmpdir and kept between runs.
+ *
+ * args: [rows, default 1000000]
+ */
+public class JsonReaderBench {
+
+    static long count(DataReader reader, Map<String, Object> params) throws Exception {
+        reader.init(params);
+        long[] rows = {0};
+        reader.read(t -> rows[0] += t.getId().length());
+        return rows[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Bench.intArg(args, 0, 1_000_000);
+        Path dir = Path.of(System.getProperty("java.io.tmpdir"));
+        Path csv = BenchData.csv(dir.resolve("bench-" + rows + ".csv"), rows);
+        Path ndjson = BenchData.json(dir.resolve("bench-" + rows + ".ndjson"), rows, false);
+        Path array = BenchData.json(dir.resolve("bench-" + rows + ".json"), rows, true);
+        for (Path p : new Path[]{csv, ndjson, array}) {
+            System.out.println(p + ": " + rows + " rows, " + Files.size(p) / (1 << 20) + " MB");
+        }
+
+        Bench.run("json ndjson", 1, 5, () -> count(new JsonReader(), Map.of("path", ndjson.toString())));
+        Bench.run("json array", 1, 5, () -> count(new JsonReader(), Map.of("path", array.toString())));
+        Bench.run("csv jackson", 1, 5, () -> count(new CsvReader(), Map.of("path", csv.toString(), "parser", "jackson")));
+        Bench.run("csv mapped", 1, 5, () -> count(new CsvReader(), Map.of("path", csv.toString(), "parser", "mapped")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.payments.engine;
+
+import com.example.payments.engine.interfaces.Analytics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentAnalyticsTest {
+
+    private final ComponentFactory factory = new ComponentFactory(new PluginRegistry());
+
+    private List<Analytics> modules(int n) {
+        return new ArrayList<>(Collections.nCopies(n, factory.createAnalytics("channel_performance", Map.of())));
+    }
+
+    private static Callable<Map<String, Object>> sleeping(long millis, String result) {
+        return () -> {
+            Thread.sleep(millis);
+            return Map.of("result", result);
+        };
+    }
+
+    /** Busy for millis and deaf to interrupts, like a module stuck in a tight loop. */
+    private static Callable<Map<String, Object>> stuck(long millis) {
+        return () -> {
+            long end = System.nanoTime() + millis * 1_000_000;
+            while (System.nanoTime() < end) Thread.onSpinWait();
+            return Map.of("result", "late");
+        };
+    }
+
+    @Test
+    void timeoutCountsFromEachModulesStart() {
+        // three 150 ms modules behind a single thread: 450 ms in total, but each within its 400 ms
+        ConcurrentAnalytics concurrent = new ConcurrentAnalytics(1, Duration.ofMillis(400));
+        List<Map<String, Object>> results = concurrent.run(modules(3),
+                List.of(sleeping(150, "a"), sleeping(150, "b"), sleeping(150, "c")));
+        assertEquals(List.of(Map.of("result", "a"), Map.of("result", "b"), Map.of("result", "c")), results);
+    }
+
+    @Test
+    void slowModuleIsCancelledWithoutDelayingTheOthers() {
+        ConcurrentAnalytics concurrent = new ConcurrentAnalytics(0, Duration.ofMillis(200));
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = concurrent.run(modules(3),
+                List.of(sleeping(5_000, "slow"), sleeping(10, "fast"), () -> { throw new IllegalStateException("boom"); }));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertNull(results.get(0));
+        assertEquals(Map.of("result", "fast"), results.get(1));
+        assertNull(results.get(2), "a failing module is left out");
+        assertTrue(millis < 2_000, "returned after " + millis + " ms");
+    }
+
+    @Test
+    void moduleIgnoringCancellationCannotHangAFixedPool() {
+        // the stuck module keeps the only thread past its deadline; the queued one never starts
+        ConcurrentAnalytics concurrent = new ConcurrentAnalytics(1, Duration.ofMillis(200));
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = concurrent.run(modules(2), List.of(stuck(3_000), sleeping(10, "queued")));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+        assertTrue(millis < 1_500, "returned after " + millis + " ms");
+    }
+}
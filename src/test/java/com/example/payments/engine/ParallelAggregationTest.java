@@ -0,0 +1,134 @@
+package com.example.payments.engine;
+
+import com.example.payments.TestTransactions;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import com.example.payments.store.ColumnarTransactionStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every combinable module must give the same payload whether its rows are aggregated by one
+ * accumulator or split into partitions whose accumulators are combined left to right.
+ */
+class ParallelAggregationTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    // approximate top_merchants and streaming_fraud_detection depend on arrival order and are not combinable
+    private static final Object[][] MODULES = {
+            {"top_merchants", Map.of("top_n", 5)},
+            {"top_merchants", Map.of("top_n", 5, "by", "count")},
+            {"channel_performance", Map.of()},
+            {"fraud_detection", Map.of("velocity_window", "1h", "velocity_threshold", 3, "amount_threshold", 15000)},
+            {"distinct_count", Map.of("field", "customerId", "group_by", "merchantCategory")},
+            {"distinct_count", Map.of("field", "customerId", "exact_threshold", 10)},
+            {"amount_quantiles", Map.of("group_by", "paymentType")},
+            {"rollup", Map.of("granularity", "hour", "dimensions", "paymentType,status")},
+    };
+
+    private final ComponentFactory factory = new ComponentFactory(new PluginRegistry());
+
+    private List<Analytics> modules() {
+        List<Analytics> out = new ArrayList<>();
+        for (Object[] m : MODULES) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> params = (Map<String, Object>) m[1];
+            Analytics a = factory.createAnalytics((String) m[0], params);
+            assertTrue(a != null && a.newAccumulator().isCombinable(), m[0] + " should be combinable");
+            out.add(a);
+        }
+        return out;
+    }
+
+    private static String json(Map<String, Object> payload) throws Exception {
+        return JSON.writeValueAsString(payload);
+    }
+
+    private static List<String> sequential(List<Analytics> modules, List<Transaction> rows) throws Exception {
+        List<String> out = new ArrayList<>();
+        for (Analytics a : modules) {
+            Analytics.Accumulator acc = a.newAccumulator();
+            for (Transaction t : rows) acc.accept(t);
+            out.add(json(acc.finish()));
+        }
+        return out;
+    }
+
+    @Test
+    void randomSplitsCombineToTheSequentialResult() throws Exception {
+        Random rnd = new Random(42);
+        List<Analytics> modules = modules();
+        for (int trial = 0; trial < 20; trial++) {
+            List<Transaction> rows = TestTransactions.random(rnd, 200 + rnd.nextInt(3000));
+            List<String> expected = sequential(modules, rows);
+
+            // random split points, including empty partitions
+            int parts = 1 + rnd.nextInt(8);
+            int[] cuts = new int[parts + 1];
+            for (int i = 1; i < parts; i++) cuts[i] = rnd.nextInt(rows.size() + 1);
+            cuts[parts] = rows.size();
+            Arrays.sort(cuts);
+
+            for (int m = 0; m < modules.size(); m++) {
+                Analytics.Accumulator combined = null;
+                for (int p = 0; p < parts; p++) {
+                    Analytics.Accumulator acc = modules.get(m).newAccumulator();
+                    for (Transaction t : rows.subList(cuts[p], cuts[p + 1])) acc.accept(t);
+                    if (combined == null) combined = acc;
+                    else combined.combine(acc);
+                }
+                assertEquals(expected.get(m), json(combined.finish()),
+                        modules.get(m).name() + " trial " + trial + " cuts " + Arrays.toString(cuts));
+            }
+        }
+    }
+
+    @Test
+    void forkJoinRunMatchesSequentialOnRowsAndColumns() throws Exception {
+        Random rnd = new Random(7);
+        List<Analytics> modules = modules();
+        List<Transaction> rows = TestTransactions.random(rnd, 30_000);
+        List<String> expected = sequential(modules, rows);
+
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (Transaction t : rows) store.add(t);
+
+        for (int parallelism : new int[]{2, 3, 8}) {
+            ParallelAggregation parallel = new ParallelAggregation(parallelism);
+
+            ParallelAggregation.Partial byRow = parallel.run(rows.size(), () -> new FilterChain(List.of()), modules,
+                    (from, to, chain, accumulators) -> {
+                        for (int i = from; i < to; i++) {
+                            for (Analytics.Accumulator acc : accumulators) acc.accept(rows.get(i));
+                        }
+                    });
+            ParallelAggregation.Partial byColumn = parallel.run(store.size(), () -> new FilterChain(List.of()), modules,
+                    (from, to, chain, accumulators) -> {
+                        for (int row = from; row < to; row++) {
+                            for (Analytics.Accumulator acc : accumulators) acc.accept(store, row);
+                        }
+                    });
+
+            for (int m = 0; m < modules.size(); m++) {
+                String name = modules.get(m).name() + " parallelism " + parallelism;
+                assertEquals(expected.get(m), json(byRow.accumulators.get(m).finish()), name + " (rows)");
+                assertEquals(expected.get(m), json(byColumn.accumulators.get(m).finish()), name + " (columns)");
+            }
+        }
+    }
+}
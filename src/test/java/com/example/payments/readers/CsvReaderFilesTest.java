@@ -0,0 +1,99 @@
+package com.example.payments.readers;
+
+import com.example.payments.engine.ComponentFactory;
+import com.example.payments.engine.PluginRegistry;
+import com.example.payments.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reading a dt= partition tree: rows arrive in path order across files larger than one
+ * hand-over batch, and partition pruning also applies with the snapshot cache on.
+ */
+class CsvReaderFilesTest {
+
+    private static final String HEADER =
+            "transactionId,timestamp,amount,paymentType,merchantId,merchantName,merchantCategory,customerId,location,status";
+
+    /** Four days, 2500 rows each, every row timestamped inside its own partition's day. */
+    private static List<String> writeTree(Path root) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int day = 1; day <= 4; day++) {
+            Path dir = Files.createDirectories(root.resolve(String.format("dt=2025-11-%02d", day)));
+            StringBuilder csv = new StringBuilder(HEADER).append('\n');
+            for (int i = 0; i < 2_500; i++) {
+                String id = "TXN" + day + "-" + i;
+                ids.add(id);
+                csv.append(id).append(String.format(",2025-11-%02dT%02d:%02d:00Z,", day, i / 60 % 24, i % 60))
+                        .append(i % 97).append(".50,UPI,M").append(i % 7).append(",Shop,Retail,C").append(i % 13)
+                        .append(",Pune,COMPLETED\n");
+            }
+            Files.writeString(dir.resolve("part.csv"), csv);
+        }
+        return ids;
+    }
+
+    private static List<String> read(Map<String, Object> params, Map<String, Object> dateRange) throws Exception {
+        CsvReader reader = new CsvReader();
+        reader.init(params);
+        if (dateRange != null) {
+            reader.pushDown(List.of(new ComponentFactory(new PluginRegistry()).createFilter("date_range_filter", dateRange)));
+        }
+        List<String> ids = new ArrayList<>();
+        reader.read(t -> ids.add(t.getId()));
+        return ids;
+    }
+
+    @Test
+    void filesArriveInPathOrderAcrossBatches(@TempDir Path dir) throws Exception {
+        List<String> expected = writeTree(dir);
+        for (String parser : new String[]{"jackson", "mapped"}) {
+            for (int threads : new int[]{1, 3}) {
+                Map<String, Object> params = new HashMap<>(Map.of("path", dir.toString(), "parser", parser));
+                params.put("file_parallelism", threads);
+                assertEquals(expected, read(params, null), parser + " file_parallelism " + threads);
+            }
+        }
+    }
+
+    @Test
+    void cacheKeepsPartitionPruning(@TempDir Path dir) throws Exception {
+        writeTree(dir);
+        Map<String, Object> params = Map.of("path", dir.toString(), "cache", true,
+                "cache_dir", dir.resolve(".cache").toString());
+        Map<String, Object> range = Map.of("from", "2025-11-02T00:00:00Z", "to", "2025-11-03T23:59:59Z");
+
+        for (int run = 0; run < 2; run++) { // the second run reads snapshots
+            List<String> ids = read(params, range);
+            assertEquals(5_000, ids.size(), "run " + run);
+            for (String id : ids) assertTrue(id.startsWith("TXN2-") || id.startsWith("TXN3-"), id);
+        }
+    }
+
+    @Test
+    void failingFileIsLeftOutAndTheRestStillArrive(@TempDir Path dir) throws Exception {
+        List<String> expected = writeTree(dir);
+        Path day2 = dir.resolve("dt=2025-11-02");
+        Files.delete(day2.resolve("part.csv"));
+        Files.writeString(day2.resolve("part.csv.gz"), "not gzip");
+        List<Transaction> rows = new ArrayList<>();
+        CsvReader reader = new CsvReader();
+        reader.init(Map.of("path", dir.toString(), "parser", "mapped", "file_parallelism", 2));
+        reader.read(rows::add);
+
+        List<String> ids = new ArrayList<>();
+        for (Transaction t : rows) ids.add(t.getId());
+        expected.removeIf(id -> id.startsWith("TXN2-"));
+        assertEquals(expected, ids);
+    }
+}
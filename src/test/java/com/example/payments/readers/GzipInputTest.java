@@ -0,0 +1,143 @@
+package com.example.payments.readers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * GzipInput with parallelism > 1 must give exactly the bytes, and the errors, of
+ * GZIPInputStream: single and many members, header flags, header look-alikes inside
+ * stored data, trailing garbage and corrupt members.
+ */
+class GzipInputTest {
+
+    /** One gzip member; flags 8 adds a file name, 4 an extra field, 2 a header CRC. */
+    private static byte[] member(byte[] data, int level, int flags) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, (byte) flags, 0, 0, 0, 0, 0, 3});
+        if ((flags & 4) != 0) out.writeBytes(new byte[]{3, 0, 'a', 'b', 'c'});
+        if ((flags & 8) != 0) out.writeBytes("part.csv\0".getBytes(StandardCharsets.US_ASCII));
+        if ((flags & 2) != 0) {
+            CRC32 header = new CRC32();
+            header.update(out.toByteArray());
+            out.write((int) header.getValue());
+            out.write((int) (header.getValue() >>> 8));
+        }
+
+        Deflater deflater = new Deflater(level, true);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buf = new byte[64 * 1024];
+        while (!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        for (long v : new long[]{crc.getValue(), data.length}) {
+            for (int i = 0; i < 4; i++) out.write((int) (v >>> (8 * i)));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] csv(Random rnd, int lines) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            s.append("TXN").append(rnd.nextInt()).append(",2025-11-10T09:15:23Z,").append(rnd.nextInt(100_000))
+                    .append(".50,UPI,M").append(rnd.nextInt(500)).append('\n');
+        }
+        return s.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] readAll(InputStream in, int chunk) throws IOException {
+        try (in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[chunk];
+            for (int n; (n = in.read(buf)) >= 0; ) out.write(buf, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    private static void assertSameAsGzipInputStream(Path file) throws IOException {
+        byte[] expected = readAll(new GZIPInputStream(new FileInputStream(file.toFile())), 8192);
+        for (int parallelism : new int[]{2, 3, 8}) {
+            assertArrayEquals(expected, readAll(GzipInput.open(file.toFile(), parallelism), 65_536),
+                    file.getFileName() + " parallelism " + parallelism);
+        }
+        assertArrayEquals(expected, readAll(GzipInput.open(file.toFile(), 4), 7), file.getFileName() + " small reads");
+    }
+
+    private static Path write(Path dir, String name, byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] p : parts) out.writeBytes(p);
+        return Files.write(dir.resolve(name), out.toByteArray());
+    }
+
+    @Test
+    void singleAndManyMembersMatchGzipInputStream(@TempDir Path dir) throws IOException {
+        Random rnd = new Random(1);
+        assertSameAsGzipInputStream(write(dir, "single.gz", member(csv(rnd, 200_000), 6, 0)));
+
+        byte[][] members = new byte[40][];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = member(csv(rnd, rnd.nextInt(20_000)), 1 + i % 9, new int[]{0, 8, 4, 14}[i % 4]);
+        }
+        assertSameAsGzipInputStream(write(dir, "many.gz", members));
+        assertSameAsGzipInputStream(write(dir, "empty-members.gz", member(new byte[0], 6, 0), members[3], member(new byte[0], 6, 0)));
+    }
+
+    @Test
+    void headerLookAlikesInsideStoredDataAreSkipped(@TempDir Path dir) throws IOException {
+        // stored (level 0) blocks carry the bytes verbatim, so the compressed stream holds whole fake headers
+        byte[] fake = member("not a real member\n".getBytes(StandardCharsets.US_ASCII), 6, 0);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        Random rnd = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            data.writeBytes(csv(rnd, 50));
+            data.writeBytes(fake);
+        }
+        byte[] stored = member(data.toByteArray(), 0, 0);
+        assertSameAsGzipInputStream(write(dir, "lookalikes.gz", stored, member(csv(rnd, 1000), 6, 0), stored));
+    }
+
+    @Test
+    void trailingGarbageIsIgnoredLikeGzipInputStream(@TempDir Path dir) throws IOException {
+        Random rnd = new Random(3);
+        byte[] a = member(csv(rnd, 5000), 6, 0);
+        assertSameAsGzipInputStream(write(dir, "garbage.gz", a, member(csv(rnd, 5000), 6, 0),
+                "trailing junk".getBytes(StandardCharsets.US_ASCII)));
+        assertSameAsGzipInputStream(write(dir, "half-header.gz", a, new byte[]{0x1f, (byte) 0x8b, 8}));
+
+        byte[] badHeaderCrc = member(csv(rnd, 100), 6, 2);
+        badHeaderCrc[10] ^= 1; // GZIPInputStream stops at a member whose header CRC fails
+        assertSameAsGzipInputStream(write(dir, "bad-header-crc.gz", a, badHeaderCrc, a));
+    }
+
+    @Test
+    void corruptMemberFailsLikeGzipInputStream(@TempDir Path dir) throws IOException {
+        Random rnd = new Random(4);
+        byte[] corrupt = member(csv(rnd, 5000), 6, 0);
+        corrupt[corrupt.length - 6] ^= 0x55; // CRC
+        Path file = write(dir, "corrupt.gz", member(csv(rnd, 5000), 6, 0), corrupt, member(csv(rnd, 5000), 6, 0));
+
+        assertThrows(IOException.class, () -> readAll(new GZIPInputStream(new FileInputStream(file.toFile())), 8192));
+        for (int parallelism : new int[]{2, 8}) {
+            assertThrows(IOException.class, () -> readAll(GzipInput.open(file.toFile(), parallelism), 8192));
+        }
+        Path notGzip = Files.writeString(dir.resolve("plain.gz"), "transactionId,timestamp\n");
+        assertThrows(IOException.class, () -> readAll(GzipInput.open(notGzip.toFile(), 4), 8192));
+    }
+}
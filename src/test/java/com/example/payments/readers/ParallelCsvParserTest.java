@@ -0,0 +1,93 @@
+package com.example.payments.readers;
+
+import com.example.payments.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A CSV of several MB, so that parallelism 3 and 8 cut it into 12 and 32 ranges, whose
+ * quoted fields hold newlines, CRLFs, doubled quotes and commas: tentative splits land
+ * inside quoted fields and between a CR and its LF, and the record-boundary search must
+ * still give exactly the rows of a sequential read.
+ */
+class ParallelCsvParserTest {
+
+    private static final String HEADER =
+            "transactionId,timestamp,amount,paymentType,merchantId,merchantName,merchantCategory,customerId,location,status";
+
+    /** A field value that needs quoting now and then: embedded LF, CRLF, quotes and commas. */
+    private static String text(Random rnd, String plain) {
+        return switch (rnd.nextInt(8)) {
+            case 0 -> plain + "\nline two";
+            case 1 -> plain + "\r\n\r\n\"quoted\" part";
+            case 2 -> "\"" + plain + "\", \"\"";
+            case 3 -> plain + ", Ltd\n";
+            default -> plain;
+        };
+    }
+
+    private static String quote(String field) {
+        boolean needs = field.indexOf('"') >= 0 || field.indexOf(',') >= 0 || field.indexOf('\n') >= 0
+                || field.indexOf('\r') >= 0;
+        return needs ? "\"" + field.replace("\"", "\"\"") + "\"" : field;
+    }
+
+    /** Writes the file and returns the expected rows, in file order. */
+    private static List<String> write(Path file, int rows) throws Exception {
+        Random rnd = new Random(3);
+        List<String> expected = new ArrayList<>(rows);
+        StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        for (int i = 0; i < rows; i++) {
+            String id = "TXN" + i;
+            String merchant = text(rnd, "Shop " + rnd.nextInt(1000));
+            String location = text(rnd, "Pune");
+            String amount = rnd.nextInt(100_000) + "." + rnd.nextInt(10) + "0";
+            expected.add(id + "|" + merchant + "|" + location + "|" + amount);
+            csv.append(id).append(",2025-11-10T09:15:23Z,").append(amount).append(",UPI,M").append(i % 50).append(',')
+                    .append(quote(merchant)).append(",Retail,C").append(i % 300).append(',').append(quote(location))
+                    .append(",COMPLETED").append(rnd.nextInt(3) == 0 ? "\n" : "\r\n");
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        return expected;
+    }
+
+    private static List<String> read(Path file, int parallelism, boolean ordered) throws Exception {
+        Map<String, Object> params = new HashMap<>(Map.of("path", file.toString(), "parser", "mapped"));
+        params.put("parallelism", parallelism);
+        params.put("ordered", ordered);
+        CsvReader reader = new CsvReader();
+        reader.init(params);
+        List<String> rows = new ArrayList<>();
+        reader.read((Transaction t) -> rows.add(t.getId() + "|" + t.getMerchantName() + "|" + t.getLocation() + "|"
+                + t.getAmount().toPlainString()));
+        return rows;
+    }
+
+    @Test
+    void splitsOnRecordBoundariesAtEveryParallelism(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("quoted.csv");
+        List<String> expected = write(file, 60_000);
+        List<String> sorted = new ArrayList<>(expected);
+        sorted.sort(null);
+
+        assertEquals(expected, read(file, 1, true), "sequential read");
+        for (int parallelism : new int[]{3, 8}) {
+            assertEquals(expected, read(file, parallelism, true), "ordered, parallelism " + parallelism);
+
+            List<String> unordered = read(file, parallelism, false);
+            unordered.sort(null);
+            assertEquals(sorted, unordered, "unordered, parallelism " + parallelism);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.payments.sketch;
+
+import com.example.payments.analytics.DistinctCountAnalytics;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HyperLogLog estimates against exact HashSet counts. Inputs are seeded, so the bounds are
+ * checked on fixed data: every estimate within 3 standard errors, and the RMS relative error
+ * over all runs of a precision within 1.5 standard errors.
+ */
+class HyperLogLogTest {
+
+    private static final int[] CARDINALITIES = {10, 100, 1_000, 10_000, 50_000, 200_000};
+
+    /** Values with repeats: about cardinality distinct ids, each drawn about twice. */
+    private static List<String> values(Random rnd, int cardinality) {
+        List<String> out = new ArrayList<>(2 * cardinality);
+        for (int i = 0; i < 2 * cardinality; i++) out.add("C" + rnd.nextInt(cardinality) + "-" + cardinality);
+        return out;
+    }
+
+    @Test
+    void estimatesStayWithinTheStandardError() {
+        for (int precision : new int[]{10, 12, 14}) {
+            double se = HyperLogLog.standardError(precision);
+            double squares = 0;
+            int runs = 0;
+            for (int cardinality : CARDINALITIES) {
+                for (int seed = 0; seed < 3; seed++) {
+                    List<String> values = values(new Random(31L * cardinality + seed), cardinality);
+                    HyperLogLog hll = new HyperLogLog(precision);
+                    Set<String> exact = new HashSet<>();
+                    for (String v : values) {
+                        hll.add(v);
+                        exact.add(v);
+                    }
+
+                    double error = (hll.estimate() - exact.size()) / (double) exact.size();
+                    assertTrue(Math.abs(error) <= 3 * se, "precision " + precision + " cardinality " + exact.size()
+                            + " estimate " + hll.estimate() + " error " + error + " > 3 * " + se);
+                    squares += error * error;
+                    runs++;
+                }
+            }
+            double rms = Math.sqrt(squares / runs);
+            assertTrue(rms <= 1.5 * se, "precision " + precision + " rms error " + rms + " > 1.5 * " + se);
+        }
+    }
+
+    @Test
+    void mergedSketchEqualsSingleSketch() {
+        Random rnd = new Random(5);
+        List<String> values = values(rnd, 50_000);
+        HyperLogLog single = new HyperLogLog(12);
+        HyperLogLog[] parts = {new HyperLogLog(12), new HyperLogLog(12), new HyperLogLog(12)};
+        for (String v : values) {
+            single.add(v);
+            parts[rnd.nextInt(parts.length)].add(v);
+        }
+
+        HyperLogLog merged = new HyperLogLog(12);
+        for (HyperLogLog p : parts) merged.merge(p);
+        assertEquals(single.estimate(), merged.estimate());
+
+        parts[2].merge(parts[0]);
+        parts[2].merge(parts[1]);
+        assertEquals(single.estimate(), parts[2].estimate(), "merge order");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void distinctCountModuleMatchesExactCount() throws Exception {
+        Random rnd = new Random(11);
+        DistinctCountAnalytics module = new DistinctCountAnalytics();
+        module.init(Map.of("field", "customerId", "group_by", "paymentType", "precision", 12, "exact_threshold", 100));
+
+        List<Transaction> rows = new ArrayList<>();
+        Map<String, Integer> cardinality = Map.of("UPI", 50, "CARD", 5_000, "WALLET", 80_000);
+        for (var e : cardinality.entrySet()) {
+            for (String v : values(rnd, e.getValue())) {
+                Transaction t = new Transaction();
+                t.setPaymentType(e.getKey());
+                t.setCustomerId(v);
+                rows.add(t);
+            }
+        }
+        Collections.shuffle(rows, rnd);
+
+        Analytics.Accumulator single = module.newAccumulator();
+        Analytics.Accumulator left = module.newAccumulator();
+        Analytics.Accumulator right = module.newAccumulator();
+        for (int i = 0; i < rows.size(); i++) {
+            single.accept(rows.get(i));
+            (i < rows.size() / 3 ? left : right).accept(rows.get(i));
+        }
+        left.combine(right);
+
+        Map<String, Object> result = single.finish();
+        assertEquals(result, left.finish(), "combined accumulators");
+
+        Map<String, Long> distinct = (Map<String, Long>) result.get("distinct");
+        Map<String, Boolean> exact = (Map<String, Boolean>) result.get("exact");
+        double se = (Double) result.get("standard_error");
+        for (String group : cardinality.keySet()) {
+            Set<String> expected = new HashSet<>();
+            for (Transaction t : rows) if (group.equals(t.getPaymentType())) expected.add(t.getCustomerId());
+            if (exact.get(group)) {
+                assertEquals(expected.size(), distinct.get(group), group);
+            } else {
+                double error = (distinct.get(group) - expected.size()) / (double) expected.size();
+                assertTrue(Math.abs(error) <= 3 * se, group + " error " + error + " > 3 * " + se);
+            }
+        }
+        assertTrue(exact.get("UPI"));
+        assertFalse(exact.get("WALLET"));
+    }
+}
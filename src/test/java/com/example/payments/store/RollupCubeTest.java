@@ -0,0 +1,126 @@
+package com.example.payments.store;
+
+import com.example.payments.TestTransactions;
+import com.example.payments.analytics.RollupAnalytics;
+import com.example.payments.engine.interfaces.Analytics;
+import com.example.payments.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollupCubeTest {
+
+    private static final DictColumn[] FOUR = {
+            DictColumn.MERCHANT_ID, DictColumn.STATUS, DictColumn.PAYMENT_TYPE, DictColumn.CURRENCY};
+
+    private static Transaction row(String merchant, String amount) {
+        Transaction t = new Transaction();
+        t.setMerchantId(merchant);
+        t.setStatus("COMPLETED");
+        t.setPaymentType("UPI");
+        t.setCurrency("INR");
+        t.setTimestamp(TestTransactions.START);
+        t.setAmount(new BigDecimal(amount));
+        return t;
+    }
+
+    private static long count(RollupCube cube, String merchant) {
+        long n = 0;
+        for (Map<String, Object> cell : cube.rows()) {
+            if (merchant.equals(cell.get("merchantId"))) n += (Long) cell.get("count");
+        }
+        return n;
+    }
+
+    @Test
+    void valuesPastTheCodeCapGoToOtherWhenAddedOrMerged() {
+        // four dimensions pack 15 bits each: 32767 codes, the last one reserved for OTHER
+        int merchants = 40_000;
+        RollupCube single = new RollupCube(RollupCube.Granularity.HOUR, FOUR, 2);
+        RollupCube left = new RollupCube(RollupCube.Granularity.HOUR, FOUR, 2);
+        RollupCube right = new RollupCube(RollupCube.Granularity.HOUR, FOUR, 2);
+        for (int m = 0; m < merchants; m++) {
+            Transaction t = row("M" + m, "1.00");
+            assertTrue(single.add(t));
+            (m % 2 == 0 ? left : right).add(t);
+        }
+        left.merge(right);
+
+        long other = merchants - ((1 << 15) - 1);
+        assertEquals(other, count(single, RollupCube.OTHER));
+        assertEquals(other, count(left, RollupCube.OTHER));
+        assertEquals(single.size(), left.size());
+
+        long total = 0;
+        for (Map<String, Object> cell : left.rows()) total += (Long) cell.get("count");
+        assertEquals(merchants, total, "no merged row is lost or mis-encoded");
+    }
+
+    @Test
+    void overflowingSumsAreFlaggedInsteadOfSaturated() {
+        RollupCube cube = new RollupCube(RollupCube.Granularity.DAY, new DictColumn[]{DictColumn.MERCHANT_ID}, 2);
+        cube.add(row("big", "50000000000000000"));   // 5e18 units at scale 2
+        cube.add(row("big", "50000000000000000"));   // sum passes Long.MAX_VALUE
+        cube.add(row("huge", "1e30"));               // a single amount that does not fit
+        cube.add(row("small", "12.34"));
+
+        Map<String, Map<String, Object>> cells = new HashMap<>();
+        for (Map<String, Object> cell : cube.rows()) cells.put((String) cell.get("merchantId"), cell);
+
+        assertEquals(true, cells.get("big").get("overflow"));
+        assertNull(cells.get("big").get("sum"));
+        assertEquals(new BigDecimal("50000000000000000.00"), cells.get("big").get("max"));
+        assertEquals(true, cells.get("huge").get("overflow"));
+        assertNull(cells.get("huge").get("max"));
+        assertNull(cells.get("small").get("overflow"));
+        assertEquals(new BigDecimal("12.34"), cells.get("small").get("sum"));
+        assertEquals(2, cube.overflowCells());
+    }
+
+    @Test
+    void fromCubeMergesAnEarlierRun(@TempDir Path dir) throws Exception {
+        List<Transaction> rows = TestTransactions.random(new Random(9), 5_000);
+        Path saved = dir.resolve("rollup.cube");
+
+        Map<String, Object> base = Map.of("granularity", "hour", "dimensions", "paymentType,status", "derive", "day");
+        Analytics whole = rollup(base);
+        Analytics first = rollup(with(base, "cube_path", saved.toString()));
+        Analytics second = rollup(with(base, "from_cube", saved.toString()));
+
+        Analytics.Accumulator all = whole.newAccumulator();
+        Analytics.Accumulator a = first.newAccumulator();
+        Analytics.Accumulator b = second.newAccumulator();
+        for (int i = 0; i < rows.size(); i++) {
+            all.accept(rows.get(i));
+            (i < 2_000 ? a : b).accept(rows.get(i));
+        }
+        a.finish(); // writes the cube
+
+        Map<String, Object> expected = all.finish();
+        Map<String, Object> actual = b.finish();
+        assertEquals(expected.get("cells"), actual.get("cells"));
+        assertEquals(expected.get("rollups"), actual.get("rollups"));
+    }
+
+    private static Analytics rollup(Map<String, Object> params) throws Exception {
+        Analytics a = new RollupAnalytics();
+        a.init(params);
+        return a;
+    }
+
+    private static Map<String, Object> with(Map<String, Object> params, String key, Object value) {
+        Map<String, Object> out = new HashMap<>(params);
+        out.put(key, value);
+        return out;
+    }
+}
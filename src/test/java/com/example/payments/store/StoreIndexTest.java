@@ -0,0 +1,105 @@
+package com.example.payments.store;
+
+import com.example.payments.TestTransactions;
+import com.example.payments.engine.ComponentFactory;
+import com.example.payments.engine.FilterChain;
+import com.example.payments.engine.PluginRegistry;
+import com.example.payments.engine.interfaces.Filter;
+import com.example.payments.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * FilterChain.select through a StoreIndex must keep exactly the rows, and report exactly the
+ * per-filter counts, of a row-by-row test, for every combination of filters.
+ */
+class StoreIndexTest {
+
+    private static final String AT = TestTransactions.START.plusHours(30).toString();
+
+    /** Filter configs including boundary instants, +05:30 bounds, saturated bounds and absent values. */
+    private static final Object[][] FILTERS = {
+            {"status_filter", Map.of("allowed_statuses", List.of("COMPLETED", "PENDING"))},
+            {"status_filter", Map.of("allowed_statuses", List.of("NOT_A_STATUS"))},
+            {"date_range_filter", Map.of("from", AT, "to", TestTransactions.START.plusHours(50).toString())},
+            {"date_range_filter", Map.of("from", "2025-11-11T10:30:00+05:30")},
+            {"date_range_filter", Map.of("to", AT)},
+            {"date_range_filter", Map.of("from", "2025-11-12T00:00:00Z", "to", "9999-12-31T23:59:59Z")},
+            {"field_filter", Map.of("field", "paymentType", "values", List.of("UPI", "CARD"))},
+            {"field_filter", Map.of("field", "merchantCategory", "values", "Food, Missing")},
+            {"field_filter", Map.of("field", "customerId", "values", List.of("C1", "C2", "C3"))}, // not indexed
+            {"amount_filter", Map.of("min_amount", "10000.00", "max_amount", "99999999.999")},
+    };
+
+    private final ComponentFactory factory = new ComponentFactory(new PluginRegistry());
+
+    @SuppressWarnings("unchecked")
+    private Filter filter(int i) {
+        return factory.createFilter((String) FILTERS[i][0], (Map<String, Object>) FILTERS[i][1]);
+    }
+
+    @Test
+    void indexedSelectMatchesRowByRowTest() {
+        Random rnd = new Random(3);
+        List<Transaction> rows = TestTransactions.random(rnd, 3_000);
+        // boundary rows: exactly on a bound, the same instant at another offset, and the saturated bound itself
+        rows.get(0).setTimestamp(TestTransactions.START.plusHours(30));
+        rows.get(1).setTimestamp(TestTransactions.START.plusHours(30).withOffsetSameInstant(ZoneOffset.ofHoursMinutes(5, 30)));
+        rows.get(2).setTimestamp(OffsetDateTime.parse("9999-12-31T23:59:59Z"));
+        rows.get(3).setTimestamp(OffsetDateTime.parse("9999-12-31T23:59:59.000000001Z"));
+
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (Transaction t : rows) store.add(t);
+
+        StoreIndex[] indexes = {
+                StoreIndex.build(store, DictColumn.STATUS, DictColumn.PAYMENT_TYPE, DictColumn.MERCHANT_CATEGORY),
+                StoreIndex.build(store), // timestamps only: dictionary filters fall back to scanning
+        };
+
+        int combinations = 0;
+        for (int mask = 0; mask < 1 << FILTERS.length; mask++) {
+            for (StoreIndex index : indexes) {
+                List<Filter> filters = new ArrayList<>();
+                for (int i = 0; i < FILTERS.length; i++) if ((mask & 1 << i) != 0) filters.add(filter(i));
+
+                FilterChain scan = new FilterChain(filters);
+                List<Integer> expected = new ArrayList<>();
+                for (int row = 0; row < store.size(); row++) {
+                    if (scan.test(store, row)) expected.add(row);
+                }
+                FilterChain listScan = new FilterChain(filters);
+                List<Integer> expectedList = new ArrayList<>();
+                for (int row = 0; row < rows.size(); row++) {
+                    if (listScan.test(rows.get(row))) expectedList.add(row);
+                }
+                assertEquals(expectedList, expected, "store test vs list test, filters " + describe(mask));
+
+                FilterChain indexed = new FilterChain(filters);
+                int[] selected = indexed.select(index, store);
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), selected,
+                        "filters " + describe(mask));
+                for (int i = 0; i < filters.size(); i++) {
+                    assertEquals(scan.remaining(i), indexed.remaining(i), "remaining(" + i + "), filters " + describe(mask));
+                }
+                combinations++;
+            }
+        }
+        assertEquals(2 << FILTERS.length, combinations);
+    }
+
+    private static String describe(int mask) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < FILTERS.length; i++) if ((mask & 1 << i) != 0) out.add(FILTERS[i][0] + FILTERS[i][1].toString());
+        return Arrays.toString(out.toArray());
+    }
+}
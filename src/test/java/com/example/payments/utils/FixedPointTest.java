@@ -0,0 +1,167 @@
+package com.example.payments.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Seeded random checks of the fixed-point helpers against BigDecimal: FixedPointSum
+ * against chained BigDecimal.add (scale included) with mixed scales and long overflow,
+ * FixedPoint.parse/rescale, and DecimalBound against BigDecimal.compareTo around its
+ * floor/ceil values.
+ */
+class FixedPointTest {
+
+    /** A random unscaled value: small amounts, large ones, or within reach of the long range. */
+    private static long unscaled(Random rnd) {
+        return switch (rnd.nextInt(4)) {
+            case 0 -> rnd.nextInt(2_000_000) - 1_000_000;
+            case 1 -> rnd.nextLong() >> rnd.nextInt(40);
+            case 2 -> (rnd.nextBoolean() ? Long.MAX_VALUE : Long.MIN_VALUE) - rnd.nextInt(1000) * (rnd.nextBoolean() ? 1 : -1);
+            default -> rnd.nextLong();
+        };
+    }
+
+    private static int scale(Random rnd) {
+        return rnd.nextInt(4) == 0 ? rnd.nextInt(FixedPoint.MAX_SCALE + 1) : rnd.nextInt(5);
+    }
+
+    /** An input amount; now and then with a negative scale or more than 18 digits. */
+    private static BigDecimal amount(Random rnd) {
+        return switch (rnd.nextInt(20)) {
+            case 0 -> new BigDecimal(new BigInteger(80, rnd), rnd.nextInt(6)).negate();
+            case 1 -> BigDecimal.valueOf(rnd.nextInt(1000), -rnd.nextInt(3));
+            default -> BigDecimal.valueOf(unscaled(rnd), scale(rnd));
+        };
+    }
+
+    private static void add(FixedPointSum sum, BigDecimal v, Random rnd) {
+        boolean fits = v.scale() >= 0 && v.scale() <= FixedPoint.MAX_SCALE && v.unscaledValue().bitLength() < 64;
+        if (fits && rnd.nextBoolean()) sum.add(v.unscaledValue().longValueExact(), v.scale());
+        else sum.add(v);
+    }
+
+    @Test
+    void fixedPointSumMatchesChainedBigDecimalAdd() {
+        Random rnd = new Random(5);
+        for (int trial = 0; trial < 5_000; trial++) {
+            int baseScale = rnd.nextInt(4);
+            List<BigDecimal> inputs = new ArrayList<>();
+            // mostly small amounts so some trials stay on the long path, others overflow into BigDecimal
+            boolean small = rnd.nextBoolean();
+            for (int i = rnd.nextInt(40) + 1; i > 0; i--) {
+                inputs.add(small ? BigDecimal.valueOf(rnd.nextInt(2_000_000) - 1_000_000, scale(rnd)) : amount(rnd));
+            }
+
+            BigDecimal expected = inputs.get(0);
+            for (int i = 1; i < inputs.size(); i++) expected = expected.add(inputs.get(i));
+
+            FixedPointSum whole = new FixedPointSum(baseScale);
+            FixedPointSum left = new FixedPointSum(baseScale);
+            FixedPointSum right = new FixedPointSum(baseScale);
+            int split = rnd.nextInt(inputs.size() + 1);
+            for (int i = 0; i < inputs.size(); i++) {
+                add(whole, inputs.get(i), rnd);
+                add(i < split ? left : right, inputs.get(i), rnd);
+            }
+            assertEquals(expected, whole.toBigDecimal(), "trial " + trial + ": " + inputs);
+
+            BigDecimal leftValue = left.toBigDecimal();
+            BigDecimal rightValue = right.toBigDecimal();
+            assertEquals(Integer.signum(leftValue.compareTo(rightValue)), Integer.signum(left.compareTo(right)),
+                    "compare " + leftValue + " with " + rightValue);
+            left.add(right);
+            assertEquals(expected, left.toBigDecimal(), "combined partial sums, trial " + trial);
+        }
+    }
+
+    @Test
+    void fixedPointSumOverflowFallsBackExactly() {
+        FixedPointSum sum = new FixedPointSum(2);
+        sum.add(Long.MAX_VALUE, 2);
+        sum.add(Long.MAX_VALUE, 2);
+        sum.add(1, 5); // rescaling the overflowed sum to scale 5 would overflow too
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE, 2).add(BigDecimal.valueOf(Long.MAX_VALUE, 2))
+                .add(BigDecimal.valueOf(1, 5));
+        assertEquals(expected, sum.toBigDecimal());
+
+        FixedPointSum scaleUp = new FixedPointSum(0);
+        scaleUp.add(Long.MAX_VALUE / 10, 0);
+        scaleUp.add(5, 3); // the long sum cannot be rescaled to 3 decimals
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE / 10).add(new BigDecimal("0.005")), scaleUp.toBigDecimal());
+
+        assertEquals(BigDecimal.ZERO, new FixedPointSum(2).toBigDecimal());
+    }
+
+    @Test
+    void parseAndRescaleMatchBigDecimal() {
+        Random rnd = new Random(6);
+        FixedPoint fp = new FixedPoint();
+        String alphabet = "0123456789.-+e";
+        for (int trial = 0; trial < 50_000; trial++) {
+            String s;
+            if (rnd.nextInt(4) == 0) {
+                StringBuilder b = new StringBuilder();
+                for (int i = rnd.nextInt(22); i > 0; i--) b.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+                s = b.toString();
+            } else {
+                s = BigDecimal.valueOf(unscaled(rnd) >> rnd.nextInt(64), scale(rnd)).toPlainString();
+                if (rnd.nextInt(10) == 0) s = s.startsWith("-") ? s : "+" + s;
+            }
+
+            BigDecimal expected;
+            try {
+                expected = new BigDecimal(s);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            long digitCount = s.chars().filter(Character::isDigit).count();
+            boolean representable = expected != null && digitCount <= FixedPoint.MAX_SCALE && s.indexOf('e') < 0;
+            assertEquals(representable, fp.parse(s), s);
+            if (!representable) continue;
+            assertEquals(expected.unscaledValue().longValueExact(), fp.unscaled(), s);
+            assertEquals(expected.scale(), fp.scale(), s);
+
+            int target = rnd.nextInt(FixedPoint.MAX_SCALE + 1);
+            BigInteger rounded = expected.setScale(target, RoundingMode.HALF_EVEN).unscaledValue();
+            long clamped = rounded.bitLength() < 64 ? rounded.longValue() : rounded.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            assertEquals(clamped, FixedPoint.rescale(fp.unscaled(), fp.scale(), target), s + " at scale " + target);
+        }
+    }
+
+    @Test
+    void decimalBoundMatchesBigDecimalCompareTo() {
+        Random rnd = new Random(7);
+        for (int trial = 0; trial < 500; trial++) {
+            BigDecimal bound = switch (rnd.nextInt(4)) {
+                case 0 -> new BigDecimal(new BigInteger(90, rnd), rnd.nextInt(30) - 5); // beyond the long range at some scales
+                case 1 -> BigDecimal.valueOf(rnd.nextInt(100_000), rnd.nextInt(4)); // typical thresholds
+                default -> new BigDecimal(BigInteger.valueOf(unscaled(rnd)), rnd.nextInt(25) - 3);
+            };
+            if (rnd.nextBoolean()) bound = bound.negate();
+            DecimalBound db = new DecimalBound(bound);
+
+            for (int scale = -1; scale <= FixedPoint.MAX_SCALE + 1; scale++) {
+                List<Long> values = new ArrayList<>(List.of(Long.MIN_VALUE, Long.MAX_VALUE, 0L, unscaled(rnd)));
+                for (RoundingMode mode : new RoundingMode[]{RoundingMode.FLOOR, RoundingMode.CEILING}) {
+                    BigInteger edge = bound.setScale(scale, mode).unscaledValue();
+                    for (int d = -1; d <= 1; d++) {
+                        BigInteger v = edge.add(BigInteger.valueOf(d));
+                        if (v.bitLength() < 64) values.add(v.longValue());
+                    }
+                }
+                for (long v : values) {
+                    int expected = Integer.signum(BigDecimal.valueOf(v, scale).compareTo(bound));
+                    assertEquals(expected, Integer.signum(db.compareTo(v, scale)), v + "e-" + scale + " vs " + bound);
+                }
+            }
+        }
+    }
+}
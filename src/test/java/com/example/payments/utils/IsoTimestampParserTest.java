@@ -0,0 +1,146 @@
+package com.example.payments.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeded random timestamps against java.time: OffsetDateTime.parse for values with an
+ * offset, LocalDateTime.parse(...).atZone(zone) for local ones. The parser must accept
+ * exactly what java.time accepts and give the same instant and offset, with one parser per
+ * zone reused across values so its cached zone ranges are exercised out of order.
+ */
+class IsoTimestampParserTest {
+
+    private static final String[] ZONES = {"UTC", "Asia/Kolkata", "America/New_York", "Europe/London", "Australia/Lord_Howe"};
+
+    /** A local date-time: uniform over 1900-2100, or within hours of one of the zone's transitions. */
+    private static LocalDateTime local(Random rnd, List<ZoneOffsetTransition> transitions) {
+        if (!transitions.isEmpty() && rnd.nextBoolean()) {
+            ZoneOffsetTransition t = transitions.get(rnd.nextInt(transitions.size()));
+            // inside gaps and overlaps as well as either side of them
+            return t.getDateTimeBefore().plusSeconds(rnd.nextInt(4 * 3600) - 2 * 3600);
+        }
+        long day = LocalDateTime.of(1900, 1, 1, 0, 0).toLocalDate().toEpochDay() + rnd.nextInt(200 * 366);
+        return LocalDateTime.of(java.time.LocalDate.ofEpochDay(day), java.time.LocalTime.ofSecondOfDay(rnd.nextInt(86_400)));
+    }
+
+    private static String text(Random rnd, LocalDateTime ldt) {
+        StringBuilder s = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d",
+                ldt.getYear(), ldt.getMonthValue(), ldt.getDayOfMonth(), ldt.getHour(), ldt.getMinute()));
+        if (rnd.nextInt(8) != 0) {
+            s.append(String.format(":%02d", ldt.getSecond()));
+            int digits = rnd.nextInt(12) - 1; // -1: no '.', 0: bare '.', up to 10 digits (invalid)
+            if (digits >= 0) {
+                s.append('.');
+                for (int i = 0; i < digits; i++) s.append((char) ('0' + rnd.nextInt(10)));
+            }
+        }
+        switch (rnd.nextInt(7)) {
+            case 0, 1 -> { } // local
+            case 2 -> s.append(rnd.nextBoolean() ? "Z" : "z");
+            case 3 -> s.append(String.format("%c%02d:%02d", rnd.nextBoolean() ? '+' : '-', rnd.nextInt(20), rnd.nextInt(60)));
+            case 4 -> s.append(String.format("%c%02d:%02d:%02d", rnd.nextBoolean() ? '+' : '-', rnd.nextInt(19),
+                    rnd.nextInt(60), rnd.nextInt(60)));
+            case 5 -> s.append(String.format("%c%02d", rnd.nextBoolean() ? '+' : '-', rnd.nextInt(20)));
+            default -> s.append(String.format("+%02d:%02d", rnd.nextInt(15), 30 * rnd.nextInt(2)));
+        }
+        return s.toString();
+    }
+
+    /** Occasionally break a valid-looking value: out-of-range fields, stray characters, truncation. */
+    private static String mutate(Random rnd, String s) {
+        return switch (rnd.nextInt(40)) {
+            case 0 -> s.substring(0, rnd.nextInt(s.length()));
+            case 1 -> s.substring(0, 5) + "13" + s.substring(7);                 // month 13
+            case 2 -> s.substring(0, 8) + (rnd.nextBoolean() ? "31" : "30") + s.substring(10); // day past month end
+            case 3 -> s.substring(0, 11) + "24" + s.substring(13);               // hour 24
+            case 4 -> s.substring(0, 10) + ' ' + s.substring(11);
+            case 5 -> s + "x";
+            case 6 -> s.substring(0, 14) + "6" + s.substring(15);                // minute 6x
+            default -> s;
+        };
+    }
+
+    /** java.time's reading of s, or null if it rejects it. */
+    private static OffsetDateTime javaTime(String s, ZoneId zone) {
+        try {
+            return OffsetDateTime.parse(s);
+        } catch (Exception notOffset) {
+            try {
+                return LocalDateTime.parse(s).atZone(zone).toOffsetDateTime();
+            } catch (Exception notLocal) {
+                return null;
+            }
+        }
+    }
+
+    @Test
+    void matchesJavaTimeInSeveralZones() {
+        Random rnd = new Random(2025);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            List<ZoneOffsetTransition> transitions = new ArrayList<>();
+            Instant at = Instant.parse("1900-01-01T00:00:00Z");
+            for (ZoneOffsetTransition t; (t = zone.getRules().nextTransition(at)) != null
+                    && t.getInstant().isBefore(Instant.parse("2100-01-01T00:00:00Z")); at = t.getInstant()) {
+                transitions.add(t);
+            }
+            IsoTimestampParser parser = new IsoTimestampParser(zone);
+            int accepted = 0;
+            for (int i = 0; i < 30_000; i++) {
+                String s = mutate(rnd, text(rnd, local(rnd, transitions)));
+                OffsetDateTime expected = javaTime(s, zone);
+
+                boolean ok = rnd.nextBoolean() ? parser.parse(s) : parseFromBytes(parser, rnd, s);
+                assertEquals(expected != null, ok, id + " accepts " + s);
+                if (!ok) continue;
+                accepted++;
+                assertEquals(expected, parser.toOffsetDateTime(), id + " " + s);
+                assertEquals(expected.toEpochSecond(), parser.epochSecond(), id + " epoch second of " + s);
+                assertEquals(expected.getNano(), parser.nano(), id + " nano of " + s);
+                assertEquals(expected.getOffset().getTotalSeconds(), parser.offsetSeconds(), id + " offset of " + s);
+                assertEquals(IsoTimestampParser.epochNanos(expected), parser.epochNanos(), id + " epoch nanos of " + s);
+            }
+            assertTrue(accepted > 15_000, id + ": only " + accepted + " valid values generated");
+        }
+    }
+
+    /** The ByteBuffer overload, with the value placed between other bytes. */
+    private static boolean parseFromBytes(IsoTimestampParser parser, Random rnd, String s) {
+        byte[] value = s.getBytes(StandardCharsets.US_ASCII);
+        int before = rnd.nextInt(8);
+        ByteBuffer buf = ByteBuffer.allocate(before + value.length + 4);
+        buf.position(before);
+        buf.put(value);
+        buf.put(",9,9".getBytes(StandardCharsets.US_ASCII));
+        return parser.parse(buf, before, before + value.length);
+    }
+
+    @Test
+    void epochNanosSaturatesOutsideTheLongRange() {
+        OffsetDateTime late = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
+        OffsetDateTime early = OffsetDateTime.of(1000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime inRange = OffsetDateTime.of(2262, 4, 11, 23, 47, 16, 854_775_807, ZoneOffset.UTC);
+
+        assertEquals(Long.MAX_VALUE, IsoTimestampParser.epochNanos(late));
+        assertTrue(IsoTimestampParser.isSaturated(IsoTimestampParser.epochNanos(late)));
+        assertTrue(IsoTimestampParser.isSaturated(IsoTimestampParser.epochNanos(early)));
+        assertEquals(Long.MAX_VALUE, IsoTimestampParser.epochNanos(inRange), "the largest representable instant");
+        assertEquals(IsoTimestampParser.NO_TIMESTAMP, IsoTimestampParser.epochNanos(null));
+        assertEquals(-1L, IsoTimestampParser.epochNanos(OffsetDateTime.parse("1969-12-31T23:59:59.999999999Z")));
+    }
+}
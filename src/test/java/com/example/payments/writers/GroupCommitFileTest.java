@@ -0,0 +1,163 @@
+package com.example.payments.writers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent appenders against size and time rollover and against close(): every
+ * accepted line ends up in exactly one segment, whole, and in each writer's order.
+ */
+class GroupCommitFileTest {
+
+    /** "w-i-xxx...\n", some longer than the buffer and a few longer than a segment. */
+    private static byte[] line(int writer, int i, Random rnd) {
+        int pad = switch (rnd.nextInt(50)) {
+            case 0 -> 1500 + rnd.nextInt(1000);
+            case 1 -> 5000;
+            default -> rnd.nextInt(200);
+        };
+        return (writer + "-" + i + "-" + "x".repeat(pad) + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Run writers that append until they have written the given number of lines or see the file closed,
+     * closing it after closeAfter (or once they are done). Returns each writer's accepted lines.
+     */
+    private static List<List<String>> append(GroupCommitFile file, int writers, int lines, Duration closeAfter,
+                                             Duration pause) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            results.add(pool.submit(() -> {
+                Random rnd = new Random(writer);
+                List<String> accepted = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < lines; i++) {
+                    byte[] record = line(writer, i, rnd);
+                    try {
+                        file.append(record);
+                    } catch (IllegalStateException closed) {
+                        break;
+                    }
+                    accepted.add(new String(record, StandardCharsets.US_ASCII));
+                    if (!pause.isZero() && i % 50 == 0) Thread.sleep(pause.toMillis());
+                }
+                return accepted;
+            }));
+        }
+        start.countDown();
+        if (closeAfter != null) {
+            Thread.sleep(closeAfter.toMillis());
+            file.close();
+        }
+        List<List<String>> out = new ArrayList<>();
+        for (Future<List<String>> f : results) out.add(f.get());
+        pool.shutdown();
+        file.close();
+        return out;
+    }
+
+    /** Every accepted line exactly once, in writer order, no segment ending mid-line. */
+    private static void assertAllLinesOnce(Path dir, GroupCommitFile file, List<List<String>> accepted, long rollBytes)
+            throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(new HashSet<>(file.segments()), files.collect(Collectors.toSet()));
+        }
+        List<Path> segments = new ArrayList<>(file.segments());
+        Map<String, List<Integer>> seen = new HashMap<>();
+        for (Path segment : segments) {
+            String text = Files.readString(segment, StandardCharsets.US_ASCII);
+            if (text.isEmpty()) continue;
+            assertTrue(text.endsWith("\n"), segment + " ends mid-line");
+            String[] lines = text.split("\n");
+            if (rollBytes > 0 && lines.length > 1) {
+                assertTrue(text.length() <= rollBytes, segment + " holds " + text.length() + " bytes");
+            }
+            for (String line : lines) {
+                String[] parts = line.split("-", 3);
+                seen.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(Integer.parseInt(parts[1]));
+            }
+        }
+
+        long total = 0;
+        for (int w = 0; w < accepted.size(); w++) {
+            List<Integer> expected = new ArrayList<>();
+            for (String line : accepted.get(w)) expected.add(Integer.parseInt(line.split("-", 3)[1]));
+            total += expected.size();
+            // one writer's lines: all of them, once each, in the order it appended them
+            assertEquals(expected, seen.getOrDefault(String.valueOf(w), Collections.emptyList()), "writer " + w);
+        }
+        assertEquals(total, file.records());
+        Set<String> writers = new HashSet<>();
+        for (int w = 0; w < accepted.size(); w++) writers.add(String.valueOf(w));
+        assertTrue(writers.containsAll(seen.keySet()), "lines from unknown writers: " + seen.keySet());
+    }
+
+    @Test
+    void sizeRolloverKeepsEveryLineWhole(@TempDir Path dir) throws Exception {
+        for (GroupCommitFile.Fsync fsync : new GroupCommitFile.Fsync[]{GroupCommitFile.Fsync.NONE, GroupCommitFile.Fsync.INTERVAL}) {
+            Path sub = Files.createDirectory(dir.resolve(fsync.name()));
+            GroupCommitFile file = GroupCommitFile.open(sub.resolve("results.json"), fsync, Duration.ofMillis(5),
+                    4096, null, 1024);
+            List<List<String>> accepted = append(file, 6, 3_000, null, Duration.ZERO);
+
+            assertEquals(18_000, file.records());
+            assertTrue(file.segments().size() > 100, file.segments().size() + " segments");
+            for (Path segment : file.segments()) {
+                assertTrue(segment.getFileName().toString().matches("results-\\d{8}T\\d{6}Z-\\d+\\.json"), segment.toString());
+            }
+            assertAllLinesOnce(sub, file, accepted, 4096);
+        }
+    }
+
+    @Test
+    void timeRolloverWithCommitFsync(@TempDir Path dir) throws Exception {
+        GroupCommitFile file = GroupCommitFile.open(dir.resolve("results.json"), GroupCommitFile.Fsync.COMMIT,
+                Duration.ofMillis(5), 0, Duration.ofMillis(20), 4096);
+        List<List<String>> accepted = append(file, 4, 400, null, Duration.ofMillis(5));
+
+        assertTrue(file.segments().size() > 1, "rolled " + file.segments().size() + " times");
+        assertEquals(file.commits(), file.fsyncs(), "COMMIT forces every group");
+        assertAllLinesOnce(dir, file, accepted, 0);
+    }
+
+    @Test
+    void closeRacingAppendsLosesNothingAccepted(@TempDir Path dir) throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path sub = Files.createDirectory(dir.resolve("round" + round));
+            // odd rounds roll by size as well, so close can also meet a pending rollover
+            long rollBytes = round % 2 == 0 ? 0 : 8192;
+            GroupCommitFile file = GroupCommitFile.open(sub.resolve("out.ndjson"), GroupCommitFile.Fsync.NONE,
+                    Duration.ofMillis(5), rollBytes, null, 2048);
+            List<List<String>> accepted = append(file, 4, 1_000_000, Duration.ofMillis(1 + round % 5), Duration.ZERO);
+
+            long total = accepted.stream().mapToLong(List::size).sum();
+            assertTrue(total < 4_000_000L, "close() stopped the writers");
+            assertAllLinesOnce(sub, file, accepted, rollBytes);
+        }
+    }
+}